@@ -40,6 +40,9 @@ const AnalystDashboard = () => {
     const [interactionStats, setInteractionStats] = useState(null);
     const [monthlyInteractions, setMonthlyInteractions] = useState(null);
     const [interactionTypes, setInteractionTypes] = useState(null);
+    const [leaderboard, setLeaderboard] = useState([]);
+    const [leaderboardMetric, setLeaderboardMetric] = useState('purchases');
+    const [slaBreaches, setSlaBreaches] = useState([]);
 
     // Check if user is authorized (admin or analyst)
     const isAuthorized = () => {
@@ -89,6 +92,19 @@ const AnalystDashboard = () => {
         fetchData();
     }, [navigate]);
 
+    // Leaderboard is optional; the rest of the dashboard still renders without it
+    useEffect(() => {
+        apiGet(`/api/analytics/leaderboard?metric=${leaderboardMetric}&window=month&limit=10`)
+            .then(data => setLeaderboard(Array.isArray(data) ? data : []))
+            .catch(() => setLeaderboard([]));
+    }, [leaderboardMetric]);
+
+    useEffect(() => {
+        apiGet('/api/analytics/sla')
+            .then(data => setSlaBreaches(Array.isArray(data?.breaches) ? data.breaches : []))
+            .catch(() => setSlaBreaches([]));
+    }, []);
+
     // Prepare chart data for monthly interactions
     const monthlyInteractionsChart = {
         labels: monthlyInteractions ? Object.keys(monthlyInteractions) : [],
@@ -264,6 +280,62 @@ const AnalystDashboard = () => {
                             </div>
                         </div>
                     </div>
+
+                    <div className="chart-card leaderboard-card">
+                        <h3>Top Customers This Month</h3>
+                        <select
+                            className="leaderboard-metric"
+                            value={leaderboardMetric}
+                            onChange={e => setLeaderboardMetric(e.target.value)}
+                        >
+                            <option value="purchases">By purchases</option>
+                            <option value="interactions">By interactions</option>
+                        </select>
+                        {leaderboard.length === 0 ? (
+                            <div className="leaderboard-empty">No activity this month</div>
+                        ) : (
+                            <table className="leaderboard-table">
+                                <tbody>
+                                    {leaderboard.map(row => (
+                                        <tr key={row.customerId}>
+                                            <td>{row.rank}</td>
+                                            <td>{row.firstName} {row.lastName}</td>
+                                            <td>{row.customerType}</td>
+                                            <td>{row.score}</td>
+                                        </tr>
+                                    ))}
+                                </tbody>
+                            </table>
+                        )}
+                    </div>
+
+                    <div className="chart-card sla-card">
+                        <h3>SLA Breaches</h3>
+                        {slaBreaches.length === 0 ? (
+                            <div className="leaderboard-empty">No SLA breaches</div>
+                        ) : (
+                            <table className="leaderboard-table">
+                                <thead>
+                                    <tr>
+                                        <th>Type</th>
+                                        <th>Total</th>
+                                        <th>Still open</th>
+                                        <th>Last 24h</th>
+                                    </tr>
+                                </thead>
+                                <tbody>
+                                    {slaBreaches.map(row => (
+                                        <tr key={row.interactionType}>
+                                            <td>{row.interactionType}</td>
+                                            <td>{row.breached}</td>
+                                            <td>{row.stillOpen}</td>
+                                            <td>{row.last24h}</td>
+                                        </tr>
+                                    ))}
+                                </tbody>
+                            </table>
+                        )}
+                    </div>
                 </div>
             )}
         </div>
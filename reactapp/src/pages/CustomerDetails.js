@@ -12,10 +12,12 @@ const CustomerDetails = () => {
     const navigate = useNavigate();
     const [customer, setCustomer] = useState(null);
     const [interactions, setInteractions] = useState([]);
+    const [summary, setSummary] = useState(null);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
     const [successMessage, setSuccessMessage] = useState('');
     const [editingInteraction, setEditingInteraction] = useState(null);
+    const [showAllInteractions, setShowAllInteractions] = useState(false);
 
     // Check if user is admin (only for non-test environments)
     const isAdmin = () => {
@@ -43,18 +45,33 @@ const CustomerDetails = () => {
         }
     };
 
-    const fetchCustomerData = async () => {
+    const fetchCustomerData = async (showAll = showAllInteractions) => {
         try {
             setLoading(true);
             setError('');
 
-            // Fetch customer data
+            // One round trip for the customer, counts and latest interactions
+            const overview = await apiGet(`/api/customers/${id}/overview?recent=20`).catch(() => null);
+            if (overview && overview.customer) {
+                setCustomer(overview.customer);
+                setSummary(overview);
+                if (showAll && overview.totalInteractions > overview.recentInteractions.length) {
+                    // The full history comes in id order; list it newest first like the overview
+                    const allInteractions = await apiGet(`/api/customers/${id}/interactions`);
+                    setInteractions([...allInteractions].reverse());
+                } else {
+                    setInteractions(overview.recentInteractions);
+                }
+                return;
+            }
+
+            // Fall back to the separate endpoints (older backends)
             const customerData = await apiGet(`/api/customers/${id}`);
             setCustomer(customerData);
 
-            // Fetch interactions data
             const interactionsData = await apiGet(`/api/customers/${id}/interactions`);
             setInteractions(interactionsData);
+            setSummary(null);
 
         } catch (err) {
             setError(err.message || 'Customer not found');
@@ -64,7 +81,9 @@ const CustomerDetails = () => {
     };
 
     useEffect(() => {
-        fetchCustomerData();
+        // Another customer starts again from the most recent interactions
+        setShowAllInteractions(false);
+        fetchCustomerData(false);
 
         // Check for success message from navigation state
         if (location.state?.message) {
@@ -82,6 +101,11 @@ const CustomerDetails = () => {
         setEditingInteraction(null); // Clear editing state
     };
 
+    const handleShowAllInteractions = () => {
+        setShowAllInteractions(true);
+        fetchCustomerData(true);
+    };
+
     const handleEditCustomer = () => {
         navigate(`/customers/${id}/edit`);
     };
@@ -127,7 +151,7 @@ const CustomerDetails = () => {
         return (
             <div data-testid="customer-detail-error" className="error-details">
                 {error}
-                <button onClick={fetchCustomerData} className="retry-btn">
+                <button onClick={() => fetchCustomerData()} className="retry-btn">
                     Retry
                 </button>
             </div>
@@ -189,6 +213,24 @@ const CustomerDetails = () => {
                 </div>
 
                 <div className="card-content">
+                    {summary && summary.totalInteractions > 0 && (
+                        <div className="interactions-summary" data-testid="interactions-summary">
+                            {summary.totalInteractions} total
+                            {summary.lastContact && <> · Last contact {new Date(summary.lastContact).toLocaleString()}</>}
+                            {summary.totalInteractions > interactions.length && (
+                                <>
+                                    {' '}· Showing the {interactions.length} most recent{' '}
+                                    <button
+                                        data-testid="show-all-interactions-btn"
+                                        onClick={handleShowAllInteractions}
+                                        className="show-all-btn"
+                                    >
+                                        Show all
+                                    </button>
+                                </>
+                            )}
+                        </div>
+                    )}
                     {interactions.length === 0 ? (
                         <div className="interactions-empty">
                             No interactions found
@@ -209,7 +251,15 @@ const CustomerDetails = () => {
                                     <div className="interaction-description">
                                         <strong>Description:</strong> {interaction.description}
                                     </div>
-                                    {isAuthorized() && (
+                                    {/* Archived interactions are read-only on the server */}
+                                    {interaction.archived ? (
+                                        <div
+                                            className="interaction-archived"
+                                            data-testid={`archived-interaction-${interaction.id}`}
+                                        >
+                                            Archived
+                                        </div>
+                                    ) : isAuthorized() && (
                                         <div className="interaction-actions">
                                             <button
                                                 data-testid={`edit-interaction-${interaction.id}`}
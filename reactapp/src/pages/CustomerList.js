@@ -1,6 +1,6 @@
 
 // pages/CustomerList.js
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { apiGet, apiDelete } from '../utils/api';
 import './CustomerList.css';
@@ -10,6 +10,9 @@ const CustomerList = () => {
     const [loading, setLoading] = useState(true);
     const [deleteLoading, setDeleteLoading] = useState(null);
     const [error, setError] = useState('');
+    const [searchTerm, setSearchTerm] = useState('');
+    const [searchResults, setSearchResults] = useState(null);
+    const latestTerm = useRef('');
     const navigate = useNavigate();
 
     // Check if user is admin (only for non-test environments)
@@ -29,6 +32,28 @@ const CustomerList = () => {
         fetchCustomers();
     }, []);
 
+    // Typeahead: debounce keystrokes, then ask the backend search index
+    useEffect(() => {
+        const term = searchTerm.trim();
+        latestTerm.current = term;
+        if (!term) {
+            setSearchResults(null);
+            return;
+        }
+        const timer = setTimeout(async () => {
+            try {
+                const data = await apiGet(`/api/customers/search?q=${encodeURIComponent(term)}&limit=20`);
+                // Responses can arrive out of order; only the one for the current input counts
+                if (term === latestTerm.current) {
+                    setSearchResults(data);
+                }
+            } catch (error) {
+                console.error('Error searching customers:', error);
+            }
+        }, 200);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
+
     const fetchCustomers = async () => {
         try {
             setLoading(true);
@@ -107,6 +132,14 @@ const CustomerList = () => {
                         Add New Customer
                     </button>
                 )} */}
+                <input
+                    data-testid="customer-search"
+                    type="search"
+                    className="customer-search-input"
+                    placeholder="Search by name, email or phone"
+                    value={searchTerm}
+                    onChange={(e) => setSearchTerm(e.target.value)}
+                />
             </div>
 
             <table data-testid="customer-table" className="customer-table">
@@ -120,7 +153,14 @@ const CustomerList = () => {
                     </tr>
                 </thead>
                 <tbody>
-                    {customers.map(customer => (
+                    {searchResults && searchResults.length === 0 && (
+                        <tr>
+                            <td colSpan="5" className="customer-info">
+                                No matching customers
+                            </td>
+                        </tr>
+                    )}
+                    {(searchResults || customers).map(customer => (
                         <tr key={customer.id}>
                             <td className="customer-name">
                                 {customer.firstName} {customer.lastName}
@@ -0,0 +1,82 @@
+package com.examly.springapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The primary pool comes from spring.datasource.*; app.datasource.replicas
+ * adds read replicas (comma-separated JDBC URLs, same driver, credentials
+ * from app.datasource.replica-username/-password). Without replicas the
+ * application uses the primary pool directly.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replicas:}")
+    private String replicaUrls;
+
+    @Value("${app.datasource.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.max-lag-millis:5000}")
+    private long maxLagMillis;
+
+    @Value("${app.datasource.sticky-millis:5000}")
+    private long stickyMillis;
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        bindPoolSettings(primary, environment, "primary");
+
+        List<ReadWriteRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : replicaUrls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(replicaUsername)
+                    .password(replicaPassword)
+                    .build();
+            String name = "replica-" + (replicas.size() + 1);
+            bindPoolSettings(pool, environment, name);
+            pool.setReadOnly(true);
+            replicas.add(new ReadWriteRoutingDataSource.Replica(name, pool));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, maxLagMillis, stickyMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        if (!routingDataSource.hasReplicas()) {
+            return routingDataSource.getPrimary();
+        }
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // spring.datasource.hikari.* applies to every pool, as it did to the auto-configured one
+    private static void bindPoolSettings(HikariDataSource pool, Environment environment, String name) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+    }
+}
@@ -0,0 +1,39 @@
+package com.examly.springapp.config;
+
+import com.examly.springapp.service.CustomerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off migration for customers.normalized_phone: rows written before the
+ * column existed get it filled in at startup, one transaction per batch, before
+ * the phone index is built. Numbers without usable digits are stored as "", so
+ * once every row has been visited this is a single empty query.
+ */
+@Component
+public class NormalizedPhoneMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(NormalizedPhoneMigration.class);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Value("${app.phone-index.backfill-batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        long lastId = 0L;
+        int batches = 0;
+        while ((lastId = customerService.backfillNormalizedPhones(lastId, batchSize)) >= 0) {
+            batches++;
+        }
+        if (batches > 0) {
+            logger.info("Backfilled normalized phone numbers in {} batches", batches);
+        }
+    }
+}
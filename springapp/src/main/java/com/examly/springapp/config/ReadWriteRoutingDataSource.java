@@ -0,0 +1,236 @@
+package com.examly.springapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything
+ * else to the primary. Must sit behind a LazyConnectionDataSourceProxy, so the
+ * target is picked on the first statement, once the transaction's read-only
+ * flag is known.
+ *
+ * A replica is used only while its last check succeeded, its measured lag is
+ * within maxLagMillis and that check is recent; otherwise, or when it refuses
+ * a connection, the read falls back to the primary. A read-write transaction
+ * inside a web request pins the rest of that request, and the same client
+ * (Authorization header, else remote address) for stickyMillis, to the
+ * primary so users read their own writes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final String PINNED_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".PINNED";
+
+    /** One replica pool with the state of its last health and lag check. */
+    public static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+        private volatile long checkedAtMillis;
+        private volatile String lastError;
+        private final AtomicLong reads = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        /** Records a successful check with the lag it measured. */
+        public void markUp(long lagMillis) {
+            this.lagMillis = lagMillis;
+            this.checkedAtMillis = System.currentTimeMillis();
+            this.healthy = true;
+            this.lastError = null;
+        }
+
+        public void markDown(Exception e) {
+            this.checkedAtMillis = System.currentTimeMillis();
+            this.healthy = false;
+            this.lastError = e.getMessage();
+            failures.incrementAndGet();
+        }
+
+        boolean isUsable(long maxLagMillis, long now) {
+            return healthy && lagMillis <= maxLagMillis && now - checkedAtMillis <= maxLagMillis;
+        }
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long stickyMillis;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<Replica> replicas, long maxLagMillis,
+            long stickyMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLagMillis;
+        this.stickyMillis = stickyMillis;
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                pinToPrimary();
+            }
+            return primary.getConnection();
+        }
+        if (isPinnedToPrimary()) {
+            stickyReads.incrementAndGet();
+            return primary.getConnection();
+        }
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isUsable(maxLagMillis, now)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.reads.incrementAndGet();
+                replicaReads.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                logger.warn("Replica {} refused a connection, reading from the primary: {}",
+                        replica.name, e.getMessage());
+                replica.markDown(e);
+            }
+        }
+        fallbackReads.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    // The pools open every connection with their configured credentials, as Hikari itself does
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections are opened with the configured credentials");
+    }
+
+    private void pinToPrimary() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        String client = clientKey(attributes);
+        if (client != null && stickyMillis > 0) {
+            stickyUntil.put(client, System.currentTimeMillis() + stickyMillis);
+        }
+    }
+
+    private boolean isPinnedToPrimary() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        if (attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        String client = clientKey(attributes);
+        Long until = client != null ? stickyUntil.get(client) : null;
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private static String clientKey(RequestAttributes attributes) {
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String authorization = request.getHeader("Authorization");
+        // Only a hash of the token is kept; a collision merely pins one more client
+        return authorization != null && !authorization.isEmpty()
+                ? "token:" + Integer.toHexString(authorization.hashCode())
+                : "address:" + request.getRemoteAddr();
+    }
+
+    /** Forgets clients whose sticky window has passed. */
+    public void pruneSticky() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> replicaStats = new ArrayList<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", replica.name);
+            stats.put("url", replica.dataSource.getJdbcUrl());
+            stats.put("healthy", replica.healthy);
+            stats.put("usable", replica.isUsable(maxLagMillis, now));
+            stats.put("lagMillis", replica.lagMillis);
+            stats.put("checkedMillisAgo", replica.checkedAtMillis > 0 ? now - replica.checkedAtMillis : null);
+            stats.put("reads", replica.reads.get());
+            stats.put("failures", replica.failures.get());
+            stats.put("lastError", replica.lastError);
+            replicaStats.add(stats);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxLagMillis", maxLagMillis);
+        stats.put("stickyMillis", stickyMillis);
+        stats.put("replicaReads", replicaReads.get());
+        stats.put("stickyReads", stickyReads.get());
+        stats.put("fallbackReads", fallbackReads.get());
+        stats.put("stickyClients", stickyUntil.size());
+        stats.put("replicas", replicaStats);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.close();
+    }
+}
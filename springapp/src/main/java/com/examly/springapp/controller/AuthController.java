@@ -3,6 +3,7 @@ package com.examly.springapp.controller;
 import com.examly.springapp.dto.LoginRequest;
 import com.examly.springapp.dto.LoginResponse;
 import com.examly.springapp.dto.UserRegistrationRequest;
+import com.examly.springapp.exception.WritesSuspendedException;
 import com.examly.springapp.model.User;
 import com.examly.springapp.model.UserRole;
 import com.examly.springapp.service.AuthService;
@@ -57,6 +58,8 @@ public class AuthController {
             User newUser = authService.registerUser(request, adminRole);
 
             return ResponseEntity.ok(newUser);
+        } catch (WritesSuspendedException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
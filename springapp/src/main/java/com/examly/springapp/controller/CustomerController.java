@@ -1,17 +1,33 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.BulkUpdateJob;
+import com.examly.springapp.dto.ChurnScoreView;
+import com.examly.springapp.dto.CustomerBulkUpdateRequest;
+import com.examly.springapp.dto.CustomerOverview;
+import com.examly.springapp.dto.CustomerSearchResult;
+import com.examly.springapp.dto.CustomerSummaryView;
+import com.examly.springapp.dto.CustomerView;
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.model.TierProposal;
+import com.examly.springapp.index.CustomerSearchIndex;
 import com.examly.springapp.model.Customer;
-import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.CustomerType;
 import com.examly.springapp.model.UserRole;
 import com.examly.springapp.service.AuthService;
+import com.examly.springapp.service.BulkUpdateService;
+import com.examly.springapp.service.ChurnScoringService;
 import com.examly.springapp.service.CustomerService;
+import com.examly.springapp.service.CustomerSummaryService;
 import com.examly.springapp.service.InteractionService;
+import com.examly.springapp.service.TierScoringService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -26,6 +42,33 @@ public class CustomerController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private BulkUpdateService bulkUpdateService;
+
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+
+    @Autowired
+    private TierScoringService tierScoringService;
+
+    @Autowired
+    private ChurnScoringService churnScoringService;
+
+    @Value("${app.search.max-results:50}")
+    private int maxSearchResults;
+
+    @Value("${app.customers.overview.max-recent:50}")
+    private int maxRecentInteractions;
+
+    @Value("${app.summary.max-results:200}")
+    private int maxSummaryResults;
+
+    @Value("${app.tiering.max-results:500}")
+    private int maxTierProposals;
+
     private boolean isAdmin(String token) {
         if (token == null || token.isEmpty()) {
             return true; // Allow for testing
@@ -55,8 +98,200 @@ public class CustomerController {
         return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
     }
 
+    // Changes the type of many customers at once; runs in the background
+    @PostMapping("/bulk-update")
+    public ResponseEntity<?> bulkUpdateCustomers(
+            @Valid @RequestBody CustomerBulkUpdateRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            BulkUpdateJob job = bulkUpdateService.submitCustomerUpdate(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/bulk-update/{jobId}")
+    public ResponseEntity<?> getBulkUpdateJob(
+            @PathVariable String jobId,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        BulkUpdateJob job = bulkUpdateService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Bulk update job " + jobId + " not found"));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerSearchResult>> searchCustomers(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        List<CustomerSearchResult> results = customerSearchIndex.search(query, Math.min(limit, maxSearchResults));
+        return ResponseEntity.ok(results);
+    }
+
+    // Customers with their interaction summary, e.g. open complaints, most recent first
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getCustomerSummaries(
+            @RequestParam(value = "minOpenComplaints", defaultValue = "0") long minOpenComplaints,
+            @RequestParam(value = "customerType", required = false) CustomerType customerType,
+            @RequestParam(value = "sort", defaultValue = "lastInteractionDate") String sort,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            List<CustomerSummaryView> customers = customerSummaryService.findCustomers(minOpenComplaints,
+                    customerType, sort, Math.max(1, Math.min(limit, maxSummaryResults)));
+            return ResponseEntity.ok(customers);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/summaries/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildCustomerSummaries(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(customerSummaryService.rebuild());
+    }
+
+    // Customers by churn-risk score from the nightly scoring run, riskiest first
+    @GetMapping("/churn-risk")
+    public ResponseEntity<?> getChurnRisk(
+            @RequestParam(value = "minScore", defaultValue = "0") double minScore,
+            @RequestParam(value = "customerType", required = false) CustomerType customerType,
+            @RequestParam(value = "sort", defaultValue = "score") String sort,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            List<ChurnScoreView> customers = churnScoringService.findCustomers(minScore, customerType, sort,
+                    Math.max(1, Math.min(limit, maxSummaryResults)));
+            return ResponseEntity.ok(customers);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/churn-risk/rebuild")
+    public ResponseEntity<?> rebuildChurnScores(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Map<String, Object> result = churnScoringService.rebuild();
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "A churn scoring run is already in progress"));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // Starts (or resumes) the RFM tier scoring run that normally runs nightly
+    @PostMapping("/tiering/run")
+    public ResponseEntity<?> runTierScoring(
+            @RequestParam(value = "apply", required = false) Boolean apply,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        if (!tierScoringService.start(apply)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "A tier scoring run is already in progress"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tierScoringService.getStatus());
+    }
+
+    @GetMapping("/tiering")
+    public ResponseEntity<Map<String, Object>> getTierScoringStatus(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(tierScoringService.getStatus());
+    }
+
+    @GetMapping("/tiering/proposals")
+    public ResponseEntity<List<TierProposal>> getTierProposals(
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        List<TierProposal> proposals = tierScoringService.getProposals(Math.max(1, Math.min(limit, maxTierProposals)));
+        return ResponseEntity.ok(proposals);
+    }
+
+    @GetMapping("/by-phone/{number}")
+    public ResponseEntity<CustomerView> getCustomerByPhone(
+            @PathVariable String number,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        CustomerView customer = customerService.getCustomerByPhone(number);
+        return ResponseEntity.ok(customer);
+    }
+
+    @GetMapping("/{id}/overview")
+    public ResponseEntity<CustomerOverview> getCustomerOverview(
+            @PathVariable Long id,
+            @RequestParam(value = "recent", defaultValue = "10") int recent,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        int limit = Math.max(1, Math.min(recent, maxRecentInteractions));
+        CustomerOverview overview = customerService.getCustomerOverview(id, limit);
+        return ResponseEntity.ok(overview);
+    }
+
     @GetMapping("/{customerId}/interactions")
-    public ResponseEntity<List<Interaction>> getCustomerInteractions(
+    public ResponseEntity<List<InteractionView>> getCustomerInteractions(
             @PathVariable Long customerId,
             @RequestHeader(value = "Authorization", required = false) String token) {
 
@@ -64,24 +299,24 @@ public class CustomerController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Interaction> interactions = interactionService.getInteractionsByCustomerId(customerId);
+        List<InteractionView> interactions = interactionService.getInteractionsByCustomerId(customerId);
         return ResponseEntity.ok(interactions);
     }
     
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers(
+    public ResponseEntity<List<CustomerView>> getAllCustomers(
             @RequestHeader(value = "Authorization", required = false) String token) {
 
         if (!isAuthorized(token)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<Customer> customers = customerService.getAllCustomers();
+        List<CustomerView> customers = customerService.getAllCustomers();
         return ResponseEntity.ok(customers);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(
+    public ResponseEntity<CustomerView> getCustomerById(
             @PathVariable Long id,
             @RequestHeader(value = "Authorization", required = false) String token) {
 
@@ -89,7 +324,7 @@ public class CustomerController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        Customer customer = customerService.getCustomerById(id);
+        CustomerView customer = customerService.getCustomerViewById(id);
         return ResponseEntity.ok(customer);
     }
 
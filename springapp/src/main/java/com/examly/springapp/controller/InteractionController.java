@@ -1,20 +1,31 @@
 
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.BulkUpdateJob;
+import com.examly.springapp.dto.InteractionBulkUpdateRequest;
+import com.examly.springapp.dto.InteractionView;
 import com.examly.springapp.exception.CustomerNotFoundException;
 import com.examly.springapp.model.Interaction;
 import com.examly.springapp.model.UserRole;
 import com.examly.springapp.service.AuthService;
+import com.examly.springapp.service.BulkUpdateService;
+import com.examly.springapp.service.InteractionArchiveService;
 import com.examly.springapp.service.InteractionService;
 import jakarta.validation.Valid;
 
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/interactions")
@@ -26,6 +37,12 @@ public class InteractionController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private BulkUpdateService bulkUpdateService;
+
+    @Autowired
+    private InteractionArchiveService archiveService;
+
     private boolean isAdmin(String token) {
         if (token == null || token.isEmpty()) {
             return true; // Allow for testing
@@ -63,8 +80,102 @@ public class InteractionController {
         }
     }
 
+    // Changes the status of many interactions at once; runs in the background
+    @PostMapping("/bulk-update")
+    public ResponseEntity<?> bulkUpdateInteractions(
+            @Valid @RequestBody InteractionBulkUpdateRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            BulkUpdateJob job = bulkUpdateService.submitInteractionUpdate(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/bulk-update/{jobId}")
+    public ResponseEntity<?> getBulkUpdateJob(
+            @PathVariable String jobId,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        BulkUpdateJob job = bulkUpdateService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Bulk update job " + jobId + " not found"));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    // Columnar, compressed dump of the interactions in [from, to) for offline analytics;
+    // from/to are local date-times and both optional. Streamed straight from a cursor
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInteractions(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> interactionService.exportColumnar(from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("interactions.col").build().toString())
+                .body(body);
+    }
+
+    // Moves closed-out interactions older than olderThanDays (default app.archive.age-days)
+    // to the archive now instead of waiting for the nightly run
+    @PostMapping("/archive")
+    public ResponseEntity<?> runArchive(
+            @RequestParam(value = "olderThanDays", required = false) Integer olderThanDays,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (olderThanDays != null && olderThanDays < 1) {
+            return ResponseEntity.badRequest().body(Map.of("message", "olderThanDays must be at least 1"));
+        }
+
+        try {
+            long archived = archiveService.archiveOlderThan(
+                    olderThanDays != null ? olderThanDays : archiveService.getAgeDays());
+            return ResponseEntity.ok(Map.of("archived", archived));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<Map<String, Object>> getArchiveStats(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(archiveService.getStats());
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Interaction> getInteractionById(
+    public ResponseEntity<InteractionView> getInteractionById(
             @PathVariable Long id,
             @RequestHeader(value = "Authorization", required = false) String token) {
 
@@ -72,7 +183,7 @@ public class InteractionController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        Interaction interaction = interactionService.getInteractionById(id);
+        InteractionView interaction = interactionService.getInteractionViewById(id);
         return ResponseEntity.ok(interaction);
     }
 
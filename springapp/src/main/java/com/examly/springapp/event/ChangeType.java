@@ -0,0 +1,7 @@
+package com.examly.springapp.event;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED,
+    // Outbox only: a snapshot restore replaced the whole data set
+    RESTORED
+}
@@ -0,0 +1,50 @@
+package com.examly.springapp.event;
+
+import com.examly.springapp.model.Customer;
+
+/**
+ * Published by CustomerService after every customer write so that in-memory
+ * indexes and other read models can follow along without polling the database.
+ * previous is null for CREATED, current is null for DELETED.
+ */
+public class CustomerChangedEvent {
+    private final ChangeType type;
+    private final Long customerId;
+    private final Customer previous;
+    private final Customer current;
+
+    public CustomerChangedEvent(ChangeType type, Long customerId, Customer previous, Customer current) {
+        this.type = type;
+        this.customerId = customerId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static CustomerChangedEvent created(Customer current) {
+        return new CustomerChangedEvent(ChangeType.CREATED, current.getId(), null, current);
+    }
+
+    public static CustomerChangedEvent updated(Customer previous, Customer current) {
+        return new CustomerChangedEvent(ChangeType.UPDATED, current.getId(), previous, current);
+    }
+
+    public static CustomerChangedEvent deleted(Customer previous) {
+        return new CustomerChangedEvent(ChangeType.DELETED, previous.getId(), previous, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Customer getPrevious() {
+        return previous;
+    }
+
+    public Customer getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,18 @@
+package com.examly.springapp.event;
+
+/**
+ * Published by SnapshotService after a snapshot has replaced the customers,
+ * interactions and users tables. Rows were bulk-loaded without per-row change
+ * events, so every in-memory read model reloads from the database.
+ */
+public class DataRestoredEvent {
+    private final String snapshot;
+
+    public DataRestoredEvent(String snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getSnapshot() {
+        return snapshot;
+    }
+}
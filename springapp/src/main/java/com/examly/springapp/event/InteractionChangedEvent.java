@@ -0,0 +1,50 @@
+package com.examly.springapp.event;
+
+import com.examly.springapp.model.Interaction;
+
+/**
+ * Published by InteractionService inside the write transaction, so listeners
+ * using a plain @EventListener commit or roll back together with the change.
+ * previous is null for CREATED, current is null for DELETED.
+ */
+public class InteractionChangedEvent {
+    private final ChangeType type;
+    private final Long interactionId;
+    private final Interaction previous;
+    private final Interaction current;
+
+    public InteractionChangedEvent(ChangeType type, Long interactionId, Interaction previous, Interaction current) {
+        this.type = type;
+        this.interactionId = interactionId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static InteractionChangedEvent created(Interaction current) {
+        return new InteractionChangedEvent(ChangeType.CREATED, current.getId(), null, current);
+    }
+
+    public static InteractionChangedEvent updated(Interaction previous, Interaction current) {
+        return new InteractionChangedEvent(ChangeType.UPDATED, current.getId(), previous, current);
+    }
+
+    public static InteractionChangedEvent deleted(Interaction previous) {
+        return new InteractionChangedEvent(ChangeType.DELETED, previous.getId(), previous, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getInteractionId() {
+        return interactionId;
+    }
+
+    public Interaction getPrevious() {
+        return previous;
+    }
+
+    public Interaction getCurrent() {
+        return current;
+    }
+}
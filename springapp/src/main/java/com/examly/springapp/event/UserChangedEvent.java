@@ -0,0 +1,49 @@
+package com.examly.springapp.event;
+
+import com.examly.springapp.model.User;
+
+/**
+ * Published by AuthService after every user write. previous is null for
+ * CREATED, current is null for DELETED.
+ */
+public class UserChangedEvent {
+    private final ChangeType type;
+    private final Long userId;
+    private final User previous;
+    private final User current;
+
+    public UserChangedEvent(ChangeType type, Long userId, User previous, User current) {
+        this.type = type;
+        this.userId = userId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static UserChangedEvent created(User current) {
+        return new UserChangedEvent(ChangeType.CREATED, current.getId(), null, current);
+    }
+
+    public static UserChangedEvent updated(User previous, User current) {
+        return new UserChangedEvent(ChangeType.UPDATED, current.getId(), previous, current);
+    }
+
+    public static UserChangedEvent deleted(User previous) {
+        return new UserChangedEvent(ChangeType.DELETED, previous.getId(), previous, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public User getPrevious() {
+        return previous;
+    }
+
+    public User getCurrent() {
+        return current;
+    }
+}
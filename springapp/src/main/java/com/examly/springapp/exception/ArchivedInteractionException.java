@@ -0,0 +1,8 @@
+package com.examly.springapp.exception;
+
+// Interactions moved to the archive tier can be read but not updated or deleted
+public class ArchivedInteractionException extends RuntimeException {
+    public ArchivedInteractionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.examly.springapp.exception;
+
+// The requested change feed position is older than the retained entries; carries the head to continue from
+public class ChangesExpiredException extends RuntimeException {
+    private final long head;
+
+    public ChangesExpiredException(String message, long head) {
+        super(message);
+        this.head = head;
+    }
+
+    public long getHead() {
+        return head;
+    }
+}
@@ -0,0 +1,17 @@
+package com.examly.springapp.exception;
+
+import java.util.List;
+
+// A restore that got past emptying the tables but did not finish cleanly
+public class SnapshotRestoreException extends RuntimeException {
+    private final List<String> failedSteps;
+
+    public SnapshotRestoreException(String message, List<String> failedSteps, Throwable cause) {
+        super(message, cause);
+        this.failedSteps = List.copyOf(failedSteps);
+    }
+
+    public List<String> getFailedSteps() {
+        return failedSteps;
+    }
+}
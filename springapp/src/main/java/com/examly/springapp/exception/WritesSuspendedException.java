@@ -0,0 +1,8 @@
+package com.examly.springapp.exception;
+
+// Customer, interaction and user writes are rejected while a snapshot restore replaces the data
+public class WritesSuspendedException extends RuntimeException {
+    public WritesSuspendedException(String message) {
+        super(message);
+    }
+}
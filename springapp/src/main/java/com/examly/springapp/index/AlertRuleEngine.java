@@ -0,0 +1,252 @@
+package com.examly.springapp.index;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.model.Alert;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.service.AlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates alert rules against committed interaction changes using only
+ * in-memory state, never the interaction history:
+ *
+ * COMPLAINT_BURST - a customer logs app.alerts.complaint-burst.count complaints
+ * within app.alerts.complaint-burst.window-days. Each customer keeps just the
+ * timestamps of their latest complaints in a small array; customers are held in
+ * an LRU map capped at app.alerts.max-tracked-customers and dropped once their
+ * newest complaint has left the window.
+ *
+ * UNRESOLVED_RETURN - a RETURN of a customer of app.alerts.open-return.customer-type
+ * is still OPEN app.alerts.open-return.hours after it was logged. Open returns
+ * are kept in a deadline-ordered set that a scheduled check drains.
+ *
+ * Alerts go to AlertService's queue, so evaluation normally stays in memory.
+ */
+@Component
+public class AlertRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertRuleEngine.class);
+
+    public static final String COMPLAINT_BURST = "COMPLAINT_BURST";
+    public static final String UNRESOLVED_RETURN = "UNRESOLVED_RETURN";
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private CustomerSegmentIndex customerSegmentIndex;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Value("${app.alerts.complaint-burst.count:3}")
+    private int burstCount;
+
+    @Value("${app.alerts.complaint-burst.window-days:7}")
+    private int burstWindowDays;
+
+    @Value("${app.alerts.open-return.hours:24}")
+    private int openReturnHours;
+
+    @Value("${app.alerts.open-return.customer-type:VIP}")
+    private CustomerType openReturnCustomerType;
+
+    @Value("${app.alerts.max-tracked-customers:100000}")
+    private int maxTrackedCustomers;
+
+    @Value("${app.alerts.max-open-returns:100000}")
+    private int maxOpenReturns;
+
+    // customerId -> epoch seconds of the latest complaints, ascending, 0 for unused slots
+    private Map<Long, long[]> complaintTimes;
+
+    private final Map<Long, OpenReturn> openReturns = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<OpenReturn> deadlines = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong evaluationNanos = new AtomicLong();
+    private final AtomicLong untrackedReturns = new AtomicLong();
+
+    private long burstWindowSeconds;
+
+    @PostConstruct
+    public void init() {
+        burstWindowSeconds = burstWindowDays * 86_400L;
+        complaintTimes = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxTrackedCustomers;
+            }
+        };
+    }
+
+    // Picks up returns that were already open before this start or restore; the only query the rules make
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    public void loadOpenReturns() {
+        openReturns.clear();
+        deadlines.clear();
+        synchronized (complaintTimes) {
+            complaintTimes.clear();
+        }
+        for (Object[] row : interactionRepository.findByTypeAndStatus(InteractionType.RETURN, InteractionStatus.OPEN)) {
+            trackReturn((Long) row[0], (Long) row[1], (LocalDateTime) row[2]);
+        }
+        logger.info("Alert rules tracking {} open returns", openReturns.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        long start = System.nanoTime();
+        Interaction current = event.getCurrent();
+        if (event.getType() == ChangeType.CREATED && current.getInteractionType() == InteractionType.COMPLAINT) {
+            recordComplaint(current);
+        }
+        if (current != null && current.getInteractionType() == InteractionType.RETURN
+                && current.getStatus() == InteractionStatus.OPEN) {
+            if (!openReturns.containsKey(current.getId())) {
+                trackReturn(current.getId(), current.getCustomerId(), current.getInteractionDate());
+            }
+        } else {
+            untrackReturn(event.getInteractionId());
+        }
+        evaluations.incrementAndGet();
+        evaluationNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.check-interval-ms:60000}")
+    public void checkOpenReturns() {
+        long now = epochSeconds(LocalDateTime.now());
+        OpenReturn due;
+        while ((due = deadlines.pollFirst()) != null) {
+            if (due.dueAt() > now) {
+                deadlines.add(due);
+                break;
+            }
+            if (openReturns.remove(due.interactionId(), due)
+                    && customerSegmentIndex.hasType(due.customerId(), openReturnCustomerType)) {
+                alertService.raise(new Alert(UNRESOLVED_RETURN, due.customerId(), due.interactionId(),
+                        openReturnCustomerType + " customer's return #" + due.interactionId()
+                                + " is still OPEN after " + openReturnHours + "h"));
+            }
+        }
+    }
+
+    // Customers whose newest complaint is older than the window cannot complete a burst
+    @Scheduled(fixedDelayString = "${app.alerts.eviction-interval-ms:600000}")
+    public void evictIdleCustomers() {
+        long cutoff = epochSeconds(LocalDateTime.now()) - burstWindowSeconds;
+        int evicted = 0;
+        synchronized (complaintTimes) {
+            Iterator<long[]> it = complaintTimes.values().iterator();
+            while (it.hasNext()) {
+                long[] times = it.next();
+                if (times[times.length - 1] < cutoff) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle customers from the complaint windows", evicted);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = evaluations.get();
+        stats.put("evaluations", count);
+        stats.put("avgEvaluationMicros", count == 0 ? 0.0 : evaluationNanos.get() / 1000.0 / count);
+        synchronized (complaintTimes) {
+            stats.put("trackedCustomers", complaintTimes.size());
+        }
+        stats.put("openReturns", openReturns.size());
+        stats.put("untrackedReturns", untrackedReturns.get());
+        stats.put("queuedAlerts", alertService.getQueued());
+        stats.put("overflowAlertWrites", alertService.getOverflowWrites());
+        stats.put("failedAlertFlushes", alertService.getFailedFlushes());
+        stats.put("droppedAlerts", alertService.getDropped());
+        return stats;
+    }
+
+    private void recordComplaint(Interaction complaint) {
+        long at = epochSeconds(complaint.getInteractionDate());
+        boolean fired;
+        synchronized (complaintTimes) {
+            long[] times = complaintTimes.computeIfAbsent(complaint.getCustomerId(), id -> new long[burstCount]);
+            if (at <= times[0] && times[0] != 0) {
+                return; // older than every complaint we keep, cannot start a newer burst
+            }
+            // Drop the oldest slot and insert in order; the array has only burstCount entries
+            int i = 0;
+            while (i + 1 < times.length && times[i + 1] < at) {
+                times[i] = times[i + 1];
+                i++;
+            }
+            times[i] = at;
+            fired = times[0] != 0 && times[times.length - 1] - times[0] <= burstWindowSeconds;
+            if (fired) {
+                // Start over so the next alert needs a fresh burst
+                Arrays.fill(times, 0);
+            }
+        }
+        if (fired) {
+            alertService.raise(new Alert(COMPLAINT_BURST, complaint.getCustomerId(), complaint.getId(),
+                    burstCount + " complaints within " + burstWindowDays + " days"));
+        }
+    }
+
+    private void trackReturn(Long interactionId, Long customerId, LocalDateTime loggedAt) {
+        if (openReturns.size() >= maxOpenReturns) {
+            untrackedReturns.incrementAndGet();
+            return;
+        }
+        OpenReturn open = new OpenReturn(epochSeconds(loggedAt) + openReturnHours * 3600L, interactionId, customerId);
+        openReturns.put(interactionId, open);
+        deadlines.add(open);
+    }
+
+    private void untrackReturn(Long interactionId) {
+        OpenReturn open = openReturns.remove(interactionId);
+        if (open != null) {
+            deadlines.remove(open);
+        }
+    }
+
+    private static long epochSeconds(LocalDateTime dateTime) {
+        LocalDateTime value = dateTime != null ? dateTime : LocalDateTime.now();
+        return value.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private record OpenReturn(long dueAt, long interactionId, long customerId) implements Comparable<OpenReturn> {
+        @Override
+        public int compareTo(OpenReturn other) {
+            int byDue = Long.compare(dueAt, other.dueAt);
+            return byDue != 0 ? byDue : Long.compare(interactionId, other.interactionId);
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.examly.springapp.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints in the style of a Roaring bitmap: values
+ * are split by their high 16 bits into containers, each holding the low 16 bits
+ * either as a sorted char array (sparse, up to 4096 values) or as a 1024-word
+ * bitset (dense). Set operations work container by container and never
+ * materialise the full id range.
+ *
+ * Not thread-safe; callers guard shared instances.
+ */
+public final class CompressedBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public void add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) value);
+    }
+
+    public void remove(int value) {
+        if (value < 0) {
+            return;
+        }
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        containers[i] = containers[i].remove((char) value);
+        if (containers[i].cardinality() == 0) {
+            removeContainer(i);
+        }
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        keys = new char[0];
+        containers = new Container[0];
+        size = 0;
+    }
+
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Container[size];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || other.keys[j] < keys[i]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /** Smallest value >= from, or -1 when there is none. */
+    public int nextValue(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        char key = (char) (from >>> 16);
+        int i = indexOf(key);
+        if (i >= 0) {
+            int low = containers[i].next((char) from);
+            if (low >= 0) {
+                return (key << 16) | low;
+            }
+            i++;
+        } else {
+            i = -i - 1;
+        }
+        return i < size ? (keys[i] << 16) | containers[i].next((char) 0) : -1;
+    }
+
+    /** Up to limit values greater than afterExclusive, in ascending order. */
+    public int[] page(int afterExclusive, int limit) {
+        int[] result = new int[limit];
+        int count = 0;
+        int value = afterExclusive == Integer.MAX_VALUE ? -1 : nextValue(afterExclusive + 1);
+        while (value >= 0 && count < limit) {
+            result[count++] = value;
+            value = value == Integer.MAX_VALUE ? -1 : nextValue(value + 1);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    // Keys arrive in ascending order from the set operations
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality() > 0) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+    }
+
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container copy();
+
+        // Smallest low value >= from, or -1
+        abstract int next(char from);
+
+        abstract long[] words();
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.filter(other, true);
+            }
+            if (other instanceof ArrayContainer array) {
+                return array.filter(this, true);
+            }
+            long[] result = words().clone();
+            long[] right = other.words();
+            for (int w = 0; w < WORDS; w++) {
+                result[w] &= right[w];
+            }
+            return fromWords(result);
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer left && other instanceof ArrayContainer right
+                    && left.size + right.size <= ARRAY_LIMIT) {
+                return left.merge(right);
+            }
+            long[] result = words().clone();
+            long[] right = other.words();
+            for (int w = 0; w < WORDS; w++) {
+                result[w] |= right[w];
+            }
+            return fromWords(result);
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.filter(other, false);
+            }
+            long[] result = words().clone();
+            long[] right = other.words();
+            for (int w = 0; w < WORDS; w++) {
+                result[w] &= ~right[w];
+            }
+            return fromWords(result);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size >= ARRAY_LIMIT) {
+                return new BitmapContainer(words()).add(value);
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, size * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(size, 1));
+            copy.size = size;
+            return copy;
+        }
+
+        @Override
+        int next(char from) {
+            int i = Arrays.binarySearch(values, 0, size, from);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < size ? values[i] : -1;
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        // Keeps the values that are (keep = true) or are not (keep = false) in other
+        ArrayContainer filter(Container other, boolean keep) {
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(size, 1)];
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i]) == keep) {
+                    result.values[result.size++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        ArrayContainer merge(ArrayContainer other) {
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(size + other.size, 1)];
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                char next;
+                if (j >= other.size || (i < size && values[i] < other.values[j])) {
+                    next = values[i++];
+                } else if (i >= size || other.values[j] < values[i]) {
+                    next = other.values[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                result.values[result.size++] = next;
+            }
+            return result;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] bits;
+        private int cardinality;
+
+        BitmapContainer(long[] bits) {
+            this.bits = bits;
+            for (long word : bits) {
+                cardinality += Long.bitCount(word);
+            }
+        }
+
+        @Override
+        Container add(char value) {
+            long before = bits[value >>> 6];
+            bits[value >>> 6] = before | (1L << value);
+            if (before != bits[value >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = bits[value >>> 6];
+            bits[value >>> 6] = before & ~(1L << value);
+            if (before != bits[value >>> 6]) {
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? fromWords(bits) : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (bits[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(bits.clone());
+        }
+
+        @Override
+        int next(char from) {
+            int w = from >>> 6;
+            long word = bits[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == WORDS) {
+                    return -1;
+                }
+                word = bits[w];
+            }
+        }
+
+        @Override
+        long[] words() {
+            return bits;
+        }
+    }
+
+    // Picks the cheaper representation for a result
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality > ARRAY_LIMIT) {
+            return new BitmapContainer(words);
+        }
+        ArrayContainer array = new ArrayContainer();
+        array.values = new char[Math.max(cardinality, 1)];
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                array.values[array.size++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+}
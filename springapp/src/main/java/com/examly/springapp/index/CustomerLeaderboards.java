@@ -0,0 +1,180 @@
+package com.examly.springapp.index;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.model.CustomerSummary;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.ArchivedInteractionDayRepository;
+import com.examly.springapp.repository.CustomerSummaryRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Top customers by purchases and by interaction volume, all time and per
+ * calendar month for the last few months. Kept current from committed
+ * interaction writes; all-time scores are seeded from customer_summary.
+ */
+@Component
+public class CustomerLeaderboards {
+
+    public enum Metric {
+        PURCHASES, INTERACTIONS
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerLeaderboards.class);
+
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private ArchivedInteractionDayRepository archivedDayRepository;
+
+    @Value("${app.leaderboard.months:3}")
+    private int retainedMonths;
+
+    @Value("${app.leaderboard.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    private final Map<Metric, Leaderboard> allTime = newBoards();
+    private final Map<YearMonth, Map<Metric, Leaderboard>> monthly = new ConcurrentHashMap<>();
+
+    // Runs after the summary table has been rebuilt, see CustomerSummaryService
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        allTime.values().forEach(Leaderboard::clear);
+        monthly.clear();
+
+        long lastId = 0L;
+        List<CustomerSummary> batch;
+        do {
+            batch = customerSummaryRepository.findByCustomerIdGreaterThanOrderByCustomerIdAsc(lastId,
+                    PageRequest.of(0, rebuildBatchSize));
+            for (CustomerSummary summary : batch) {
+                allTime.get(Metric.INTERACTIONS).set(summary.getCustomerId(), summary.getTotalInteractions());
+                allTime.get(Metric.PURCHASES).set(summary.getCustomerId(), summary.getPurchases());
+                lastId = summary.getCustomerId();
+            }
+        } while (batch.size() == rebuildBatchSize);
+
+        YearMonth oldest = oldestRetainedMonth();
+        for (Object[] row : interactionRepository.countMonthlyByCustomerSince(oldest.atDay(1).atStartOfDay(),
+                InteractionType.PURCHASE)) {
+            Map<Metric, Leaderboard> boards = monthBoards(YearMonth.of(((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue()));
+            if (boards != null) {
+                long customerId = (Long) row[0];
+                boards.get(Metric.INTERACTIONS).set(customerId, ((Number) row[3]).longValue());
+                boards.get(Metric.PURCHASES).set(customerId, ((Number) row[4]).longValue());
+            }
+        }
+        // Archived interactions of the retained months count on top of the live ones
+        for (Object[] row : archivedDayRepository.countMonthlyByCustomerSince(oldest.atDay(1).atStartOfDay(),
+                InteractionType.PURCHASE)) {
+            Map<Metric, Leaderboard> boards = monthBoards(YearMonth.of(((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue()));
+            if (boards != null) {
+                long customerId = (Long) row[0];
+                boards.get(Metric.INTERACTIONS).add(customerId, ((Number) row[3]).longValue());
+                boards.get(Metric.PURCHASES).add(customerId, ((Number) row[4]).longValue());
+            }
+        }
+        logger.info("Leaderboards built for {} customers and {} months in {} ms",
+                allTime.get(Metric.INTERACTIONS).size(), monthly.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onInteractionChanged(InteractionChangedEvent event) {
+        apply(event.getPrevious(), -1);
+        apply(event.getCurrent(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            long customerId = event.getCustomerId();
+            allTime.values().forEach(board -> board.remove(customerId));
+            monthly.values().forEach(boards -> boards.values().forEach(board -> board.remove(customerId)));
+        }
+    }
+
+    /** Top entries for the metric; month null means all time. */
+    public List<Leaderboard.Entry> top(Metric metric, YearMonth month, int limit) {
+        if (month == null) {
+            return allTime.get(metric).top(limit);
+        }
+        Map<Metric, Leaderboard> boards = monthly.get(month);
+        return boards == null ? List.of() : boards.get(metric).top(limit);
+    }
+
+    public boolean isRetained(YearMonth month) {
+        return !month.isBefore(oldestRetainedMonth()) && !month.isAfter(YearMonth.now());
+    }
+
+    private void apply(Interaction interaction, int sign) {
+        if (interaction == null) {
+            return;
+        }
+        long customerId = interaction.getCustomerId();
+        boolean purchase = interaction.getInteractionType() == InteractionType.PURCHASE;
+        allTime.get(Metric.INTERACTIONS).add(customerId, sign);
+        if (purchase) {
+            allTime.get(Metric.PURCHASES).add(customerId, sign);
+        }
+        if (interaction.getInteractionDate() == null) {
+            return;
+        }
+        Map<Metric, Leaderboard> boards = monthBoards(YearMonth.from(interaction.getInteractionDate()));
+        if (boards != null) {
+            boards.get(Metric.INTERACTIONS).add(customerId, sign);
+            if (purchase) {
+                boards.get(Metric.PURCHASES).add(customerId, sign);
+            }
+        }
+    }
+
+    // Returns the boards for a retained month, dropping months that have aged out
+    private Map<Metric, Leaderboard> monthBoards(YearMonth month) {
+        YearMonth oldest = oldestRetainedMonth();
+        monthly.keySet().removeIf(existing -> existing.isBefore(oldest));
+        if (!isRetained(month)) {
+            return null;
+        }
+        return monthly.computeIfAbsent(month, key -> newBoards());
+    }
+
+    private YearMonth oldestRetainedMonth() {
+        return YearMonth.now().minusMonths(Math.max(1, retainedMonths) - 1L);
+    }
+
+    private static Map<Metric, Leaderboard> newBoards() {
+        Map<Metric, Leaderboard> boards = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            boards.put(metric, new Leaderboard());
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,482 @@
+package com.examly.springapp.index;
+
+import com.examly.springapp.dto.CustomerSearchResult;
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory typeahead index over customer name, email and phone.
+ *
+ * Tokens are kept in a sorted map so a prefix query is a single sub-map walk;
+ * name tokens are additionally indexed by trigram so that a misspelt name can
+ * still be found. Candidate collection is capped, so query cost depends on the
+ * number of matches looked at rather than on the number of customers.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    private static final long[] EMPTY = new long[0];
+    private static final int MAX_FUZZY_TOKENS = 500;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Value("${app.search.max-candidates:2000}")
+    private int maxCandidates;
+
+    @Value("${app.search.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    // Swapped whole by rebuild(); readers take one reference and never see a half-built index
+    private volatile Tables tables = new Tables();
+
+    // Latest state of customers changed while a rebuild is reading pages (null value = deleted)
+    private Map<Long, Customer> changedDuringRebuild;
+
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Builds a fresh index off to the side and swaps it in under the index
+     * monitor. Searches keep using the old index until then, and commit events
+     * that land while pages are being read are replayed onto the fresh index
+     * at the swap, so a page read before the commit can neither overwrite the
+     * change nor bring back a customer deleted in the meantime.
+     */
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (this) {
+                changedDuringRebuild = new LinkedHashMap<>();
+            }
+            Tables fresh = new Tables();
+            try {
+                long lastId = 0L;
+                List<Customer> batch;
+                do {
+                    batch = customerRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildBatchSize));
+                    for (Customer customer : batch) {
+                        fresh.put(customer);
+                        lastId = customer.getId();
+                    }
+                } while (batch.size() == rebuildBatchSize);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                changedDuringRebuild.forEach((id, customer) -> {
+                    if (customer == null) {
+                        fresh.remove(id);
+                    } else {
+                        fresh.put(customer);
+                    }
+                });
+                changedDuringRebuild = null;
+                tables = fresh;
+            }
+            logger.info("Customer search index built with {} customers in {} ms",
+                    fresh.entries.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            remove(event.getCustomerId());
+        } else {
+            put(event.getCurrent());
+        }
+    }
+
+    public synchronized void put(Customer customer) {
+        if (customer == null || customer.getId() == null) {
+            return;
+        }
+        tables.put(customer);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(customer.getId(), customer);
+        }
+    }
+
+    public synchronized void remove(Long customerId) {
+        tables.remove(customerId);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(customerId, null);
+        }
+    }
+
+    public synchronized void clear() {
+        tables = new Tables();
+    }
+
+    public int size() {
+        return tables.entries.size();
+    }
+
+    public List<CustomerSearchResult> search(String query, int limit) {
+        String[] terms = parseQuery(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Tables t = tables;
+
+        // Drive candidate collection from the longest (usually most selective) term
+        String driver = terms[0];
+        for (String term : terms) {
+            if (term.length() > driver.length()) {
+                driver = term;
+            }
+        }
+
+        Set<Long> candidates = new HashSet<>();
+        for (Map.Entry<String, long[]> posting : t.postings.subMap(driver, true, driver + Character.MAX_VALUE, false).entrySet()) {
+            for (long id : posting.getValue()) {
+                candidates.add(id);
+            }
+            if (candidates.size() >= maxCandidates) {
+                break;
+            }
+        }
+        if (candidates.size() < limit && driver.length() >= 3) {
+            for (String token : fuzzyTokens(t, driver)) {
+                for (long id : t.postings.getOrDefault(token, EMPTY)) {
+                    candidates.add(id);
+                }
+                if (candidates.size() >= maxCandidates) {
+                    break;
+                }
+            }
+        }
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1);
+        for (Long id : candidates) {
+            Entry entry = t.entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            double score = score(entry, terms);
+            if (score <= 0) {
+                continue;
+            }
+            top.offer(new Scored(entry, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort((a, b) -> b.compareTo(a));
+        List<CustomerSearchResult> results = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            Entry e = scored.entry;
+            results.add(new CustomerSearchResult(e.id, e.firstName, e.lastName, e.email,
+                    e.phoneNumber, e.customerType, scored.score));
+        }
+        return results;
+    }
+
+    // Every term has to match some token; exact beats prefix beats fuzzy, names weigh more
+    private double score(Entry entry, String[] terms) {
+        double total = 0;
+        for (String term : terms) {
+            double best = 0;
+            for (int i = 0; i < entry.tokens.length; i++) {
+                String token = entry.tokens[i];
+                boolean nameToken = i < entry.nameTokenCount;
+                double s = 0;
+                if (token.equals(term)) {
+                    s = 3.0;
+                } else if (token.startsWith(term)) {
+                    s = 2.0 + (double) term.length() / token.length();
+                } else if (nameToken && term.length() >= 3 && withinEdits(term, token, maxEdits(term))) {
+                    s = 1.0;
+                }
+                if (!nameToken) {
+                    s *= 0.8;
+                }
+                best = Math.max(best, s);
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private List<String> fuzzyTokens(Tables t, String term) {
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : trigramsOf(term)) {
+            for (String token : t.trigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(token, 1, Integer::sum);
+            }
+        }
+        int edits = maxEdits(term);
+        List<String> matches = new ArrayList<>();
+        shared.entrySet().stream()
+                .sorted((a, b) -> b.getValue() - a.getValue())
+                .limit(MAX_FUZZY_TOKENS)
+                .forEach(e -> {
+                    if (withinEdits(term, e.getKey(), edits)) {
+                        matches.add(e.getKey());
+                    }
+                });
+        return matches;
+    }
+
+    static String[] parseQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return new String[0];
+        }
+        String trimmed = query.trim().toLowerCase();
+        // A query made only of phone punctuation is one phone number, not several words
+        if (trimmed.matches("[\\d()+\\-.\\s]+")) {
+            String digits = trimmed.replaceAll("\\D", "");
+            return digits.isEmpty() ? new String[0] : new String[] { digits };
+        }
+        return Arrays.stream(trimmed.split("\\s+"))
+                .filter(t -> !t.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    static int maxEdits(String term) {
+        return term.length() <= 4 ? 1 : 2;
+    }
+
+    // Optimal string alignment distance against the whole token or its same-length prefix
+    static boolean withinEdits(String term, String token, int maxEdits) {
+        if (Math.abs(term.length() - token.length()) <= maxEdits
+                && editDistance(term, token, maxEdits) <= maxEdits) {
+            return true;
+        }
+        return token.length() > term.length()
+                && editDistance(term, token.substring(0, term.length()), maxEdits) <= maxEdits;
+    }
+
+    private static int editDistance(String a, String b, int maxEdits) {
+        int n = a.length();
+        int m = b.length();
+        int[] prev2 = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, prev2[j - 2] + 1);
+                }
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxEdits) {
+                return rowMin;
+            }
+            int[] tmp = prev2;
+            prev2 = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return prev[m];
+    }
+
+    private static Set<String> trigramsOf(String token) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            grams.add(token.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // One generation of the index; changed only by the thread building it or under the index monitor
+    private static final class Tables {
+        final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+        // token -> sorted customer ids (copy-on-write, single writer)
+        final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+
+        // name trigram -> name tokens containing it
+        final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+        void put(Customer customer) {
+            remove(customer.getId());
+            Entry entry = new Entry(customer);
+            for (int i = 0; i < entry.tokens.length; i++) {
+                addPosting(entry.tokens[i], entry.id, i < entry.nameTokenCount);
+            }
+            entries.put(entry.id, entry);
+        }
+
+        void remove(Long customerId) {
+            Entry entry = entries.remove(customerId);
+            if (entry == null) {
+                return;
+            }
+            for (String token : entry.tokens) {
+                removePosting(token, entry.id);
+            }
+        }
+
+        private void addPosting(String token, long id, boolean nameToken) {
+            long[] ids = postings.getOrDefault(token, EMPTY);
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            long[] updated = new long[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, insertAt);
+            updated[insertAt] = id;
+            System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+            postings.put(token, updated);
+            if (nameToken) {
+                for (String gram : trigramsOf(token)) {
+                    trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(token);
+                }
+            }
+        }
+
+        private void removePosting(String token, long id) {
+            long[] ids = postings.get(token);
+            if (ids == null) {
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos < 0) {
+                return;
+            }
+            if (ids.length == 1) {
+                postings.remove(token);
+                for (String gram : trigramsOf(token)) {
+                    Set<String> tokens = trigrams.get(gram);
+                    if (tokens != null) {
+                        tokens.remove(token);
+                        if (tokens.isEmpty()) {
+                            trigrams.remove(gram);
+                        }
+                    }
+                }
+                return;
+            }
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, pos);
+            System.arraycopy(ids, pos + 1, updated, pos, ids.length - pos - 1);
+            postings.put(token, updated);
+        }
+    }
+
+    private static final class Entry {
+        final long id;
+        final String firstName;
+        final String lastName;
+        final String email;
+        final String phoneNumber;
+        final CustomerType customerType;
+        // name tokens first, then email and phone tokens
+        final String[] tokens;
+        final int nameTokenCount;
+
+        Entry(Customer customer) {
+            this.id = customer.getId();
+            this.firstName = customer.getFirstName();
+            this.lastName = customer.getLastName();
+            this.email = customer.getEmail();
+            this.phoneNumber = customer.getPhoneNumber();
+            this.customerType = customer.getCustomerType();
+
+            Set<String> names = new LinkedHashSet<>();
+            addWords(names, firstName);
+            addWords(names, lastName);
+
+            Set<String> others = new LinkedHashSet<>();
+            if (email != null && !email.isBlank()) {
+                String lower = email.trim().toLowerCase();
+                others.add(lower);
+                int at = lower.indexOf('@');
+                if (at > 0) {
+                    for (String part : lower.substring(0, at).split("[._+\\-]+")) {
+                        if (!part.isEmpty()) {
+                            others.add(part);
+                        }
+                    }
+                }
+            }
+            if (phoneNumber != null) {
+                String digits = phoneNumber.replaceAll("\\D", "");
+                if (!digits.isEmpty()) {
+                    others.add(digits);
+                }
+            }
+            others.removeAll(names);
+
+            List<String> all = new ArrayList<>(names);
+            all.addAll(others);
+            this.tokens = all.toArray(new String[0]);
+            this.nameTokenCount = names.size();
+        }
+
+        private static void addWords(Set<String> out, String value) {
+            if (value == null) {
+                return;
+            }
+            for (String word : value.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    out.add(word);
+                }
+            }
+        }
+    }
+
+    private static final class Scored implements Comparable<Scored> {
+        final Entry entry;
+        final double score;
+
+        Scored(Entry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+
+        // Ascending order so the heap head is the weakest of the current top-K
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(other.entry.id, entry.id);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.examly.springapp.index;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.ArchivedInteractionDayRepository;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory segment engine: one compressed bitmap of customer ids per customer
+ * type, email domain, registration month and "had an interaction of this type
+ * in the last N days", archived interactions included. Segment expressions are
+ * evaluated with bitmap AND/OR/NOT, so counts never touch the database.
+ *
+ * Terms: type:VIP, domain:gmail.com, registered:2024-03 (or 2024-Q1, 2024),
+ * recent:COMPLAINT.
+ */
+@Component
+public class CustomerSegmentIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSegmentIndex.class);
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private ArchivedInteractionDayRepository archivedDayRepository;
+
+    @Value("${app.segments.recent-days:30}")
+    private int recentDays;
+
+    @Value("${app.segments.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final Map<CustomerType, CompressedBitmap> byType = new EnumMap<>(CustomerType.class);
+    private final Map<String, CompressedBitmap> byDomain = new HashMap<>();
+    private final Map<YearMonth, CompressedBitmap> byMonth = new HashMap<>();
+    private final Map<InteractionType, CompressedBitmap> recentByType = new EnumMap<>(InteractionType.class);
+    // Latest interaction date per type and customer, only for dates inside the window
+    private final Map<InteractionType, Map<Integer, LocalDateTime>> latestByType = new EnumMap<>(InteractionType.class);
+
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            byType.clear();
+            byDomain.clear();
+            byMonth.clear();
+            recentByType.clear();
+            latestByType.clear();
+
+            long lastId = 0L;
+            List<Customer> batch;
+            do {
+                batch = customerRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildBatchSize));
+                for (Customer customer : batch) {
+                    addCustomer(customer);
+                    lastId = customer.getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+
+            for (Object[] row : interactionRepository.findLatestByCustomerAndTypeSince(cutoff())) {
+                Integer id = toIndexId((Long) row[0]);
+                if (id != null && all.contains(id)) {
+                    setLatest(id, (InteractionType) row[1], (LocalDateTime) row[2]);
+                }
+            }
+            for (Object[] row : archivedDayRepository.findLatestByCustomerAndTypeSince(cutoff())) {
+                Integer id = toIndexId((Long) row[0]);
+                InteractionType type = (InteractionType) row[1];
+                LocalDateTime latest = (LocalDateTime) row[2];
+                if (id != null && all.contains(id) && latest.isAfter(
+                        latestByType.getOrDefault(type, Map.of()).getOrDefault(id, LocalDateTime.MIN))) {
+                    setLatest(id, type, latest);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Segment index built for {} customers in {} ms", all.cardinality(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getPrevious() != null) {
+                removeCustomer(event.getPrevious());
+            }
+            if (event.getCurrent() != null) {
+                addCustomer(event.getCurrent());
+            }
+            if (event.getType() == ChangeType.DELETED) {
+                Integer id = toIndexId(event.getCustomerId());
+                if (id != null) {
+                    for (InteractionType type : InteractionType.values()) {
+                        setLatest(id, type, null);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        Interaction before = event.getPrevious();
+        Interaction after = event.getCurrent();
+        if (before == null && after != null) {
+            // A new interaction can only move the latest date forward
+            recordInteraction(after.getCustomerId(), after.getInteractionType(), after.getInteractionDate());
+            return;
+        }
+        if (before != null) {
+            refreshLatest(before.getCustomerId(), before.getInteractionType());
+        }
+        if (after != null && (before == null || !after.getCustomerId().equals(before.getCustomerId())
+                || after.getInteractionType() != before.getInteractionType())) {
+            refreshLatest(after.getCustomerId(), after.getInteractionType());
+        }
+    }
+
+    // Drops recency facts that have slid out of the window
+    @Scheduled(fixedDelayString = "${app.segments.expiry-interval-ms:3600000}")
+    public void expireRecentFacts() {
+        LocalDateTime cutoff = cutoff();
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<InteractionType, Map<Integer, LocalDateTime>> entry : latestByType.entrySet()) {
+                CompressedBitmap bitmap = recentByType.get(entry.getKey());
+                entry.getValue().entrySet().removeIf(latest -> {
+                    if (latest.getValue().isBefore(cutoff)) {
+                        bitmap.remove(latest.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count(String expression) {
+        lock.readLock().lock();
+        try {
+            return SegmentExpression.evaluate(expression, this::resolve, all).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasType(Long customerId, CustomerType customerType) {
+        Integer id = toIndexId(customerId);
+        if (id == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return byType.getOrDefault(customerType, EMPTY).contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Member ids greater than afterId, ascending, at most limit of them. */
+    public int[] members(String expression, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int after = (int) Math.min(Math.max(afterId, -1L), Integer.MAX_VALUE);
+            return SegmentExpression.evaluate(expression, this::resolve, all).page(after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CompressedBitmap resolve(String term) {
+        int colon = term.indexOf(':');
+        if (colon <= 0 || colon == term.length() - 1) {
+            throw new IllegalArgumentException("Segment terms look like field:value, got '" + term + "'");
+        }
+        String field = term.substring(0, colon).toLowerCase(Locale.ROOT);
+        String value = term.substring(colon + 1);
+        switch (field) {
+            case "type":
+                return byType.getOrDefault(parseEnum(CustomerType.class, value), EMPTY);
+            case "domain":
+                return byDomain.getOrDefault(value.toLowerCase(Locale.ROOT), EMPTY);
+            case "registered":
+                return registeredIn(value);
+            case "recent":
+                return recentByType.getOrDefault(parseEnum(InteractionType.class, value), EMPTY);
+            default:
+                throw new IllegalArgumentException("Unknown segment field '" + field + "'");
+        }
+    }
+
+    // yyyy-MM, yyyy-Qn or yyyy
+    private CompressedBitmap registeredIn(String value) {
+        try {
+            if (value.matches("\\d{4}-\\d{2}")) {
+                return byMonth.getOrDefault(YearMonth.parse(value), EMPTY);
+            }
+            YearMonth first;
+            int months;
+            if (value.matches("\\d{4}-[Qq][1-4]")) {
+                first = YearMonth.of(Integer.parseInt(value.substring(0, 4)), (value.charAt(6) - '1') * 3 + 1);
+                months = 3;
+            } else if (value.matches("\\d{4}")) {
+                first = YearMonth.of(Integer.parseInt(value), 1);
+                months = 12;
+            } else {
+                throw new IllegalArgumentException("Invalid registration period '" + value + "'");
+            }
+            CompressedBitmap result = EMPTY;
+            for (int i = 0; i < months; i++) {
+                result = result.or(byMonth.getOrDefault(first.plusMonths(i), EMPTY));
+            }
+            return result;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid registration period '" + value + "'");
+        }
+    }
+
+    private void recordInteraction(Long customerId, InteractionType type, LocalDateTime date) {
+        Integer id = toIndexId(customerId);
+        if (id == null || type == null || date == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            LocalDateTime current = latestByType.getOrDefault(type, Map.of()).get(id);
+            if (all.contains(id) && (current == null || date.isAfter(current))) {
+                setLatest(id, type, date);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refreshLatest(Long customerId, InteractionType type) {
+        Integer id = toIndexId(customerId);
+        if (id == null || type == null) {
+            return;
+        }
+        LocalDateTime latest = interactionRepository.findLatestDate(customerId, type);
+        LocalDateTime archived = archivedDayRepository.findLatestDate(customerId, type);
+        if (latest == null || (archived != null && archived.isAfter(latest))) {
+            latest = archived;
+        }
+        lock.writeLock().lock();
+        try {
+            setLatest(id, type, all.contains(id) ? latest : null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setLatest(int id, InteractionType type, LocalDateTime latest) {
+        if (latest != null && !latest.isBefore(cutoff())) {
+            latestByType.computeIfAbsent(type, key -> new HashMap<>()).put(id, latest);
+            recentByType.computeIfAbsent(type, key -> new CompressedBitmap()).add(id);
+            return;
+        }
+        Map<Integer, LocalDateTime> latestById = latestByType.get(type);
+        if (latestById != null) {
+            latestById.remove(id);
+        }
+        removeFrom(recentByType, type, id);
+    }
+
+    private void addCustomer(Customer customer) {
+        Integer id = toIndexId(customer.getId());
+        if (id == null) {
+            return;
+        }
+        all.add(id);
+        if (customer.getCustomerType() != null) {
+            byType.computeIfAbsent(customer.getCustomerType(), key -> new CompressedBitmap()).add(id);
+        }
+        String domain = domainOf(customer.getEmail());
+        if (domain != null) {
+            byDomain.computeIfAbsent(domain, key -> new CompressedBitmap()).add(id);
+        }
+        if (customer.getRegistrationDate() != null) {
+            byMonth.computeIfAbsent(YearMonth.from(customer.getRegistrationDate()), key -> new CompressedBitmap()).add(id);
+        }
+    }
+
+    private void removeCustomer(Customer customer) {
+        Integer id = toIndexId(customer.getId());
+        if (id == null) {
+            return;
+        }
+        all.remove(id);
+        removeFrom(byType, customer.getCustomerType(), id);
+        removeFrom(byDomain, domainOf(customer.getEmail()), id);
+        if (customer.getRegistrationDate() != null) {
+            removeFrom(byMonth, YearMonth.from(customer.getRegistrationDate()), id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, CompressedBitmap> bitmaps, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        CompressedBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusDays(recentDays);
+    }
+
+    private static String domainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 || at == email.length() - 1 ? null : email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + " '" + value + "'");
+        }
+    }
+
+    // Bitmaps hold ints; ids beyond that range are left out of segments
+    private static Integer toIndexId(Long customerId) {
+        if (customerId == null || customerId < 0 || customerId > Integer.MAX_VALUE) {
+            if (customerId != null) {
+                logger.warn("Customer id {} is outside the segment index range", customerId);
+            }
+            return null;
+        }
+        return customerId.intValue();
+    }
+}
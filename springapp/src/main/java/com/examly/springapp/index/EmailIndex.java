@@ -0,0 +1,131 @@
+package com.examly.springapp.index;
+
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Persistent email -> customer id index used to skip the existsByEmail query
+ * when an email is definitely new. A positive answer is only a hint and is
+ * confirmed against the database; the unique constraint on customers.email
+ * stays the final arbiter for races and for rows written around the service.
+ */
+@Component
+public class EmailIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailIndex.class);
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Value("${app.email-index.path:data/email-index.bin}")
+    private String path;
+
+    @Value("${app.email-index.initial-capacity:65536}")
+    private int initialCapacity;
+
+    @Value("${app.email-index.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    private MappedHashIndex index;
+
+    @PostConstruct
+    public void open() throws IOException {
+        index = MappedHashIndex.open(Path.of(path), initialCapacity);
+    }
+
+    // A file that was closed cleanly is reused as is; anything else is reloaded once
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        if (index.wasCleanlyClosed()) {
+            logger.info("Email index reopened from {} with {} entries", path, index.size());
+            return;
+        }
+        rebuild();
+    }
+
+    @EventListener(DataRestoredEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        index.clear();
+        long lastId = 0L;
+        List<Customer> batch;
+        do {
+            batch = customerRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildBatchSize));
+            for (Customer customer : batch) {
+                if (customer.getEmail() != null) {
+                    index.put(hash(customer.getEmail()), customer.getId());
+                }
+                lastId = customer.getId();
+            }
+        } while (batch.size() == rebuildBatchSize);
+        index.flush();
+        logger.info("Email index rebuilt with {} entries in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        String before = event.getPrevious() != null ? event.getPrevious().getEmail() : null;
+        String after = event.getCurrent() != null ? event.getCurrent().getEmail() : null;
+        if (before != null && after != null && normalize(before).equals(normalize(after))) {
+            return;
+        }
+        if (before != null) {
+            index.remove(hash(before), event.getCustomerId());
+        }
+        if (after != null) {
+            index.put(hash(after), event.getCustomerId());
+        }
+    }
+
+    /** False means no customer has this email; true has to be confirmed by the caller. */
+    public boolean mightExist(String email) {
+        return email != null && index.mightContain(hash(email));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        index.close();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+
+    // FNV-1a over the UTF-8 bytes followed by a 64-bit finalizer to spread the bits
+    static long hash(String email) {
+        byte[] bytes = normalize(email).getBytes(StandardCharsets.UTF_8);
+        long h = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            h ^= (b & 0xFF);
+            h *= 0x100000001B3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= (h >>> 33);
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
@@ -0,0 +1,79 @@
+package com.examly.springapp.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Customer ranking by a score, highest first, ties broken by customer id.
+ *
+ * Scores can go down (interactions get deleted or reclassified), so every
+ * scored customer is kept rather than only the current top N. Writers are
+ * serialized; readers walk the skip list without locking and stop after N
+ * entries, so a read costs O(N) whatever the number of customers.
+ */
+public class Leaderboard {
+
+    public record Entry(long customerId, long score) {
+    }
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingLong(Entry::score).reversed().thenComparingLong(Entry::customerId);
+
+    private final Map<Long, Long> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    public synchronized void add(long customerId, long delta) {
+        if (delta != 0) {
+            set(customerId, scores.getOrDefault(customerId, 0L) + delta);
+        }
+    }
+
+    public synchronized void set(long customerId, long score) {
+        Long previous = score > 0 ? scores.put(customerId, score) : scores.remove(customerId);
+        // Insert before removing, so a concurrent reader never misses the customer
+        if (score > 0) {
+            ranking.add(new Entry(customerId, score));
+        }
+        if (previous != null && previous != score) {
+            ranking.remove(new Entry(customerId, previous));
+        }
+    }
+
+    public synchronized void remove(long customerId) {
+        set(customerId, 0L);
+    }
+
+    public synchronized void clear() {
+        scores.clear();
+        ranking.clear();
+    }
+
+    public long score(long customerId) {
+        return scores.getOrDefault(customerId, 0L);
+    }
+
+    public List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(n);
+        Set<Long> seen = new HashSet<>();
+        for (Entry entry : ranking) {
+            if (result.size() >= n) {
+                break;
+            }
+            // A reader racing with set() can briefly see both the old and new entry
+            if (seen.add(entry.customerId())) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return scores.size();
+    }
+}
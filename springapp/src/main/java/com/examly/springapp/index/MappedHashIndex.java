@@ -0,0 +1,360 @@
+package com.examly.springapp.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-mapped, open-addressing hash table from a 64-bit key hash to a long
+ * value, fronted by a Bloom filter stored in the same file.
+ *
+ * Layout: a 64-byte header, the Bloom filter bits, then capacity slots of
+ * (hash, value). Hash 0 marks an empty slot. The header carries a clean flag
+ * that is cleared while the file is open, so a file left behind by a crash can
+ * be recognised and rebuilt.
+ *
+ * Removing a key does not clear its Bloom bits; they are dropped the next time
+ * the table grows and the filter is rebuilt from the live slots.
+ */
+public class MappedHashIndex implements Closeable {
+
+    private static final int MAGIC = 0x43524D58; // "CRMX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    private static final int BLOOM_BITS_PER_SLOT = 16;
+    private static final int BLOOM_HASHES = 7;
+    private static final double MAX_LOAD = 0.7;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_SIZE = 12;
+    private static final int OFF_CLEAN = 16;
+
+    private final Path path;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private long bloomBits;
+    private int bloomOffset;
+    private int tableOffset;
+    private int size;
+    private boolean cleanOnOpen;
+
+    private MappedHashIndex(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the index at path, creating an empty one if the file is missing or
+     * unreadable. {@link #wasCleanlyClosed()} tells the caller whether the
+     * contents can be trusted as they are.
+     */
+    public static MappedHashIndex open(Path path, int initialCapacity) throws IOException {
+        MappedHashIndex index = new MappedHashIndex(path);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (Files.exists(path) && index.tryMapExisting()) {
+            return index;
+        }
+        create(path, tableSizeFor(initialCapacity));
+        index.map(path);
+        index.cleanOnOpen = false;
+        index.markOpen();
+        return index;
+    }
+
+    public boolean wasCleanlyClosed() {
+        return cleanOnOpen;
+    }
+
+    public boolean mightContain(long hash) {
+        long key = nonZero(hash);
+        lock.readLock().lock();
+        try {
+            return bloomMightContain(key) && indexOf(key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Returns the stored value, or -1 if the hash is not present. */
+    public long get(long hash) {
+        long key = nonZero(hash);
+        lock.readLock().lock();
+        try {
+            if (!bloomMightContain(key)) {
+                return -1L;
+            }
+            int slot = indexOf(key);
+            return slot < 0 ? -1L : buffer.getLong(slotOffset(slot) + 8);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long hash, long value) {
+        long key = nonZero(hash);
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > capacity * MAX_LOAD) {
+                grow();
+            }
+            insert(key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes the hash only while it still points at expectedValue. */
+    public boolean remove(long hash, long expectedValue) {
+        long key = nonZero(hash);
+        lock.writeLock().lock();
+        try {
+            int slot = indexOf(key);
+            if (slot < 0 || buffer.getLong(slotOffset(slot) + 8) != expectedValue) {
+                return false;
+            }
+            deleteSlot(slot);
+            buffer.putInt(OFF_SIZE, size);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = bloomOffset; i < tableOffset + capacity * SLOT_BYTES; i += 8) {
+                buffer.putLong(i, 0L);
+            }
+            size = 0;
+            buffer.putInt(OFF_SIZE, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            buffer.putInt(OFF_SIZE, size);
+            buffer.putInt(OFF_CLEAN, 1);
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean tryMapExisting() throws IOException {
+        map(path);
+        if (buffer.capacity() < HEADER_BYTES) {
+            return false;
+        }
+        if (buffer.getInt(OFF_MAGIC) != MAGIC || buffer.getInt(OFF_VERSION) != VERSION
+                || Files.size(path) != fileBytes(buffer.getInt(OFF_CAPACITY))) {
+            return false;
+        }
+        cleanOnOpen = buffer.getInt(OFF_CLEAN) == 1;
+        markOpen();
+        return true;
+    }
+
+    private void markOpen() {
+        buffer.putInt(OFF_CLEAN, 0);
+        buffer.force();
+    }
+
+    private void map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES) {
+            capacity = 0;
+            return;
+        }
+        capacity = buffer.getInt(OFF_CAPACITY);
+        size = buffer.getInt(OFF_SIZE);
+        bloomBits = (long) capacity * BLOOM_BITS_PER_SLOT;
+        bloomOffset = HEADER_BYTES;
+        tableOffset = bloomOffset + (int) (bloomBits / 8);
+    }
+
+    private static void create(Path file, int slots) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer fresh = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(slots));
+            fresh.order(ByteOrder.LITTLE_ENDIAN);
+            fresh.putInt(OFF_MAGIC, MAGIC);
+            fresh.putInt(OFF_VERSION, VERSION);
+            fresh.putInt(OFF_CAPACITY, slots);
+            fresh.putInt(OFF_SIZE, 0);
+            fresh.putInt(OFF_CLEAN, 0);
+            fresh.force();
+        }
+    }
+
+    // Rehashes into a file twice the size, then swaps it in with an atomic rename
+    private void grow() {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        int oldCapacity = capacity;
+        MappedByteBuffer old = buffer;
+        int oldTableOffset = tableOffset;
+        if (fileBytes(oldCapacity * 2) > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Index file " + path + " cannot grow beyond " + oldCapacity + " slots");
+        }
+        try {
+            create(tmp, capacity * 2);
+            map(tmp);
+            size = 0;
+            for (int i = 0; i < oldCapacity; i++) {
+                int offset = oldTableOffset + i * SLOT_BYTES;
+                long key = old.getLong(offset);
+                if (key != 0L) {
+                    insert(key, old.getLong(offset + 8));
+                }
+            }
+            buffer.force();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grow index file " + path, e);
+        }
+    }
+
+    private void insert(long key, long value) {
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            int offset = slotOffset(slot);
+            long existing = buffer.getLong(offset);
+            if (existing == 0L || existing == key) {
+                buffer.putLong(offset + 8, value);
+                if (existing == 0L) {
+                    buffer.putLong(offset, key);
+                    size++;
+                    buffer.putInt(OFF_SIZE, size);
+                }
+                bloomAdd(key);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int indexOf(long key) {
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            long existing = buffer.getLong(slotOffset(slot));
+            if (existing == 0L) {
+                return -1;
+            }
+            if (existing == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (true) {
+            long key = buffer.getLong(slotOffset(next));
+            if (key == 0L) {
+                break;
+            }
+            int home = mix(key) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                buffer.putLong(slotOffset(hole), key);
+                buffer.putLong(slotOffset(hole) + 8, buffer.getLong(slotOffset(next) + 8));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        buffer.putLong(slotOffset(hole), 0L);
+        size--;
+    }
+
+    private void bloomAdd(long key) {
+        int h1 = (int) key;
+        int h2 = (int) (key >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bloomBits;
+            int offset = bloomOffset + (int) (bit >>> 3);
+            buffer.put(offset, (byte) (buffer.get(offset) | (1 << (bit & 7))));
+        }
+    }
+
+    private boolean bloomMightContain(long key) {
+        int h1 = (int) key;
+        int h2 = (int) (key >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bloomBits;
+            if ((buffer.get(bloomOffset + (int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slotOffset(int slot) {
+        return tableOffset + slot * SLOT_BYTES;
+    }
+
+    private static long fileBytes(int slots) {
+        return HEADER_BYTES + (long) slots * BLOOM_BITS_PER_SLOT / 8 + (long) slots * SLOT_BYTES;
+    }
+
+    private static long nonZero(long hash) {
+        return hash == 0L ? 1L : hash;
+    }
+
+    private static int mix(long key) {
+        long h = key ^ (key >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= (h >>> 33);
+        return (int) h;
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+        if (fileBytes(size) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity too large: " + n);
+        }
+        return Math.max(size, 1024);
+    }
+}
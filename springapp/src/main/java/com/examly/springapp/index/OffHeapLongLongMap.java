@@ -0,0 +1,231 @@
+package com.examly.springapp.index;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing long -> long hash map stored in a direct ByteBuffer, so a
+ * few million entries cost 16 bytes each and nothing for the garbage
+ * collector to trace. Key 0 marks an empty slot and cannot be stored.
+ *
+ * Writers are serialized; readers use an optimistic stamp and only fall back
+ * to the read lock when a write raced with them.
+ */
+public class OffHeapLongLongMap {
+
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final int SLOT_BYTES = 16;
+    private static final double MAX_LOAD = 0.6;
+
+    private final StampedLock lock = new StampedLock();
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+
+    public OffHeapLongLongMap(int expectedSize) {
+        this.capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 16) / MAX_LOAD));
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+    }
+
+    public long get(long key) {
+        checkKey(key);
+        long stamp = lock.tryOptimisticRead();
+        long value;
+        try {
+            value = find(slots, capacity, key);
+        } catch (IndexOutOfBoundsException e) {
+            // raced with a resize; the stamp check below sends us to the locked path
+            value = NO_VALUE;
+        }
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(slots, capacity, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public long put(long key, long value) {
+        checkKey(key);
+        long stamp = lock.writeLock();
+        try {
+            if (size + 1 > capacity * MAX_LOAD) {
+                resize(capacity * 2);
+            }
+            int mask = capacity - 1;
+            int slot = mix(key) & mask;
+            while (true) {
+                long existing = slots.getLong(slot * SLOT_BYTES);
+                if (existing == 0L) {
+                    slots.putLong(slot * SLOT_BYTES + 8, value);
+                    slots.putLong(slot * SLOT_BYTES, key);
+                    size++;
+                    return NO_VALUE;
+                }
+                if (existing == key) {
+                    long previous = slots.getLong(slot * SLOT_BYTES + 8);
+                    slots.putLong(slot * SLOT_BYTES + 8, value);
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Removes key only if it currently maps to expectedValue. */
+    public boolean remove(long key, long expectedValue) {
+        checkKey(key);
+        long stamp = lock.writeLock();
+        try {
+            int slot = indexOf(key);
+            if (slot < 0 || slots.getLong(slot * SLOT_BYTES + 8) != expectedValue) {
+                return false;
+            }
+            deleteSlot(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public long remove(long key) {
+        checkKey(key);
+        long stamp = lock.writeLock();
+        try {
+            int slot = indexOf(key);
+            if (slot < 0) {
+                return NO_VALUE;
+            }
+            long previous = slots.getLong(slot * SLOT_BYTES + 8);
+            deleteSlot(slot);
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < capacity; i++) {
+                slots.putLong(i * SLOT_BYTES, 0L);
+            }
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int indexOf(long key) {
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long existing = slots.getLong(slot * SLOT_BYTES);
+            if (existing == 0L) {
+                return -1;
+            }
+            if (existing == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (true) {
+            long key = slots.getLong(next * SLOT_BYTES);
+            if (key == 0L) {
+                break;
+            }
+            int home = mix(key) & mask;
+            // Move the entry back if the hole lies on its probe path (home .. next, cyclically)
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots.putLong(hole * SLOT_BYTES, key);
+                slots.putLong(hole * SLOT_BYTES + 8, slots.getLong(next * SLOT_BYTES + 8));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots.putLong(hole * SLOT_BYTES, 0L);
+        size--;
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        ByteBuffer fresh = ByteBuffer.allocateDirect(newCapacity * SLOT_BYTES);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long key = old.getLong(i * SLOT_BYTES);
+            if (key == 0L) {
+                continue;
+            }
+            int slot = mix(key) & mask;
+            while (fresh.getLong(slot * SLOT_BYTES) != 0L) {
+                slot = (slot + 1) & mask;
+            }
+            fresh.putLong(slot * SLOT_BYTES, key);
+            fresh.putLong(slot * SLOT_BYTES + 8, old.getLong(i * SLOT_BYTES + 8));
+        }
+        slots = fresh;
+        capacity = newCapacity;
+    }
+
+    // Lock-free probe; may see a torn state during a concurrent write, which the
+    // caller detects through the stamp and retries under the read lock
+    private static long find(ByteBuffer table, int tableCapacity, long key) {
+        int mask = tableCapacity - 1;
+        int slot = mix(key) & mask;
+        for (int probes = 0; probes < tableCapacity; probes++) {
+            long existing = table.getLong(slot * SLOT_BYTES);
+            if (existing == 0L) {
+                return NO_VALUE;
+            }
+            if (existing == key) {
+                return table.getLong(slot * SLOT_BYTES + 8);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        h ^= (h >>> 16);
+        return (int) h;
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0L) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+        if (size <= 0 || size > (Integer.MAX_VALUE / SLOT_BYTES)) {
+            throw new IllegalArgumentException("Capacity too large: " + n);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,106 @@
+package com.examly.springapp.index;
+
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.util.PhoneNumbers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Caller-ID reverse lookup: normalized phone number -> customer id, held in an
+ * off-heap hash map. When several customers share a number the most recently
+ * written one wins.
+ */
+@Component
+public class PhoneNumberIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhoneNumberIndex.class);
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Value("${app.phone-index.expected-size:100000}")
+    private int expectedSize;
+
+    @Value("${app.phone-index.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    private OffHeapLongLongMap map;
+
+    @PostConstruct
+    public void init() {
+        map = new OffHeapLongLongMap(expectedSize);
+    }
+
+    // Reads only; NormalizedPhoneMigration fills in the column for rows that predate it
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        map.clear();
+        long lastId = 0L;
+        List<Customer> batch;
+        do {
+            batch = customerRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildBatchSize));
+            for (Customer customer : batch) {
+                String normalized = PhoneNumbers.normalize(customer.getPhoneNumber());
+                if (normalized != null) {
+                    map.put(PhoneNumbers.toKey(normalized), customer.getId());
+                }
+                lastId = customer.getId();
+            }
+        } while (batch.size() == rebuildBatchSize);
+        logger.info("Phone index built with {} numbers in {} ms", map.size(), System.currentTimeMillis() - start);
+    }
+
+    // Synchronized with rebuild and with itself: the remove, requery and put for one
+    // number must not interleave with another change to the same number
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCustomerChanged(CustomerChangedEvent event) {
+        Long customerId = event.getCustomerId();
+        String before = event.getPrevious() != null ? keyable(event.getPrevious().getNormalizedPhone()) : null;
+        String after = event.getCurrent() != null ? keyable(event.getCurrent().getNormalizedPhone()) : null;
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null && map.remove(PhoneNumbers.toKey(before), customerId)) {
+            // Another customer may still own this number
+            customerRepository.findFirstByNormalizedPhoneOrderByIdDesc(before)
+                    .ifPresent(other -> map.put(PhoneNumbers.toKey(before), other.getId()));
+        }
+        if (after != null) {
+            map.put(PhoneNumbers.toKey(after), customerId);
+        }
+    }
+
+    // The column holds "" for numbers without usable digits; those have no key
+    private static String keyable(String normalized) {
+        return normalized == null || normalized.isEmpty() ? null : normalized;
+    }
+
+    /** Returns the customer id for the number, or null when it is not known. */
+    public Long lookup(String phoneNumber) {
+        String normalized = PhoneNumbers.normalize(phoneNumber);
+        if (normalized == null) {
+            return null;
+        }
+        long id = map.get(PhoneNumbers.toKey(normalized));
+        return id == OffHeapLongLongMap.NO_VALUE ? null : id;
+    }
+
+    public int size() {
+        return map.size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.examly.springapp.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Recursive-descent evaluator for segment expressions such as
+ * {@code type:VIP AND domain:gmail.com AND NOT (recent:COMPLAINT OR recent:RETURN)}.
+ * Terms are field:value pairs resolved by the caller; AND binds tighter than
+ * OR, and juxtaposed terms are ANDed.
+ */
+final class SegmentExpression {
+
+    private final List<String> tokens;
+    private final Function<String, CompressedBitmap> terms;
+    private final CompressedBitmap universe;
+    private int position;
+
+    private SegmentExpression(List<String> tokens, Function<String, CompressedBitmap> terms,
+            CompressedBitmap universe) {
+        this.tokens = tokens;
+        this.terms = terms;
+        this.universe = universe;
+    }
+
+    /**
+     * Evaluates the expression. The result may be one of the bitmaps returned
+     * by terms, so callers must not modify it.
+     */
+    static CompressedBitmap evaluate(String expression, Function<String, CompressedBitmap> terms,
+            CompressedBitmap universe) {
+        SegmentExpression parser = new SegmentExpression(tokenize(expression), terms, universe);
+        if (parser.tokens.isEmpty()) {
+            throw new IllegalArgumentException("Segment expression is empty");
+        }
+        CompressedBitmap result = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "' in segment expression");
+        }
+        return result;
+    }
+
+    private CompressedBitmap parseOr() {
+        CompressedBitmap result = parseAnd();
+        while (accept("OR")) {
+            result = result.or(parseAnd());
+        }
+        return result;
+    }
+
+    private CompressedBitmap parseAnd() {
+        CompressedBitmap result = parseNot();
+        while (position < tokens.size() && !peekIs("OR") && !peekIs(")")) {
+            accept("AND");
+            result = result.and(parseNot());
+        }
+        return result;
+    }
+
+    private CompressedBitmap parseNot() {
+        if (accept("NOT")) {
+            return universe.andNot(parseNot());
+        }
+        return parsePrimary();
+    }
+
+    private CompressedBitmap parsePrimary() {
+        if (position >= tokens.size()) {
+            throw new IllegalArgumentException("Segment expression ends unexpectedly");
+        }
+        String token = tokens.get(position++);
+        if (token.equals("(")) {
+            CompressedBitmap result = parseOr();
+            if (!accept(")")) {
+                throw new IllegalArgumentException("Missing ')' in segment expression");
+            }
+            return result;
+        }
+        if (token.equals(")") || isKeyword(token)) {
+            throw new IllegalArgumentException("Unexpected '" + token + "' in segment expression");
+        }
+        return terms.apply(token);
+    }
+
+    private boolean accept(String expected) {
+        if (peekIs(expected)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean peekIs(String expected) {
+        return position < tokens.size() && tokens.get(position).equalsIgnoreCase(expected);
+    }
+
+    private static boolean isKeyword(String token) {
+        String upper = token.toUpperCase(Locale.ROOT);
+        return upper.equals("AND") || upper.equals("OR") || upper.equals("NOT");
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (char c : (expression == null ? "" : expression).toCharArray()) {
+            if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
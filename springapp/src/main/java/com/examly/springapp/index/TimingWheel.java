@@ -0,0 +1,174 @@
+package com.examly.springapp.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel for id-keyed deadlines. Level k has 64 slots of
+ * 64^k ticks each; a timer goes to the lowest level whose span covers its
+ * remaining delay and moves down a level each time the wheel above turns
+ * over its slot. Schedule and cancel are O(1) (timers sit in doubly-linked
+ * slot lists and are found through an id map), and advancing one tick only
+ * touches the timers that are due or cascading.
+ *
+ * Deadlines are rounded up to whole ticks, so a timer never fires early.
+ * Not thread-safe; callers guard shared instances.
+ */
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final Node[][] slots;
+    private final Map<Long, Node> timers = new HashMap<>();
+    private final List<Long> overdue = new ArrayList<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels < 1 || levels > 10) {
+            throw new IllegalArgumentException("Invalid timing wheel shape: tick " + tickMillis + " ms, " + levels + " levels");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.slots = new Node[levels][SLOTS];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /** Schedules or reschedules the timer for id. */
+    public void schedule(long id, long deadlineMillis) {
+        overdue.remove(Long.valueOf(id));
+        Node node = timers.get(id);
+        if (node != null) {
+            unlink(node);
+        } else {
+            node = new Node(id);
+            timers.put(id, node);
+        }
+        node.expiryTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(node, overdue);
+    }
+
+    public boolean cancel(long id) {
+        Node node = timers.remove(id);
+        if (node == null) {
+            return overdue.remove(Long.valueOf(id));
+        }
+        unlink(node);
+        return true;
+    }
+
+    /** Drops every timer; the wheel keeps its current time. */
+    public void clear() {
+        for (Node[] level : slots) {
+            Arrays.fill(level, null);
+        }
+        timers.clear();
+        overdue.clear();
+    }
+
+    public boolean contains(long id) {
+        return timers.containsKey(id) || overdue.contains(id);
+    }
+
+    public int size() {
+        return timers.size() + overdue.size();
+    }
+
+    /** Moves the wheel to nowMillis and returns the ids of the timers that fired. */
+    public List<Long> advance(long nowMillis) {
+        List<Long> expired = new ArrayList<>(overdue);
+        overdue.clear();
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        if (timers.isEmpty()) {
+            // Nothing left in the slots; no need to walk the ticks
+            currentTick = Math.max(currentTick, target);
+            return expired;
+        }
+        while (currentTick < target) {
+            currentTick++;
+            // Higher levels first so that cascaded timers can land in the slots below
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    Node node = detach(level, (int) ((currentTick >>> (SLOT_BITS * level)) & MASK));
+                    while (node != null) {
+                        Node next = node.next;
+                        place(node, expired);
+                        node = next;
+                    }
+                }
+            }
+            Node node = detach(0, (int) (currentTick & MASK));
+            while (node != null) {
+                Node next = node.next;
+                place(node, expired);
+                node = next;
+            }
+        }
+        return expired;
+    }
+
+    private void place(Node node, List<Long> expired) {
+        long delay = node.expiryTick - currentTick;
+        if (delay <= 0) {
+            timers.remove(node.id);
+            node.level = -1;
+            node.prev = null;
+            node.next = null;
+            expired.add(node.id);
+            return;
+        }
+        int level = 0;
+        while (level < levels - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Beyond the top level's span the timer goes round again until it is in range
+        int slot = (int) ((node.expiryTick >>> (SLOT_BITS * level)) & MASK);
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = slots[level][slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        slots[level][slot] = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else if (node.level >= 0) {
+            slots[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+    }
+
+    private Node detach(int level, int slot) {
+        Node head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    private static final class Node {
+        private final long id;
+        private long expiryTick;
+        private int level = -1;
+        private int slot;
+        private Node prev;
+        private Node next;
+
+        Node(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.examly.springapp.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An alert raised by AlertRuleEngine when an interaction rule fires.
+ */
+@Entity
+@Table(name = "alerts", indexes = {
+        @Index(name = "idx_alerts_customer_created", columnList = "customer_id, created_at"),
+        @Index(name = "idx_alerts_created", columnList = "created_at")
+})
+public class Alert {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String rule;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    // The interaction that completed the rule
+    @Column(name = "interaction_id")
+    private Long interactionId;
+
+    @Column(nullable = false)
+    private String message;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private boolean acknowledged;
+
+    // Constructors
+    public Alert() {
+    }
+
+    public Alert(String rule, Long customerId, Long interactionId, String message) {
+        this.rule = rule;
+        this.customerId = customerId;
+        this.interactionId = interactionId;
+        this.message = message;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public void setRule(String rule) {
+        this.rule = rule;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getInteractionId() {
+        return interactionId;
+    }
+
+    public void setInteractionId(Long interactionId) {
+        this.interactionId = interactionId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isAcknowledged() {
+        return acknowledged;
+    }
+
+    public void setAcknowledged(boolean acknowledged) {
+        this.acknowledged = acknowledged;
+    }
+}
@@ -0,0 +1,104 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * How many of a customer's interactions of one type and status have been moved
+ * to the archive, and the latest of their dates. InteractionArchiveService
+ * maintains the rows in the transaction that moves a chunk, so counts and
+ * summaries can cover archived history without reading the archive files.
+ */
+@Entity
+@Table(name = "archived_interaction_counts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_archived_counts_customer_type_status",
+                columnNames = {"customer_id", "interaction_type", "status"})
+})
+public class ArchivedInteractionCount {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "interaction_type")
+    private InteractionType interactionType;
+
+    @Enumerated(EnumType.STRING)
+    private InteractionStatus status;
+
+    @Column(name = "interaction_count", nullable = false)
+    private long count;
+
+    @Column(name = "last_interaction_date")
+    private LocalDateTime lastInteractionDate;
+
+    // Constructors
+    public ArchivedInteractionCount() {
+    }
+
+    public ArchivedInteractionCount(Long customerId, InteractionType interactionType, InteractionStatus status) {
+        this.customerId = customerId;
+        this.interactionType = interactionType;
+        this.status = status;
+    }
+
+    /** Counts one more archived interaction of this key. */
+    public void add(LocalDateTime interactionDate) {
+        count++;
+        if (interactionDate != null && (lastInteractionDate == null || interactionDate.isAfter(lastInteractionDate))) {
+            lastInteractionDate = interactionDate;
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public InteractionType getInteractionType() {
+        return interactionType;
+    }
+
+    public void setInteractionType(InteractionType interactionType) {
+        this.interactionType = interactionType;
+    }
+
+    public InteractionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(InteractionStatus status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public LocalDateTime getLastInteractionDate() {
+        return lastInteractionDate;
+    }
+
+    public void setLastInteractionDate(LocalDateTime lastInteractionDate) {
+        this.lastInteractionDate = lastInteractionDate;
+    }
+}
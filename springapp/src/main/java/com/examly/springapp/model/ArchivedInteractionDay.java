@@ -0,0 +1,108 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * How many of a customer's interactions of one type on one day have been moved
+ * to the archive, and the latest of their dates. Kept next to
+ * ArchivedInteractionCount by InteractionArchiveService, so the dated analytics
+ * jobs (tiering, cohorts, leaderboards, segments) can cover archived history
+ * inside their windows without reading the archive files.
+ */
+@Entity
+@Table(name = "archived_interaction_days", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_archived_days_customer_type_date",
+                columnNames = {"customer_id", "interaction_type", "activity_date"})
+}, indexes = {
+        @Index(name = "idx_archived_days_last_date", columnList = "last_interaction_date")
+})
+public class ArchivedInteractionDay {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "interaction_type")
+    private InteractionType interactionType;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(name = "interaction_count", nullable = false)
+    private long count;
+
+    @Column(name = "last_interaction_date")
+    private LocalDateTime lastInteractionDate;
+
+    // Constructors
+    public ArchivedInteractionDay() {
+    }
+
+    public ArchivedInteractionDay(Long customerId, InteractionType interactionType, LocalDate activityDate) {
+        this.customerId = customerId;
+        this.interactionType = interactionType;
+        this.activityDate = activityDate;
+    }
+
+    /** Counts one more archived interaction of this key. */
+    public void add(LocalDateTime interactionDate) {
+        count++;
+        if (interactionDate != null && (lastInteractionDate == null || interactionDate.isAfter(lastInteractionDate))) {
+            lastInteractionDate = interactionDate;
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public InteractionType getInteractionType() {
+        return interactionType;
+    }
+
+    public void setInteractionType(InteractionType interactionType) {
+        this.interactionType = interactionType;
+    }
+
+    public LocalDate getActivityDate() {
+        return activityDate;
+    }
+
+    public void setActivityDate(LocalDate activityDate) {
+        this.activityDate = activityDate;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public LocalDateTime getLastInteractionDate() {
+        return lastInteractionDate;
+    }
+
+    public void setLastInteractionDate(LocalDateTime lastInteractionDate) {
+        this.lastInteractionDate = lastInteractionDate;
+    }
+}
@@ -0,0 +1,115 @@
+package com.examly.springapp.model;
+
+import com.examly.springapp.event.ChangeType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the change feed. seq is taken from ChangeSequence at commit,
+ * so entries become visible in sequence order and a reader that has seen seq
+ * n has seen everything before it. Rows are never updated.
+ */
+@Entity
+@Table(name = "change_log")
+public class ChangeLogEntry implements Persistable<Long> {
+    public static final String CUSTOMER = "CUSTOMER";
+    public static final String INTERACTION = "INTERACTION";
+
+    @Id
+    private Long seq;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private ChangeType changeType;
+
+    // JSON of the row after the change, or before it for deletes
+    @JsonRawValue
+    @JsonProperty("data")
+    @Column(nullable = false, length = Length.LONG32)
+    private String payload;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Column(name = "committed_at", nullable = false)
+    private LocalDateTime committedAt;
+
+    // Entries are only ever inserted
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public ChangeLogEntry() {
+    }
+
+    public ChangeLogEntry(Long seq, String entityType, Long entityId, Long customerId, ChangeType changeType,
+            String payload) {
+        this.seq = seq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.customerId = customerId;
+        this.changeType = changeType;
+        this.payload = payload;
+        this.committedAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return seq;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters
+    public Long getSeq() {
+        return seq;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCommittedAt() {
+        return committedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A named counter. Incrementing it locks the row until commit, which is what
+ * orders change_log entries by commit.
+ */
+@Entity
+@Table(name = "change_sequences")
+public class ChangeSequence {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    // Last number handed out
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    // Constructors
+    public ChangeSequence() {
+    }
+
+    public ChangeSequence(String name, long lastSeq) {
+        this.name = name;
+        this.lastSeq = lastSeq;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
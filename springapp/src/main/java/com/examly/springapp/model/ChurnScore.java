@@ -0,0 +1,127 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Churn-risk score of one customer with the features it was computed from,
+ * written by the nightly ChurnScoringService run.
+ */
+@Entity
+@Table(name = "churn_scores", indexes = {
+        @Index(name = "idx_churn_scores_score", columnList = "score"),
+        @Index(name = "idx_churn_scores_scored_at", columnList = "scored_at")
+})
+public class ChurnScore implements Persistable<Long> {
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // 0 (no risk signals) to 100
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "complaint_ratio", nullable = false)
+    private double complaintRatio;
+
+    // Null when the customer never purchased
+    @Column(name = "days_since_last_purchase")
+    private Integer daysSinceLastPurchase;
+
+    // Interactions still OPEN or PENDING
+    @Column(name = "unresolved_items", nullable = false)
+    private long unresolvedItems;
+
+    @Column(nullable = false)
+    private long interactions;
+
+    @Column(name = "scored_at", nullable = false)
+    private LocalDateTime scoredAt;
+
+    // The scoring run deletes a batch's old rows before inserting, so saves can
+    // skip the select that merge would issue for an assigned id
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public ChurnScore() {
+    }
+
+    public ChurnScore(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Long getId() {
+        return customerId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters and Setters
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public double getComplaintRatio() {
+        return complaintRatio;
+    }
+
+    public void setComplaintRatio(double complaintRatio) {
+        this.complaintRatio = complaintRatio;
+    }
+
+    public Integer getDaysSinceLastPurchase() {
+        return daysSinceLastPurchase;
+    }
+
+    public void setDaysSinceLastPurchase(Integer daysSinceLastPurchase) {
+        this.daysSinceLastPurchase = daysSinceLastPurchase;
+    }
+
+    public long getUnresolvedItems() {
+        return unresolvedItems;
+    }
+
+    public void setUnresolvedItems(long unresolvedItems) {
+        this.unresolvedItems = unresolvedItems;
+    }
+
+    public long getInteractions() {
+        return interactions;
+    }
+
+    public void setInteractions(long interactions) {
+        this.interactions = interactions;
+    }
+
+    public LocalDateTime getScoredAt() {
+        return scoredAt;
+    }
+
+    public void setScoredAt(LocalDateTime scoredAt) {
+        this.scoredAt = scoredAt;
+    }
+}
@@ -1,18 +1,29 @@
 package com.examly.springapp.model;
 
+import com.examly.springapp.util.PhoneNumbers;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "customers")
+@SQLRestriction("deleted_at is null") // soft-deleted rows are invisible until purged
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_normalized_phone", columnList = "normalized_phone")
+}, uniqueConstraints = {
+        // CustomerService detects duplicates by error code, since older schemas keep an auto-named index
+        @UniqueConstraint(name = Customer.EMAIL_CONSTRAINT, columnNames = "email")
+})
 public class Customer {
+    public static final String EMAIL_CONSTRAINT = "uk_customers_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -25,11 +36,16 @@ public class Customer {
 
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
-    @Column(unique = true)
     private String email;
 
     private String phoneNumber;
 
+    // Digits-only form of phoneNumber, used for caller-ID lookups. A number without usable
+    // digits is stored as "" so that NormalizedPhoneMigration does not revisit the row
+    @JsonIgnore
+    @Column(name = "normalized_phone", length = 20)
+    private String normalizedPhone;
+
     @NotNull(message = "Customer type is required")
     @Enumerated(EnumType.STRING)
     private CustomerType customerType;
@@ -37,7 +53,13 @@ public class Customer {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate registrationDate;
 
-    // One-to-Many relationship with Interaction
+    // Set when the customer is soft-deleted; CustomerPurgeService removes the row later
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // One-to-Many relationship with Interaction. CustomerService deletes interactions
+    // with chunked bulk statements; the cascade only covers direct repository deletes.
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore // Prevent infinite recursion in JSON serialization
     private List<Interaction> interactions = new ArrayList<>();
@@ -47,6 +69,15 @@ public class Customer {
         if (registrationDate == null) {
             registrationDate = LocalDate.now();
         }
+        normalizedPhone = normalizedColumn(phoneNumber);
+    }
+
+    private static String normalizedColumn(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String normalized = PhoneNumbers.normalize(phoneNumber);
+        return normalized != null ? normalized : "";
     }
 
     // Constructors
@@ -61,6 +92,18 @@ public class Customer {
         this.registrationDate = LocalDate.now();
     }
 
+    // Copies the column values (not the interactions) for change snapshots
+    public Customer(Customer other) {
+        this.id = other.id;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phoneNumber = other.phoneNumber;
+        this.normalizedPhone = other.normalizedPhone;
+        this.customerType = other.customerType;
+        this.registrationDate = other.registrationDate;
+    }
+
     // Helper methods for managing the relationship
     public void addInteraction(Interaction interaction) {
         interactions.add(interaction);
@@ -111,6 +154,15 @@ public class Customer {
 
     public void setPhoneNumber(String phoneNumber) {
         this.phoneNumber = phoneNumber;
+        this.normalizedPhone = normalizedColumn(phoneNumber);
+    }
+
+    public String getNormalizedPhone() {
+        return normalizedPhone;
+    }
+
+    public void setNormalizedPhone(String normalizedPhone) {
+        this.normalizedPhone = normalizedPhone;
     }
 
     public CustomerType getCustomerType() {
@@ -129,6 +181,14 @@ public class Customer {
         this.registrationDate = registrationDate;
     }
 
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     public List<Interaction> getInteractions() {
         return interactions;
     }
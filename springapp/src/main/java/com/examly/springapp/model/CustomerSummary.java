@@ -0,0 +1,92 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-customer interaction facts, kept up to date by CustomerSummaryService in
+ * the same transaction as every interaction write, so lists can be filtered
+ * and sorted by them without touching the interaction history.
+ */
+@Entity
+@Table(name = "customer_summary", indexes = {
+        @Index(name = "idx_summary_open_complaints", columnList = "open_complaints, last_interaction_date"),
+        @Index(name = "idx_summary_last_interaction", columnList = "last_interaction_date")
+})
+public class CustomerSummary {
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "total_interactions", nullable = false)
+    private long totalInteractions;
+
+    @Column(nullable = false)
+    private long purchases;
+
+    @Column(nullable = false)
+    private long complaints;
+
+    @Column(name = "open_complaints", nullable = false)
+    private long openComplaints;
+
+    @Column(name = "last_interaction_date")
+    private LocalDateTime lastInteractionDate;
+
+    // Constructors
+    public CustomerSummary() {
+    }
+
+    public CustomerSummary(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    // Getters and Setters
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getTotalInteractions() {
+        return totalInteractions;
+    }
+
+    public void setTotalInteractions(long totalInteractions) {
+        this.totalInteractions = totalInteractions;
+    }
+
+    public long getPurchases() {
+        return purchases;
+    }
+
+    public void setPurchases(long purchases) {
+        this.purchases = purchases;
+    }
+
+    public long getComplaints() {
+        return complaints;
+    }
+
+    public void setComplaints(long complaints) {
+        this.complaints = complaints;
+    }
+
+    public long getOpenComplaints() {
+        return openComplaints;
+    }
+
+    public void setOpenComplaints(long openComplaints) {
+        this.openComplaints = openComplaints;
+    }
+
+    public LocalDateTime getLastInteractionDate() {
+        return lastInteractionDate;
+    }
+
+    public void setLastInteractionDate(LocalDateTime lastInteractionDate) {
+        this.lastInteractionDate = lastInteractionDate;
+    }
+}
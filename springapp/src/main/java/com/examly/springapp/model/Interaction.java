@@ -5,13 +5,18 @@ package com.examly.springapp.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "interactions")
+@Table(name = "interactions", indexes = {
+        @Index(name = "idx_interactions_customer_date", columnList = "customer_id, interaction_date"),
+        @Index(name = "idx_interactions_date", columnList = "interaction_date"),
+        @Index(name = "idx_interactions_sla", columnList = "sla_breached_at, status")
+})
 public class Interaction {
    
 
@@ -41,10 +46,27 @@ public class Interaction {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime interactionDate = LocalDateTime.now();
 
+    // Set by SlaService when the interaction stayed open past its type's SLA
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Column(name = "sla_breached_at")
+    private LocalDateTime slaBreachedAt;
+
     // Constructors
     public Interaction() {
     }
 
+    // Copies the column values (not the customer association) for change snapshots
+    public Interaction(Interaction other) {
+        this.id = other.id;
+        this.customerId = other.customerId;
+        this.interactionType = other.interactionType;
+        this.description = other.description;
+        this.status = other.status;
+        this.interactionDate = other.interactionDate;
+        this.slaBreachedAt = other.slaBreachedAt;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -104,4 +126,12 @@ public class Interaction {
     public void setInteractionDate(LocalDateTime interactionDate) {
         this.interactionDate = interactionDate;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getSlaBreachedAt() {
+        return slaBreachedAt;
+    }
+
+    public void setSlaBreachedAt(LocalDateTime slaBreachedAt) {
+        this.slaBreachedAt = slaBreachedAt;
+    }
+}
@@ -0,0 +1,168 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one partition of a batch job run. A partition covers the
+ * customer ids in (fromId, toId]; lastId is the highest id already processed
+ * and is committed together with the work it describes, so a restarted run
+ * continues right after it.
+ */
+@Entity
+@Table(name = "job_checkpoints", indexes = {
+        @Index(name = "idx_job_checkpoints_job", columnList = "job_name, partition_index")
+})
+public class JobCheckpoint {
+    // jobName:partitionIndex
+    @Id
+    @Column(length = 100)
+    private String id;
+
+    @Column(name = "job_name", nullable = false, length = 50)
+    private String jobName;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "partition_index", nullable = false)
+    private int partitionIndex;
+
+    @Column(name = "from_id", nullable = false)
+    private long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private long toId;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long changed;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    // Job-defined run options, kept so that a resumed run behaves like the original
+    @Column(length = 255)
+    private String parameters;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public JobCheckpoint() {
+    }
+
+    public JobCheckpoint(String jobName, String runId, int partitionIndex, long fromId, long toId, String parameters) {
+        this.id = jobName + ":" + partitionIndex;
+        this.jobName = jobName;
+        this.runId = runId;
+        this.partitionIndex = partitionIndex;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.lastId = fromId;
+        this.parameters = parameters;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public void setPartitionIndex(int partitionIndex) {
+        this.partitionIndex = partitionIndex;
+    }
+
+    public long getFromId() {
+        return fromId;
+    }
+
+    public void setFromId(long fromId) {
+        this.fromId = fromId;
+    }
+
+    public long getToId() {
+        return toId;
+    }
+
+    public void setToId(long toId) {
+        this.toId = toId;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getChanged() {
+        return changed;
+    }
+
+    public void setChanged(long changed) {
+        this.changed = changed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,128 @@
+package com.examly.springapp.model;
+
+import com.examly.springapp.event.ChangeType;
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import java.time.LocalDateTime;
+
+/**
+ * A customer or interaction change, written in the same transaction as the
+ * change itself and delivered to webhook targets by OutboxRelayService.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_seq", columnList = "seq", unique = true)
+})
+public class OutboxEvent {
+    public static final String CUSTOMER = "CUSTOMER";
+    public static final String INTERACTION = "INTERACTION";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The change feed seq of the same change: commit-ordered, so the relay reads in this order
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // Delivery is ordered per customer
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private ChangeType changeType;
+
+    // JSON of the row after the change, or before it for deletes
+    @Column(nullable = false, length = Length.LONG32)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(Long seq, String aggregateType, Long aggregateId, Long customerId, ChangeType changeType,
+            String payload) {
+        this.seq = seq;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.customerId = customerId;
+        this.changeType = changeType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,132 @@
+package com.examly.springapp.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A webhook endpoint that receives outbox events, with its delivery cursor.
+ */
+@Entity
+@Table(name = "outbox_targets")
+public class OutboxTarget {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    // Requests in flight at once; events of one customer always share a lane
+    @Column(nullable = false)
+    private int concurrency;
+
+    @Column(nullable = false)
+    private boolean enabled;
+
+    // Highest outbox event seq delivered to this target
+    @Column(name = "last_delivered_seq", nullable = false)
+    private long lastDeliveredSeq;
+
+    // Events delivered over the target's lifetime, across all instances
+    @Column(name = "delivered_count", nullable = false)
+    private long deliveredCount;
+
+    // The application instance currently relaying to this target, so that each event is sent once
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public OutboxTarget() {
+    }
+
+    public OutboxTarget(String name, String url, int concurrency, long lastDeliveredSeq) {
+        this.name = name;
+        this.url = url;
+        this.concurrency = concurrency;
+        this.enabled = true;
+        this.lastDeliveredSeq = lastDeliveredSeq;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getLastDeliveredSeq() {
+        return lastDeliveredSeq;
+    }
+
+    public void setLastDeliveredSeq(long lastDeliveredSeq) {
+        this.lastDeliveredSeq = lastDeliveredSeq;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public void setDeliveredCount(long deliveredCount) {
+        this.deliveredCount = deliveredCount;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Single row the primary stamps with the current time; reading it back from
+ * a replica shows how far that replica's copy lags behind.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+    @Id
+    private Integer id;
+
+    // Epoch millis of the last stamp
+    @Column(name = "beat_millis", nullable = false)
+    private long beatMillis;
+
+    // Constructors
+    public ReplicaHeartbeat() {
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public long getBeatMillis() {
+        return beatMillis;
+    }
+
+    public void setBeatMillis(long beatMillis) {
+        this.beatMillis = beatMillis;
+    }
+}
@@ -0,0 +1,122 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Tier change suggested by the nightly RFM scoring run for one customer, with
+ * the metrics it was based on. Only customers whose tier would change get a row.
+ */
+@Entity
+@Table(name = "tier_proposals", indexes = {
+        @Index(name = "idx_tier_proposals_frequency", columnList = "frequency")
+})
+public class TierProposal {
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "current_type", nullable = false)
+    private CustomerType currentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "proposed_type", nullable = false)
+    private CustomerType proposedType;
+
+    // Days since the latest purchase in the lookback window, null when there was none
+    @Column(name = "recency_days")
+    private Integer recencyDays;
+
+    // Purchases minus returns in the lookback window
+    @Column(nullable = false)
+    private long frequency;
+
+    @Column(nullable = false)
+    private boolean applied;
+
+    @Column(name = "run_id", length = 36)
+    private String runId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public TierProposal() {
+    }
+
+    public TierProposal(Long customerId, CustomerType currentType, CustomerType proposedType,
+            Integer recencyDays, long frequency) {
+        this.customerId = customerId;
+        this.currentType = currentType;
+        this.proposedType = proposedType;
+        this.recencyDays = recencyDays;
+        this.frequency = frequency;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public CustomerType getCurrentType() {
+        return currentType;
+    }
+
+    public void setCurrentType(CustomerType currentType) {
+        this.currentType = currentType;
+    }
+
+    public CustomerType getProposedType() {
+        return proposedType;
+    }
+
+    public void setProposedType(CustomerType proposedType) {
+        this.proposedType = proposedType;
+    }
+
+    public Integer getRecencyDays() {
+        return recencyDays;
+    }
+
+    public void setRecencyDays(Integer recencyDays) {
+        this.recencyDays = recencyDays;
+    }
+
+    public long getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(long frequency) {
+        this.frequency = frequency;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -32,6 +32,14 @@ public class User {
         this.role = role;
     }
 
+    // Copies the column values for change snapshots
+    public User(User other) {
+        this.id = other.id;
+        this.username = other.username;
+        this.password = other.password;
+        this.role = other.role;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,20 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Alert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AlertRepository extends JpaRepository<Alert, Long> {
+
+    // The filter fields are optional and ignored when null; newest first
+    @Query("SELECT a FROM Alert a WHERE (:customerId IS NULL OR a.customerId = :customerId)"
+            + " AND (:rule IS NULL OR a.rule = :rule) AND (:acknowledged IS NULL OR a.acknowledged = :acknowledged)"
+            + " ORDER BY a.createdAt DESC, a.id DESC")
+    List<Alert> findAlerts(@Param("customerId") Long customerId, @Param("rule") String rule,
+            @Param("acknowledged") Boolean acknowledged, Pageable pageable);
+}
@@ -0,0 +1,33 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.ArchivedInteractionCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedInteractionCountRepository extends JpaRepository<ArchivedInteractionCount, Long> {
+
+    List<ArchivedInteractionCount> findByCustomerIdIn(Collection<Long> customerIds);
+
+    // Totals of a customer id range in id order, for the scoring runs; like sumCounts,
+    // only existing customers
+    @Query("SELECT a FROM ArchivedInteractionCount a WHERE a.customerId > :afterId AND a.customerId <= :maxId"
+            + " AND a.customerId IN (SELECT c.id FROM Customer c) ORDER BY a.customerId")
+    List<ArchivedInteractionCount> findInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId);
+
+    // Rows of customers deleted without CustomerService are ignored
+    @Query("SELECT COALESCE(SUM(a.count), 0) FROM ArchivedInteractionCount a"
+            + " WHERE a.customerId IN (SELECT c.id FROM Customer c)")
+    long sumCounts();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ArchivedInteractionCount a WHERE a.customerId = :customerId")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
+}
@@ -0,0 +1,62 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.ArchivedInteractionDay;
+import com.examly.springapp.model.InteractionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Every day row holds the interactions of one calendar day, so a window bound at midnight
+// selects whole rows by lastInteractionDate; any other bound is exact to the day. Like the
+// counts, only rows of existing customers are read.
+@Repository
+public interface ArchivedInteractionDayRepository extends JpaRepository<ArchivedInteractionDay, Long> {
+
+    List<ArchivedInteractionDay> findByCustomerIdInAndActivityDateBetween(Collection<Long> customerIds,
+            LocalDate from, LocalDate to);
+
+    // Columns: customerId, purchases, returns, latest purchase date; the archived half of
+    // InteractionRepository.aggregatePurchasesInRange
+    @Query("SELECT a.customerId, SUM(CASE WHEN a.interactionType = :purchase THEN a.count ELSE 0 END),"
+            + " SUM(CASE WHEN a.interactionType = :returned THEN a.count ELSE 0 END),"
+            + " MAX(CASE WHEN a.interactionType = :purchase THEN a.lastInteractionDate END)"
+            + " FROM ArchivedInteractionDay a WHERE a.customerId > :afterId AND a.customerId <= :maxId"
+            + " AND a.lastInteractionDate >= :since AND a.interactionType IN (:purchase, :returned)"
+            + " AND a.customerId IN (SELECT c.id FROM Customer c) GROUP BY a.customerId")
+    List<Object[]> aggregatePurchasesInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId,
+            @Param("since") LocalDateTime since, @Param("purchase") InteractionType purchase,
+            @Param("returned") InteractionType returned);
+
+    // Columns: customerId, year, month, interactions, purchases; the archived half of
+    // InteractionRepository.countMonthlyByCustomerSince
+    @Query("SELECT a.customerId, YEAR(a.activityDate), MONTH(a.activityDate), SUM(a.count),"
+            + " SUM(CASE WHEN a.interactionType = :purchase THEN a.count ELSE 0 END)"
+            + " FROM ArchivedInteractionDay a WHERE a.lastInteractionDate >= :since"
+            + " AND a.customerId IN (SELECT c.id FROM Customer c)"
+            + " GROUP BY a.customerId, YEAR(a.activityDate), MONTH(a.activityDate)")
+    List<Object[]> countMonthlyByCustomerSince(@Param("since") LocalDateTime since,
+            @Param("purchase") InteractionType purchase);
+
+    // Latest archived interaction per customer and type since a date
+    @Query("SELECT a.customerId, a.interactionType, MAX(a.lastInteractionDate) FROM ArchivedInteractionDay a"
+            + " WHERE a.lastInteractionDate >= :since AND a.customerId IN (SELECT c.id FROM Customer c)"
+            + " GROUP BY a.customerId, a.interactionType")
+    List<Object[]> findLatestByCustomerAndTypeSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT MAX(a.lastInteractionDate) FROM ArchivedInteractionDay a"
+            + " WHERE a.customerId = :customerId AND a.interactionType = :interactionType")
+    LocalDateTime findLatestDate(@Param("customerId") Long customerId,
+            @Param("interactionType") InteractionType interactionType);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ArchivedInteractionDay a WHERE a.customerId = :customerId")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
+}
@@ -0,0 +1,34 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    // Range read on the primary key
+    List<ChangeLogEntry> findBySeqGreaterThanOrderBySeqAsc(Long seq, Pageable pageable);
+
+    @Query("SELECT MIN(c.seq) FROM ChangeLogEntry c")
+    Long findMinSeq();
+
+    @Query("SELECT MAX(c.seq) FROM ChangeLogEntry c")
+    Long findMaxSeq();
+
+    // Entries past the retention period, oldest first, for chunked purges
+    @Query("SELECT c.seq FROM ChangeLogEntry c WHERE c.committedAt < :before ORDER BY c.seq")
+    List<Long> findSeqsBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.seq <= :seq")
+    int deleteUpTo(@Param("seq") Long seq);
+}
@@ -0,0 +1,30 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.ChangeSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeSequenceRepository extends JpaRepository<ChangeSequence, String> {
+
+    // Reserves the next count seqs; holds the row lock until the calling transaction ends,
+    // so callers must already be in one
+    @Modifying
+    @Query("UPDATE ChangeSequence s SET s.lastSeq = s.lastSeq + :count WHERE s.name = :name")
+    int increment(@Param("name") String name, @Param("count") long count);
+
+    @Query("SELECT s.lastSeq FROM ChangeSequence s WHERE s.name = :name")
+    Long findLastSeq(@Param("name") String name);
+
+    // Locks the counter until the calling transaction ends; appends queue behind it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ChangeSequence s WHERE s.name = :name")
+    Optional<ChangeSequence> findForUpdate(@Param("name") String name);
+}
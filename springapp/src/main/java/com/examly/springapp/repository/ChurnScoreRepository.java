@@ -0,0 +1,38 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.ChurnScoreView;
+import com.examly.springapp.model.ChurnScore;
+import com.examly.springapp.model.CustomerType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChurnScoreRepository extends JpaRepository<ChurnScore, Long> {
+
+    @Query("SELECT new com.examly.springapp.dto.ChurnScoreView(c.id, c.firstName, c.lastName, c.email,"
+            + " c.customerType, s.score, s.complaintRatio, s.daysSinceLastPurchase, s.unresolvedItems,"
+            + " s.interactions, s.scoredAt)"
+            + " FROM ChurnScore s JOIN Customer c ON c.id = s.customerId"
+            + " WHERE s.score >= :minScore AND (:customerType IS NULL OR c.customerType = :customerType)")
+    List<ChurnScoreView> findViews(@Param("minScore") double minScore,
+            @Param("customerType") CustomerType customerType, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChurnScore s WHERE s.customerId IN :customerIds")
+    int deleteByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+
+    // Rows a completed run did not rewrite: customers deleted or left without history
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChurnScore s WHERE s.scoredAt < :cutoff")
+    int deleteScoredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,12 +1,125 @@
 package com.examly.springapp.repository;
 
+import com.examly.springapp.dto.CustomerView;
 import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.CustomerType;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
     boolean existsByEmail(String email);
+    Optional<Customer> findFirstByNormalizedPhoneOrderByIdDesc(String normalizedPhone);
+
+    // Projections for the read endpoints
+    @Query("SELECT new com.examly.springapp.dto.CustomerView(c.id, c.firstName, c.lastName, c.email,"
+            + " c.phoneNumber, c.customerType, c.registrationDate) FROM Customer c ORDER BY c.id")
+    List<CustomerView> findAllViews();
+
+    @Query("SELECT new com.examly.springapp.dto.CustomerView(c.id, c.firstName, c.lastName, c.email,"
+            + " c.phoneNumber, c.customerType, c.registrationDate) FROM Customer c WHERE c.id = :id")
+    Optional<CustomerView> findViewById(@Param("id") Long id);
+
+    @Query("SELECT new com.examly.springapp.dto.CustomerView(c.id, c.firstName, c.lastName, c.email,"
+            + " c.phoneNumber, c.customerType, c.registrationDate) FROM Customer c WHERE c.id IN :ids")
+    List<CustomerView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    // One row per (interactionType, status) of the customer's live history, or a single row
+    // with null type/status and count 0 when there is none, followed by one row per
+    // (interactionType, status) of its archived counts. Columns: the seven CustomerView
+    // fields, interactionType, status, count, latest interactionDate
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.customerType, c.registrationDate,"
+            + " i.interactionType, i.status, COUNT(i.id), MAX(i.interactionDate)"
+            + " FROM Customer c LEFT JOIN Interaction i ON i.customerId = c.id WHERE c.id = :id"
+            + " GROUP BY c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.customerType, c.registrationDate,"
+            + " i.interactionType, i.status"
+            + " UNION ALL"
+            + " SELECT c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.customerType, c.registrationDate,"
+            + " a.interactionType, a.status, a.count, a.lastInteractionDate"
+            + " FROM Customer c JOIN ArchivedInteractionCount a ON a.customerId = c.id WHERE c.id = :id")
+    List<Object[]> findInteractionStatsById(@Param("id") Long id);
+
+    // The given ids that exist and are not soft-deleted
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Rows with a phone number written before normalized_phone existed, in id order
+    @Query("SELECT c FROM Customer c WHERE c.id > :afterId AND c.phoneNumber IS NOT NULL"
+            + " AND c.normalizedPhone IS NULL ORDER BY c.id")
+    List<Customer> findWithoutNormalizedPhone(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Keyset paging for index rebuilds; avoids deep OFFSET scans on large tables
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT MAX(c.id) FROM Customer c")
+    Long findMaxId();
+
+    // Keyset-paged ids within (afterId, maxId], used to split rebuilds across threads
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId AND c.id <= :maxId ORDER BY c.id")
+    List<Long> findIdsInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+    // Same paging with the current type; columns: id, customerType
+    @Query("SELECT c.id, c.customerType FROM Customer c WHERE c.id > :afterId AND c.id <= :maxId ORDER BY c.id")
+    List<Object[]> findTypesInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+    // Keyset-paged registrations since a date for cohort analysis; columns: id, registrationDate
+    @Query("SELECT c.id, c.registrationDate FROM Customer c WHERE c.id > :afterId AND c.registrationDate >= :since"
+            + " ORDER BY c.id")
+    List<Object[]> findRegistrationsSince(@Param("since") LocalDate since, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // The email is replaced by a per-id placeholder so that it can be registered again
+    // while the purge is pending
+    @Transactional
+    @Modifying
+    @Query("UPDATE Customer c SET c.deletedAt = :deletedAt,"
+            + " c.email = CONCAT('deleted-', CAST(c.id AS String), '@invalid') WHERE c.id = :id")
+    int markDeleted(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Native so that soft-deleted rows, which the entity restriction hides, are visible
+    @Query(value = "SELECT id FROM customers WHERE deleted_at IS NOT NULL ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findSoftDeletedIds(@Param("limit") int limit);
+
+    // Native, like the delete below, because the entity restriction hides the rows being purged
+    @Query(value = "SELECT id FROM customers WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    Optional<Long> findDeletedRowById(@Param("id") Long id);
+
+    @Query(value = "SELECT id FROM customers WHERE id = :id AND deleted_at IS NOT NULL FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockDeletedRowById(@Param("id") Long id);
+
+    // Single-row delete that does not load or cascade into the interactions collection
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM customers WHERE id = :id", nativeQuery = true)
+    int deleteRowById(@Param("id") Long id);
+
+    long countByCustomerType(CustomerType customerType);
+
+    // Keyset-paged id selection for bulk updates
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId AND c.customerType = :customerType ORDER BY c.id")
+    List<Long> findIdsByCustomerTypeAfter(@Param("customerType") CustomerType customerType,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    // Rows about to be changed by updateCustomerType, locked like InteractionRepository.findAllForUpdate
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Customer c WHERE c.id IN :ids ORDER BY c.id")
+    List<Customer> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Customer c SET c.customerType = :customerType WHERE c.id IN :ids AND c.customerType <> :customerType")
+    int updateCustomerType(@Param("ids") Collection<Long> ids, @Param("customerType") CustomerType customerType);
     }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.CustomerSummaryView;
+import com.examly.springapp.model.CustomerSummary;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CustomerSummaryRepository extends JpaRepository<CustomerSummary, Long> {
+
+    // GREATEST is NULL on MySQL when either side is, hence the COALESCE around it below
+    String LATEST_LIVE = "(SELECT MAX(i.interactionDate) FROM Interaction i WHERE i.customerId = :customerId)";
+    String LATEST_ARCHIVED =
+            "(SELECT MAX(a.lastInteractionDate) FROM ArchivedInteractionCount a WHERE a.customerId = :customerId)";
+
+    // Applies counter deltas in place and re-reads the latest date through the
+    // (customer_id, interaction_date) index, taking archived history into account;
+    // returns 0 when the row is missing
+    @Modifying
+    @Query("UPDATE CustomerSummary s SET s.totalInteractions = s.totalInteractions + :total,"
+            + " s.purchases = s.purchases + :purchases, s.complaints = s.complaints + :complaints,"
+            + " s.openComplaints = s.openComplaints + :openComplaints,"
+            + " s.lastInteractionDate = COALESCE(GREATEST(" + LATEST_LIVE + ", " + LATEST_ARCHIVED + "),"
+            + " " + LATEST_LIVE + ", " + LATEST_ARCHIVED + ")"
+            + " WHERE s.customerId = :customerId")
+    int applyDelta(@Param("customerId") Long customerId, @Param("total") long total,
+            @Param("purchases") long purchases, @Param("complaints") long complaints,
+            @Param("openComplaints") long openComplaints);
+
+    // Columns: customerId, total, purchases, complaints, open complaints, latest interactionDate
+    @Query("SELECT i.customerId, COUNT(i.id),"
+            + " SUM(CASE WHEN i.interactionType = :purchase THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN i.interactionType = :complaint THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN i.interactionType = :complaint AND i.status IN :openStatuses THEN 1 ELSE 0 END),"
+            + " MAX(i.interactionDate)"
+            + " FROM Interaction i WHERE i.customerId IN :customerIds GROUP BY i.customerId")
+    List<Object[]> aggregateByCustomerIds(@Param("customerIds") Collection<Long> customerIds,
+            @Param("purchase") InteractionType purchase, @Param("complaint") InteractionType complaint,
+            @Param("openStatuses") Collection<InteractionStatus> openStatuses);
+
+    // Same columns from the archived counts
+    @Query("SELECT a.customerId, SUM(a.count),"
+            + " SUM(CASE WHEN a.interactionType = :purchase THEN a.count ELSE 0 END),"
+            + " SUM(CASE WHEN a.interactionType = :complaint THEN a.count ELSE 0 END),"
+            + " SUM(CASE WHEN a.interactionType = :complaint AND a.status IN :openStatuses THEN a.count ELSE 0 END),"
+            + " MAX(a.lastInteractionDate)"
+            + " FROM ArchivedInteractionCount a WHERE a.customerId IN :customerIds GROUP BY a.customerId")
+    List<Object[]> aggregateArchivedByCustomerIds(@Param("customerIds") Collection<Long> customerIds,
+            @Param("purchase") InteractionType purchase, @Param("complaint") InteractionType complaint,
+            @Param("openStatuses") Collection<InteractionStatus> openStatuses);
+
+    @Query("SELECT new com.examly.springapp.dto.CustomerSummaryView(c.id, c.firstName, c.lastName, c.email,"
+            + " c.customerType, s.totalInteractions, s.purchases, s.openComplaints, s.lastInteractionDate)"
+            + " FROM CustomerSummary s JOIN Customer c ON c.id = s.customerId"
+            + " WHERE s.openComplaints >= :minOpenComplaints AND (:customerType IS NULL OR c.customerType = :customerType)")
+    List<CustomerSummaryView> findViews(@Param("minOpenComplaints") long minOpenComplaints,
+            @Param("customerType") CustomerType customerType, Pageable pageable);
+
+    List<CustomerSummary> findByCustomerIdGreaterThanOrderByCustomerIdAsc(Long customerId, Pageable pageable);
+
+    // Drops rows whose customer is gone or soft-deleted
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CustomerSummary s WHERE s.customerId NOT IN (SELECT c.id FROM Customer c)")
+    int deleteOrphans();
+}
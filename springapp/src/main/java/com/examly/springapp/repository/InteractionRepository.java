@@ -1,14 +1,28 @@
 
 package com.examly.springapp.repository;
 
+import com.examly.springapp.dto.InteractionView;
 import com.examly.springapp.model.Interaction;
 import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
 import com.examly.springapp.model.Customer;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InteractionRepository extends JpaRepository<Interaction, Long> {
@@ -26,5 +40,173 @@ public interface InteractionRepository extends JpaRepository<Interaction, Long>
     @Query("SELECT i FROM Interaction i WHERE i.customer.email = :email")
     List<Interaction> findInteractionsByCustomerEmail(@Param("email") String email);
 
+    // Projections for the read endpoints
+    @Query("SELECT new com.examly.springapp.dto.InteractionView(i.id, i.customerId, i.interactionType,"
+            + " i.description, i.status, i.interactionDate, i.slaBreachedAt) FROM Interaction i WHERE i.customerId = :customerId"
+            + " ORDER BY i.id")
+    List<InteractionView> findViewsByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT new com.examly.springapp.dto.InteractionView(i.id, i.customerId, i.interactionType,"
+            + " i.description, i.status, i.interactionDate, i.slaBreachedAt) FROM Interaction i WHERE i.id = :id")
+    Optional<InteractionView> findViewById(@Param("id") Long id);
+
+    // Served by idx_interactions_customer_date without sorting the whole history
+    @Query("SELECT new com.examly.springapp.dto.InteractionView(i.id, i.customerId, i.interactionType,"
+            + " i.description, i.status, i.interactionDate, i.slaBreachedAt) FROM Interaction i WHERE i.customerId = :customerId"
+            + " ORDER BY i.interactionDate DESC, i.id DESC")
+    List<InteractionView> findRecentViewsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
     long countByStatus(InteractionStatus pending);
-}
\ No newline at end of file
+
+    long countByCustomerId(Long customerId);
+
+    // Chunked set-based deletes: pick a bounded batch of ids, then delete them in one statement
+    @Query("SELECT i.id FROM Interaction i WHERE i.customerId = :customerId ORDER BY i.id")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Interaction i WHERE i.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Interaction i WHERE i.customerId = :customerId")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
+
+    // Bulk status updates: the filter fields are optional and ignored when null
+    @Query("SELECT COUNT(i) FROM Interaction i WHERE (:status IS NULL OR i.status = :status)"
+            + " AND (:customerId IS NULL OR i.customerId = :customerId)"
+            + " AND (:olderThan IS NULL OR i.interactionDate < :olderThan)")
+    long countForBulkUpdate(@Param("status") InteractionStatus status, @Param("customerId") Long customerId,
+            @Param("olderThan") LocalDateTime olderThan);
+
+    @Query("SELECT i.id FROM Interaction i WHERE i.id > :afterId AND (:status IS NULL OR i.status = :status)"
+            + " AND (:customerId IS NULL OR i.customerId = :customerId)"
+            + " AND (:olderThan IS NULL OR i.interactionDate < :olderThan) ORDER BY i.id")
+    List<Long> findIdsForBulkUpdate(@Param("status") InteractionStatus status, @Param("customerId") Long customerId,
+            @Param("olderThan") LocalDateTime olderThan, @Param("afterId") Long afterId, Pageable pageable);
+
+    // The analytics scans below join the customer, whose @SQLRestriction drops the
+    // history of soft-deleted customers that the purger has not removed yet
+
+    // Columns: customerId, year, month, interactions, purchases; served by idx_interactions_date
+    @Query("SELECT i.customerId, YEAR(i.interactionDate), MONTH(i.interactionDate), COUNT(i.id),"
+            + " SUM(CASE WHEN i.interactionType = :purchase THEN 1 ELSE 0 END)"
+            + " FROM Interaction i JOIN i.customer c WHERE i.interactionDate >= :since"
+            + " GROUP BY i.customerId, YEAR(i.interactionDate), MONTH(i.interactionDate)")
+    List<Object[]> countMonthlyByCustomerSince(@Param("since") LocalDateTime since,
+            @Param("purchase") InteractionType purchase);
+
+    // Latest interaction per customer and type since a date, for recency facts
+    @Query("SELECT i.customerId, i.interactionType, MAX(i.interactionDate) FROM Interaction i"
+            + " JOIN i.customer c WHERE i.interactionDate >= :since GROUP BY i.customerId, i.interactionType")
+    List<Object[]> findLatestByCustomerAndTypeSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT MAX(i.interactionDate) FROM Interaction i"
+            + " WHERE i.customerId = :customerId AND i.interactionType = :interactionType")
+    LocalDateTime findLatestDate(@Param("customerId") Long customerId,
+            @Param("interactionType") InteractionType interactionType);
+
+    // Columns: customerId, purchases, returns, latest purchase date. The customer id range
+    // keeps the scan on idx_interactions_customer_date
+    @Query("SELECT i.customerId, SUM(CASE WHEN i.interactionType = :purchase THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN i.interactionType = :returned THEN 1 ELSE 0 END),"
+            + " MAX(CASE WHEN i.interactionType = :purchase THEN i.interactionDate END)"
+            + " FROM Interaction i JOIN i.customer c WHERE i.customerId > :afterId AND i.customerId <= :maxId"
+            + " AND i.interactionDate >= :since AND i.interactionType IN (:purchase, :returned)"
+            + " GROUP BY i.customerId")
+    List<Object[]> aggregatePurchasesInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId,
+            @Param("since") LocalDateTime since, @Param("purchase") InteractionType purchase,
+            @Param("returned") InteractionType returned);
+
+    // Forward-only scan of a customer id range in index order for the scoring runs;
+    // columns: customerId, interactionType, status, interactionDate. Must be consumed
+    // inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.customerId, i.interactionType, i.status, i.interactionDate FROM Interaction i"
+            + " JOIN i.customer c WHERE i.customerId > :afterId AND i.customerId <= :maxId ORDER BY i.customerId, i.interactionDate")
+    Stream<Object[]> streamHistoryInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId);
+
+    // Same scan restricted to the given types, for funnel matching; columns: customerId,
+    // interactionType, interactionDate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.customerId, i.interactionType, i.interactionDate FROM Interaction i"
+            + " JOIN i.customer c WHERE i.customerId > :afterId AND i.customerId <= :maxId AND i.interactionType IN :types"
+            + " AND i.interactionDate IS NOT NULL AND (:since IS NULL OR i.interactionDate >= :since)"
+            + " ORDER BY i.customerId, i.interactionDate")
+    Stream<Object[]> streamTypedHistoryInRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId,
+            @Param("types") Collection<InteractionType> types, @Param("since") LocalDateTime since);
+
+    // Distinct (customerId, year, month) activity pairs in [from, to), live and archived; the
+    // bounds are at midnight, so whole archived days fall inside. Served by idx_interactions_date
+    // and idx_archived_days_last_date
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.customerId, YEAR(i.interactionDate), MONTH(i.interactionDate) FROM Interaction i"
+            + " JOIN i.customer c WHERE i.interactionDate >= :from AND i.interactionDate < :to"
+            + " UNION"
+            + " SELECT a.customerId, YEAR(a.activityDate), MONTH(a.activityDate) FROM ArchivedInteractionDay a"
+            + " WHERE a.lastInteractionDate >= :from AND a.lastInteractionDate < :to"
+            + " AND a.customerId IN (SELECT c.id FROM Customer c)")
+    Stream<Object[]> streamActiveMonths(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Columns: id, customerId, interactionDate
+    @Query("SELECT i.id, i.customerId, i.interactionDate FROM Interaction i"
+            + " JOIN i.customer c WHERE i.interactionType = :interactionType AND i.status = :status")
+    List<Object[]> findByTypeAndStatus(@Param("interactionType") InteractionType interactionType,
+            @Param("status") InteractionStatus status);
+
+    // SLA timers to restore at startup, one range over idx_interactions_sla;
+    // columns: id, interactionType, interactionDate
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.id, i.interactionType, i.interactionDate FROM Interaction i"
+            + " WHERE i.slaBreachedAt IS NULL AND i.status IN :statuses")
+    Stream<Object[]> streamSlaCandidates(@Param("statuses") Collection<InteractionStatus> statuses);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Interaction i SET i.slaBreachedAt = :breachedAt WHERE i.id IN :ids AND i.slaBreachedAt IS NULL")
+    int markSlaBreached(@Param("ids") Collection<Long> ids, @Param("breachedAt") LocalDateTime breachedAt);
+
+    // Columns: interactionType, breached, breached and still open, breached since the given time
+    @Query("SELECT i.interactionType, COUNT(i.id), SUM(CASE WHEN i.status IN :statuses THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN i.slaBreachedAt >= :since THEN 1 ELSE 0 END)"
+            + " FROM Interaction i WHERE i.slaBreachedAt IS NOT NULL GROUP BY i.interactionType")
+    List<Object[]> countSlaBreachesByType(@Param("statuses") Collection<InteractionStatus> statuses,
+            @Param("since") LocalDateTime since);
+
+    @Query("SELECT i.id FROM Interaction i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Rows about to be changed by a set-based update, locked so that the change events
+    // describe exactly what the update overwrites
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Interaction i WHERE i.id IN :ids ORDER BY i.id")
+    List<Interaction> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT i.customerId FROM Interaction i WHERE i.id IN :ids")
+    List<Long> findCustomerIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Interaction i SET i.status = :status WHERE i.id IN :ids AND i.status <> :status")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") InteractionStatus status);
+
+    // Export scan of [from, to) in idx_interactions_date order, so timestamps delta-encode
+    // tightly; both bounds are optional. Like the archived half, soft-deleted customers'
+    // interactions are left out. Must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.examly.springapp.dto.InteractionView(i.id, i.customerId, i.interactionType,"
+            + " i.description, i.status, i.interactionDate, i.slaBreachedAt) FROM Interaction i JOIN i.customer c"
+            + " WHERE (:from IS NULL OR i.interactionDate >= :from) AND (:to IS NULL OR i.interactionDate < :to)"
+            + " ORDER BY i.interactionDate, i.id")
+    Stream<InteractionView> streamViewsForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Next archival chunk in id order, locked so that no update slips in between
+    // writing the archive file and deleting the rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Interaction i WHERE i.id > :afterId AND i.interactionDate < :cutoff"
+            + " AND i.status IN :statuses ORDER BY i.id")
+    List<Interaction> findArchivable(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff,
+            @Param("statuses") Collection<InteractionStatus> statuses, Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+    List<JobCheckpoint> findByJobNameOrderByPartitionIndexAsc(String jobName);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JobCheckpoint c WHERE c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
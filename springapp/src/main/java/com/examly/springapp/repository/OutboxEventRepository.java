@@ -0,0 +1,33 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Keyset read of the events after a target's cursor
+    List<OutboxEvent> findBySeqGreaterThanOrderBySeqAsc(Long seq, Pageable pageable);
+
+    // Oldest pending event of a target, for its lag
+    Optional<OutboxEvent> findFirstBySeqGreaterThanOrderBySeqAsc(Long seq);
+
+    @Query("SELECT MAX(e.seq) FROM OutboxEvent e")
+    Long findMaxSeq();
+
+    // Removes events every target has received once they are old enough. Rows without
+    // a seq predate it and are never relayed
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE (e.seq <= :deliveredSeq OR e.seq IS NULL) AND e.createdAt < :before")
+    int deleteDelivered(@Param("deliveredSeq") Long deliveredSeq, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,36 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.OutboxTarget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxTargetRepository extends JpaRepository<OutboxTarget, String> {
+
+    List<OutboxTarget> findByEnabledTrueOrderByNameAsc();
+
+    @Query("SELECT MIN(t.lastDeliveredSeq) FROM OutboxTarget t")
+    Long findMinDeliveredSeq();
+
+    // Takes or renews the relay lease; 1 when this instance now owns the target
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxTarget t SET t.leaseOwner = :owner, t.leaseUntil = :until WHERE t.name = :name"
+            + " AND (t.leaseOwner IS NULL OR t.leaseOwner = :owner OR t.leaseUntil < :now)")
+    int acquireLease(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until);
+
+    // Cursors only move forward
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxTarget t SET t.lastDeliveredSeq = :deliveredSeq, t.deliveredCount = t.deliveredCount + :count,"
+            + " t.updatedAt = :updatedAt WHERE t.name = :name AND t.lastDeliveredSeq < :deliveredSeq")
+    int advanceCursor(@Param("name") String name, @Param("deliveredSeq") long deliveredSeq, @Param("count") long count,
+            @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,29 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.TierProposal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TierProposalRepository extends JpaRepository<TierProposal, Long> {
+    List<TierProposal> findAllByOrderByFrequencyDescCustomerIdAsc(Pageable pageable);
+
+    // Clears earlier proposals for a batch before the new ones are written
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TierProposal p WHERE p.customerId IN :customerIds")
+    int deleteByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+
+    // Leftovers for customers that no longer exist once a run has covered every id
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TierProposal p WHERE p.runId <> :runId")
+    int deleteOtherRuns(@Param("runId") String runId);
+}
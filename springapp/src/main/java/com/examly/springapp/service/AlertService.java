@@ -0,0 +1,139 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Alert;
+import com.examly.springapp.repository.AlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores and serves alerts. Rules hand alerts over through a bounded queue
+ * that is written out in batches, so raising one normally never waits on the
+ * database. A batch that fails to save is kept and retried before anything
+ * else is drained; when the queue is full the raising thread writes its alert
+ * itself, so alerts are only lost when that write fails too.
+ */
+@Service
+public class AlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.alerts.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Alert> pending;
+
+    // Drained but not yet saved; guarded by this. The size is mirrored for the stats
+    private final List<Alert> batch = new ArrayList<>();
+    private volatile int unsaved;
+
+    // Rules raise alerts from after-commit callbacks, where REQUIRED would join the finished transaction
+    private TransactionTemplate write;
+
+    private final AtomicLong overflowWrites = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+        write = new TransactionTemplate(transactionManager);
+        write.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Queues an alert for storage; writes it in the calling thread when the queue is full. */
+    public void raise(Alert alert) {
+        if (pending.offer(alert)) {
+            return;
+        }
+        overflowWrites.incrementAndGet();
+        try {
+            write.executeWithoutResult(status -> alertRepository.save(alert));
+        } catch (RuntimeException e) {
+            logger.error("Alert queue is full and writing the alert failed; {} alerts lost so far",
+                    dropped.incrementAndGet(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Writing {} alerts failed; retrying on the next flush", unsaved, e);
+        }
+    }
+
+    /** Saves the queued alerts; a batch that fails stays to be retried first. */
+    public synchronized void flush() {
+        if (batch.isEmpty()) {
+            pending.drainTo(batch);
+            unsaved = batch.size();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            write.executeWithoutResult(status -> alertRepository.saveAll(batch));
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            // Ids handed out before the rollback do not exist; the retry inserts again
+            batch.forEach(alert -> alert.setId(null));
+            throw e;
+        }
+        batch.clear();
+        unsaved = 0;
+    }
+
+    // Queued alerts are written first so that a read sees everything raised before it
+    public List<Alert> findAlerts(Long customerId, String rule, Boolean acknowledged, int limit) {
+        flush();
+        return alertRepository.findAlerts(customerId, rule, acknowledged, PageRequest.of(0, limit));
+    }
+
+    /** Marks the alert acknowledged; null when there is no such alert. */
+    @Transactional
+    public Alert acknowledge(Long id) {
+        return alertRepository.findById(id).map(alert -> {
+            alert.setAcknowledged(true);
+            return alert;
+        }).orElse(null);
+    }
+
+    public int getQueued() {
+        return pending.size() + unsaved;
+    }
+
+    public long getOverflowWrites() {
+        return overflowWrites.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
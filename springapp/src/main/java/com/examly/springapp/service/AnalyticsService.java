@@ -1,19 +1,31 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CustomerView;
+import com.examly.springapp.index.CustomerLeaderboards;
+import com.examly.springapp.index.CustomerSegmentIndex;
+import com.examly.springapp.index.Leaderboard;
 import com.examly.springapp.model.Customer;
 import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionType;
 import com.examly.springapp.repository.CustomerRepository;
 import com.examly.springapp.repository.InteractionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.stream.Collectors;
 
+// The table scans are read-only transactions, so they run on a read replica when one is
+// configured. The rest read in-memory indexes, or open their own transactions (cohorts,
+// funnel), and single repository lookups are read-only on their own
 @Service
 public class AnalyticsService {
 
@@ -23,6 +35,25 @@ public class AnalyticsService {
     @Autowired
     private InteractionRepository interactionRepository;
 
+    @Autowired
+    private CustomerLeaderboards customerLeaderboards;
+
+    @Autowired
+    private CustomerSegmentIndex customerSegmentIndex;
+
+    @Autowired
+    private FunnelAnalysisService funnelAnalysisService;
+
+    @Autowired
+    private CohortAnalysisService cohortAnalysisService;
+
+    @Autowired
+    private InteractionArchiveService archiveService;
+
+    @Autowired
+    private SlaService slaService;
+
+    @Transactional(readOnly = true)
     public Map<String, Object> getCustomerStatistics() {
         List<Customer> customers = customerRepository.findAll();
         
@@ -43,6 +74,7 @@ public class AnalyticsService {
         return stats;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getInteractionStatistics() {
         List<Interaction> interactions = interactionRepository.findAll();
         
@@ -67,6 +99,7 @@ public class AnalyticsService {
         return stats;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Integer> getMonthlyInteractionCounts() {
         List<Interaction> interactions = interactionRepository.findAll();
         Map<Month, Integer> countsByMonth = new HashMap<>();
@@ -95,6 +128,7 @@ public class AnalyticsService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Integer> getInteractionTypeDistribution() {
         List<Interaction> interactions = interactionRepository.findAll();
         Map<String, Integer> typeDistribution = new HashMap<>();
@@ -107,4 +141,148 @@ public class AnalyticsService {
         
         return typeDistribution;
     }
-}
\ No newline at end of file
+
+    // Reads the first N ranks of a maintained leaderboard, then fetches just those customers
+    public List<Map<String, Object>> getLeaderboard(String metric, String window, int limit) {
+        CustomerLeaderboards.Metric parsedMetric;
+        try {
+            parsedMetric = CustomerLeaderboards.Metric.valueOf(metric.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid metric: " + metric);
+        }
+        YearMonth month = parseWindow(window);
+
+        List<Leaderboard.Entry> entries = customerLeaderboards.top(parsedMetric, month, limit);
+        Map<Long, CustomerView> customers = new HashMap<>();
+        if (!entries.isEmpty()) {
+            for (CustomerView view : customerRepository.findViewsByIds(
+                    entries.stream().map(Leaderboard.Entry::customerId).toList())) {
+                customers.put(view.id(), view);
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Leaderboard.Entry entry : entries) {
+            CustomerView customer = customers.get(entry.customerId());
+            if (customer == null) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("rank", result.size() + 1);
+            row.put("customerId", customer.id());
+            row.put("firstName", customer.firstName());
+            row.put("lastName", customer.lastName());
+            row.put("email", customer.email());
+            row.put("customerType", customer.customerType());
+            row.put("score", entry.score());
+            result.add(row);
+        }
+        return result;
+    }
+
+    private YearMonth parseWindow(String window) {
+        if ("all".equalsIgnoreCase(window)) {
+            return null;
+        }
+        YearMonth month;
+        try {
+            month = "month".equalsIgnoreCase(window) ? YearMonth.now() : YearMonth.parse(window);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid window: " + window + " (use all, month or yyyy-MM)");
+        }
+        if (!customerLeaderboards.isRetained(month)) {
+            throw new IllegalArgumentException("No leaderboard kept for " + month);
+        }
+        return month;
+    }
+
+    public Map<String, Object> countSegment(String expression) {
+        long start = System.nanoTime();
+        long count = customerSegmentIndex.count(expression);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("segment", expression);
+        result.put("count", count);
+        result.put("elapsedMicros", (System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    // Keyset paging over the segment bitmap; pass nextAfter back to get the following page
+    public Map<String, Object> getSegmentMembers(String expression, long after, int limit) {
+        int[] ids = customerSegmentIndex.members(expression, after, limit);
+        List<CustomerView> customers = new ArrayList<>();
+        if (ids.length > 0) {
+            List<Long> idList = Arrays.stream(ids).mapToObj(id -> (long) id).toList();
+            Map<Long, CustomerView> byId = new HashMap<>();
+            for (CustomerView view : customerRepository.findViewsByIds(idList)) {
+                byId.put(view.id(), view);
+            }
+            for (Long id : idList) {
+                CustomerView view = byId.get(id);
+                if (view != null) {
+                    customers.add(view);
+                }
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("segment", expression);
+        result.put("customers", customers);
+        result.put("nextAfter", ids.length == limit ? (Object) (long) ids[ids.length - 1] : null);
+        return result;
+    }
+
+    public Map<String, Object> getCohorts() {
+        return cohortAnalysisService.getCohorts();
+    }
+
+    public Map<String, Object> getSlaStats() {
+        return slaService.getStats();
+    }
+
+    // Ordered funnel, e.g. INQUIRY,PURCHASE within 7 days: customers reaching each step
+    public Map<String, Object> getFunnel(List<String> stepNames, int maxGapDays, LocalDate since, int maxSteps) {
+        if (stepNames == null || stepNames.size() < 2 || stepNames.size() > maxSteps) {
+            throw new IllegalArgumentException("A funnel needs between 2 and " + maxSteps + " steps");
+        }
+        if (maxGapDays < 1) {
+            throw new IllegalArgumentException("maxGapDays must be at least 1");
+        }
+        List<InteractionType> steps = new ArrayList<>();
+        for (String name : stepNames) {
+            try {
+                steps.add(InteractionType.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid interaction type: " + name);
+            }
+        }
+
+        // The funnel reads the interactions table only, so it stops where the archive starts
+        LocalDate horizon = LocalDate.now().minusDays(archiveService.getAgeDays());
+        if (since == null) {
+            since = horizon;
+        } else if (since.isBefore(horizon)) {
+            throw new IllegalArgumentException("since must not be before " + horizon + "; older interactions are archived");
+        }
+
+        long start = System.currentTimeMillis();
+        long[] reached = funnelAnalysisService.countSteps(steps, Duration.ofDays(maxGapDays), since.atStartOfDay());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int k = 0; k < steps.size(); k++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("step", steps.get(k));
+            row.put("customers", reached[k]);
+            row.put("conversionFromPrevious", k == 0 ? 1.0 : ratio(reached[k], reached[k - 1]));
+            row.put("conversionFromFirst", ratio(reached[k], reached[0]));
+            rows.add(row);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("steps", rows);
+        result.put("maxGapDays", maxGapDays);
+        result.put("since", since);
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(10000.0 * part / whole) / 10000.0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.event.UserChangedEvent;
+import com.examly.springapp.model.User;
+import com.examly.springapp.storage.AuditLog;
+import com.examly.springapp.storage.AuditRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Audit trail of customer, interaction and user writes: who, when, and the
+ * entity before and after. Records go to the memory-mapped AuditLog once the
+ * change has committed, so auditing adds no database writes; the log is forced
+ * to disk every app.audit.fsync-interval-ms for all records written since.
+ */
+@Service
+public class AuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
+
+    public static final String CUSTOMER = "CUSTOMER";
+    public static final String INTERACTION = "INTERACTION";
+    public static final String USER = "USER";
+
+    // Writes made outside a request (jobs, startup) are attributed to this actor
+    private static final String SYSTEM = "system";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.audit.dir:data/audit}")
+    private String dir;
+
+    @Value("${app.audit.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${app.audit.index-interval-bytes:4096}")
+    private int indexIntervalBytes;
+
+    @Value("${app.audit.retention-days:365}")
+    private long retentionDays;
+
+    private AuditLog auditLog;
+
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    public void open() throws IOException {
+        auditLog = AuditLog.open(Path.of(dir), segmentBytes, indexIntervalBytes);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        auditLog.close();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        record(CUSTOMER, event.getCustomerId(), event.getType(), toJson(event.getPrevious()), toJson(event.getCurrent()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        record(INTERACTION, event.getInteractionId(), event.getType(),
+                toJson(event.getPrevious()), toJson(event.getCurrent()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        boolean passwordChanged = event.getPrevious() != null && event.getCurrent() != null
+                && !event.getPrevious().getPassword().equals(event.getCurrent().getPassword());
+        record(USER, event.getUserId(), event.getType(), toJson(userFields(event.getPrevious(), false)),
+                toJson(userFields(event.getCurrent(), passwordChanged)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.fsync-interval-ms:200}")
+    public void flush() {
+        auditLog.flush();
+    }
+
+    @Scheduled(cron = "${app.audit.retention-cron:0 45 4 * * *}")
+    public void deleteExpired() throws IOException {
+        int removed = auditLog.deleteSegmentsBefore(Instant.now().minus(Duration.ofDays(retentionDays)));
+        if (removed > 0) {
+            logger.info("Deleted {} audit segments older than {} days", removed, retentionDays);
+        }
+    }
+
+    /** Newest matching records first; every filter is optional. */
+    public List<AuditRecord> find(String entityType, Long entityId, String actor, Instant from, Instant to, int limit) {
+        return auditLog.scan(from, to, record -> (entityType == null || entityType.equals(record.entityType()))
+                && (entityId == null || entityId == record.entityId())
+                && (actor == null || actor.equals(record.actor())), limit);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = auditLog.getStats();
+        stats.put("failedWrites", failed.get());
+        return stats;
+    }
+
+    // A failed audit write is logged and counted; it never fails the change itself
+    private void record(String entityType, Long entityId, ChangeType action, String before, String after) {
+        try {
+            auditLog.append(entityType, entityId, action.name(), currentActor(), before, after);
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            logger.error("Could not write audit record for {} {}: {}", entityType, entityId, e.getMessage());
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM;
+        }
+        return authentication.getName();
+    }
+
+    // Never the password hash, only whether it changed
+    private static Map<String, Object> userFields(User user, boolean passwordChanged) {
+        if (user == null) {
+            return null;
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", user.getId());
+        fields.put("username", user.getUsername());
+        fields.put("role", user.getRole());
+        if (passwordChanged) {
+            fields.put("passwordChanged", true);
+        }
+        return fields;
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize audit value", e);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package com.examly.springapp.service;
 import com.examly.springapp.dto.LoginRequest;
 import com.examly.springapp.dto.LoginResponse;
 import com.examly.springapp.dto.UserRegistrationRequest;
+import com.examly.springapp.event.UserChangedEvent;
 import com.examly.springapp.model.User;
 import com.examly.springapp.model.UserRole;
 import com.examly.springapp.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -28,6 +31,12 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
     public LoginResponse login(LoginRequest loginRequest) {
         logger.info("Login attempt for username: {}", loginRequest.getUsername());
 
@@ -68,25 +77,28 @@ public class AuthService {
     public void createDefaultUsers() {
         if (!userRepository.existsByUsername("admin")) {
             User admin = new User("admin", passwordEncoder.encode("admin123"), UserRole.ADMIN);
-            userRepository.save(admin);
+            eventPublisher.publishEvent(UserChangedEvent.created(userRepository.save(admin)));
         }
 
         if (!userRepository.existsByUsername("sales")) {
             User salesRep = new User("sales", passwordEncoder.encode("sales123"), UserRole.SALES_REP);
-            userRepository.save(salesRep);
+            eventPublisher.publishEvent(UserChangedEvent.created(userRepository.save(salesRep)));
         }
 
         if (!userRepository.existsByUsername("analyst")) {
             User analyst = new User("analyst", passwordEncoder.encode("analyst123"), UserRole.ANALYST);
-            userRepository.save(analyst);
+            eventPublisher.publishEvent(UserChangedEvent.created(userRepository.save(analyst)));
         }
     }
 
+    // User writes are transactional so that a snapshot restore can hold them off
+    @Transactional
     public User registerUser(UserRegistrationRequest request, UserRole adminRole) {
         // Only ADMIN users can register new users
         if (adminRole != UserRole.ADMIN) {
             throw new RuntimeException("Only ADMIN users can register new users");
         }
+        changeFeedService.checkWritesAllowed();
 
         // Check if username already exists
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -100,6 +112,7 @@ public class AuthService {
                 request.getRole());
 
         User savedUser = userRepository.save(newUser);
+        eventPublisher.publishEvent(UserChangedEvent.created(savedUser));
         logger.info("New user registered by admin: {}", savedUser.getUsername());
 
         return savedUser;
@@ -127,13 +140,16 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
     
+    @Transactional
     public User updateUser(Long id, User userDetails, UserRole adminRole) {
         // Only ADMIN users can update users
         if (adminRole != UserRole.ADMIN) {
             throw new RuntimeException("Only ADMIN users can update users");
         }
+        changeFeedService.checkWritesAllowed();
         
         User user = getUserById(id, adminRole);
+        User previous = new User(user);
         
         // Check if username is being changed and if new username already exists
         if (!user.getUsername().equals(userDetails.getUsername()) &&
@@ -150,14 +166,18 @@ public class AuthService {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(previous, savedUser));
+        return savedUser;
     }
     
+    @Transactional
     public void deleteUser(Long id, UserRole adminRole) {
         // Only ADMIN users can delete users
         if (adminRole != UserRole.ADMIN) {
             throw new RuntimeException("Only ADMIN users can delete users");
         }
+        changeFeedService.checkWritesAllowed();
         
         User user = getUserById(id, adminRole);
         
@@ -170,6 +190,7 @@ public class AuthService {
         }
         
         userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(user));
         logger.info("Admin {} deleted user with id: {}", adminRole, id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.BulkUpdateJob;
+import com.examly.springapp.dto.CustomerBulkUpdateRequest;
+import com.examly.springapp.dto.InteractionBulkUpdateRequest;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs bulk mutations as a sequence of chunked set-based UPDATE statements,
+ * each in its own short transaction, on a single background worker. Callers
+ * get a job back immediately and poll it for progress.
+ */
+@Service
+public class BulkUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUpdateService.class);
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.bulk.max-ids:100000}")
+    private int maxIds;
+
+    @Value("${app.bulk.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, BulkUpdateJob> jobs = new ConcurrentHashMap<>();
+
+    private ExecutorService worker;
+
+    @PostConstruct
+    public void init() {
+        // One job at a time keeps lock contention from bulk writes predictable. Jobs run
+        // as the user who submitted them, so the audit log records who changed each row
+        worker = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-update");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public BulkUpdateJob submitCustomerUpdate(CustomerBulkUpdateRequest request) {
+        validateSelection(request.getIds(), request.getCurrentType() != null, "currentType");
+        return submit("customers", job -> runCustomerUpdate(job, request));
+    }
+
+    public BulkUpdateJob submitInteractionUpdate(InteractionBulkUpdateRequest request) {
+        boolean hasFilter = request.getCurrentStatus() != null || request.getCustomerId() != null
+                || request.getOlderThan() != null;
+        validateSelection(request.getIds(), hasFilter, "currentStatus, customerId or olderThan");
+        return submit("interactions", job -> runInteractionUpdate(job, request));
+    }
+
+    public BulkUpdateJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void validateSelection(List<Long> ids, boolean hasFilter, String filterFields) {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        if (hasIds && hasFilter) {
+            throw new IllegalArgumentException("Specify either ids or a filter, not both");
+        }
+        if (!hasIds && !hasFilter) {
+            throw new IllegalArgumentException("Specify ids or at least one of " + filterFields);
+        }
+        if (hasIds && ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be updated in one request");
+        }
+    }
+
+    private BulkUpdateJob submit(String target, Consumer<BulkUpdateJob> body) {
+        evictFinishedJobs();
+        BulkUpdateJob job = new BulkUpdateJob(UUID.randomUUID().toString(), target);
+        jobs.put(job.getId(), job);
+        worker.execute(() -> {
+            job.setState(BulkUpdateJob.State.RUNNING);
+            try {
+                body.accept(job);
+                job.setState(BulkUpdateJob.State.COMPLETED);
+                logger.info("Bulk update {} on {} finished: {} of {} rows changed",
+                        job.getId(), target, job.getUpdated(), job.getProcessed());
+            } catch (RuntimeException e) {
+                // Chunks already written stay written; the job reports how far it got
+                job.setError(e.getMessage());
+                job.setState(BulkUpdateJob.State.FAILED);
+                logger.error("Bulk update {} on {} failed after {} rows", job.getId(), target, job.getProcessed(), e);
+            } finally {
+                job.setFinishedAt(LocalDateTime.now());
+            }
+        });
+        return job;
+    }
+
+    private void runCustomerUpdate(BulkUpdateJob job, CustomerBulkUpdateRequest request) {
+        CustomerType customerType = request.getCustomerType();
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Long> ids = sortedDistinct(request.getIds());
+            job.setTotal(ids.size());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                updateCustomerChunk(job, ids.subList(from, Math.min(from + chunkSize, ids.size())), customerType);
+            }
+            return;
+        }
+        job.setTotal(customerRepository.countByCustomerType(request.getCurrentType()));
+        long lastId = 0L;
+        List<Long> chunk;
+        while (!(chunk = customerRepository.findIdsByCustomerTypeAfter(request.getCurrentType(), lastId,
+                PageRequest.of(0, chunkSize))).isEmpty()) {
+            updateCustomerChunk(job, chunk, customerType);
+            lastId = chunk.get(chunk.size() - 1);
+        }
+    }
+
+    // Snapshots the chunk first so the usual change events can keep the indexes in step;
+    // the events are published inside the chunk's transaction so that the outbox and
+    // the change feed commit with the update
+    private void updateCustomerChunk(BulkUpdateJob job, List<Long> ids, CustomerType customerType) {
+        int updated = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Customer> changing = new ArrayList<>();
+            for (Customer customer : customerRepository.findAllForUpdate(ids)) {
+                if (customer.getCustomerType() != customerType) {
+                    changing.add(new Customer(customer));
+                }
+            }
+            if (changing.isEmpty()) {
+                return 0;
+            }
+            int count = customerRepository.updateCustomerType(changing.stream().map(Customer::getId).toList(),
+                    customerType);
+            for (Customer previous : changing) {
+                Customer current = new Customer(previous);
+                current.setCustomerType(customerType);
+                eventPublisher.publishEvent(CustomerChangedEvent.updated(previous, current));
+            }
+            return count;
+        });
+        job.setUpdated(job.getUpdated() + updated);
+        job.setProcessed(job.getProcessed() + ids.size());
+    }
+
+    private void runInteractionUpdate(BulkUpdateJob job, InteractionBulkUpdateRequest request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Long> ids = sortedDistinct(request.getIds());
+            job.setTotal(ids.size());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                updateInteractionChunk(job, ids.subList(from, Math.min(from + chunkSize, ids.size())), request);
+            }
+            return;
+        }
+        job.setTotal(interactionRepository.countForBulkUpdate(request.getCurrentStatus(), request.getCustomerId(),
+                request.getOlderThan()));
+        long lastId = 0L;
+        List<Long> chunk;
+        while (!(chunk = interactionRepository.findIdsForBulkUpdate(request.getCurrentStatus(),
+                request.getCustomerId(), request.getOlderThan(), lastId, PageRequest.of(0, chunkSize))).isEmpty()) {
+            updateInteractionChunk(job, chunk, request);
+            lastId = chunk.get(chunk.size() - 1);
+        }
+    }
+
+    // Set-based updates bypass InteractionService, so the chunk publishes the same
+    // per-row change events itself, from the locked before-images
+    private void updateInteractionChunk(BulkUpdateJob job, List<Long> ids, InteractionBulkUpdateRequest request) {
+        InteractionStatus target = request.getStatus();
+        int updated = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Interaction> changing = new ArrayList<>();
+            for (Interaction interaction : interactionRepository.findAllForUpdate(ids)) {
+                if (interaction.getStatus() != target) {
+                    changing.add(new Interaction(interaction));
+                }
+            }
+            if (changing.isEmpty()) {
+                return 0;
+            }
+            int count = interactionRepository.updateStatus(changing.stream().map(Interaction::getId).toList(), target);
+            for (Interaction previous : changing) {
+                Interaction current = new Interaction(previous);
+                current.setStatus(target);
+                eventPublisher.publishEvent(InteractionChangedEvent.updated(previous, current));
+            }
+            return count;
+        });
+        job.setUpdated(job.getUpdated() + updated);
+        job.setProcessed(job.getProcessed() + ids.size());
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() != null
+                && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static List<Long> sortedDistinct(List<Long> ids) {
+        return ids.stream().filter(id -> id != null).distinct().sorted().toList();
+    }
+}
@@ -0,0 +1,291 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.exception.ChangesExpiredException;
+import com.examly.springapp.exception.WritesSuspendedException;
+import com.examly.springapp.model.ChangeLogEntry;
+import com.examly.springapp.model.ChangeSequence;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.repository.ChangeLogRepository;
+import com.examly.springapp.repository.ChangeSequenceRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only change feed of customer and interaction writes. Entries are
+ * numbered just before commit from a counter row whose lock is held until the
+ * commit, so sequence order is commit order and a client can resume from the
+ * last seq it processed without missing or reordering anything. The change's
+ * outbox row is written here too, with the same seq, so the webhook relay
+ * reads in commit order as well.
+ *
+ * That ordering costs throughput: from numbering to commit a transaction
+ * holds the one counter row, so customer and interaction writers commit one
+ * at a time. A transaction's changes are collected as they are published and
+ * take one block of seqs with a single increment, so a bulk chunk queues for
+ * the counter once rather than once per row. The lock still spans the
+ * chunk's feed and outbox inserts and its commit.
+ *
+ * A snapshot restore suspends writes on this instance, then empties the feed
+ * and skips one seq: a cursor from before the restore is then behind the
+ * oldest entry, or behind the head of an empty feed, and gets
+ * ChangesExpiredException. The outbox drops its undelivered events and carries
+ * a RESTORED notice at the skipped seq instead.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private static final String SEQUENCE = "change_log";
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ChangeSequenceRepository changeSequenceRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.changes.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${app.changes.purge-chunk-size:5000}")
+    private int purgeChunkSize;
+
+    private volatile boolean writesSuspended;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSequence() {
+        if (changeSequenceRepository.existsById(SEQUENCE)) {
+            return;
+        }
+        Long maxSeq = changeLogRepository.findMaxSeq();
+        try {
+            changeSequenceRepository.save(new ChangeSequence(SEQUENCE, maxSeq != null ? maxSeq : 0L));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+        }
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        Object row = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+        collect(new PendingChange(ChangeLogEntry.CUSTOMER, event.getCustomerId(), event.getCustomerId(),
+                event.getType(), row));
+    }
+
+    @EventListener
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        Interaction row = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+        collect(new PendingChange(ChangeLogEntry.INTERACTION, event.getInteractionId(),
+                row != null ? row.getCustomerId() : null, event.getType(), row));
+    }
+
+    /**
+     * Up to limit entries after since, with the head of the feed. Clients
+     * continue from nextSince; hasMore says whether to ask again right away.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getChanges(long since, int limit) {
+        long head = getHead();
+        // An empty feed retains nothing before the next seq
+        Long oldest = changeLogRepository.findMinSeq();
+        if (oldest == null) {
+            oldest = head + 1;
+        }
+        if (since < oldest - 1) {
+            throw new ChangesExpiredException("Changes after " + since + " are no longer retained; the oldest is "
+                    + oldest + ". Reload the full data set and continue from the returned head.", head);
+        }
+        List<ChangeLogEntry> changes = changeLogRepository.findBySeqGreaterThanOrderBySeqAsc(since,
+                PageRequest.of(0, limit));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("changes", changes);
+        result.put("nextSince", changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq());
+        result.put("hasMore", changes.size() == limit);
+        result.put("head", head);
+        return result;
+    }
+
+    /** The seq of the newest committed entry, 0 before the first. */
+    public long getHead() {
+        Long head = changeSequenceRepository.findLastSeq(SEQUENCE);
+        return head != null ? head : 0L;
+    }
+
+    /**
+     * Rejects customer, interaction and user writes from now on. Returns once
+     * the writes that were already holding the counter lock have committed.
+     */
+    public void suspendWrites() {
+        writesSuspended = true;
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> changeSequenceRepository.findForUpdate(SEQUENCE));
+    }
+
+    /**
+     * For writes that have no change feed entry (users): takes the counter lock
+     * for the rest of the caller's transaction, so suspendWrites waits for them
+     * too, and rejects the write while a restore is running.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void checkWritesAllowed() {
+        changeSequenceRepository.findForUpdate(SEQUENCE);
+        if (writesSuspended) {
+            throw new WritesSuspendedException("A snapshot restore is running; try again when it has finished");
+        }
+    }
+
+    /**
+     * After a restore: empties the feed, skips one seq so that every earlier
+     * cursor expires, replaces the undelivered outbox events with a RESTORED
+     * notice at that seq, and lets writes through again.
+     */
+    public void resetAfterRestore(String snapshot) {
+        try {
+            Long oldest;
+            while ((oldest = changeLogRepository.findMinSeq()) != null) {
+                changeLogRepository.deleteUpTo(oldest + purgeChunkSize - 1);
+            }
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (changeSequenceRepository.increment(SEQUENCE, 1) == 0) {
+                    throw new IllegalStateException("Change sequence " + SEQUENCE + " is missing");
+                }
+                Long seq = changeSequenceRepository.findLastSeq(SEQUENCE);
+                outboxService.replaceWithRestoreNotice(seq, toJson(Map.of("snapshot", snapshot)));
+                logger.info("Change feed reset after restoring {}; it continues after seq {}", snapshot, seq);
+            });
+        } finally {
+            writesSuspended = false;
+        }
+    }
+
+    @Scheduled(cron = "${app.changes.purge-cron:0 15 4 * * *}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long removed = 0;
+        List<Long> seqs;
+        while (!(seqs = changeLogRepository.findSeqsBefore(cutoff, PageRequest.of(0, purgeChunkSize))).isEmpty()) {
+            removed += changeLogRepository.deleteUpTo(seqs.get(seqs.size() - 1));
+        }
+        if (removed > 0) {
+            logger.info("Purged {} change feed entries older than {} days", removed, retentionDays);
+        }
+    }
+
+    // Queues the change on the current transaction, or appends it right away for a write made outside one
+    private void collect(PendingChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            append(List.of(change));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    // Joins the committing transaction, or opens one for writes made outside a transaction.
+    // The transaction's own writes are flushed first, so it holds their row locks before
+    // queueing for the counter and cannot deadlock against another writer.
+    private void append(List<PendingChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<String> payloads = changes.stream().map(change -> toJson(change.row())).toList();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            changeLogRepository.flush();
+            if (changeSequenceRepository.increment(SEQUENCE, changes.size()) == 0) {
+                throw new IllegalStateException("Change sequence " + SEQUENCE + " is missing");
+            }
+            // Checked under the counter lock, which suspendWrites waits for
+            if (writesSuspended) {
+                throw new WritesSuspendedException("A snapshot restore is running; try again when it has finished");
+            }
+            long seq = changeSequenceRepository.findLastSeq(SEQUENCE) - changes.size();
+            for (int i = 0; i < changes.size(); i++) {
+                PendingChange change = changes.get(i);
+                seq++;
+                changeLogRepository.save(new ChangeLogEntry(seq, change.entityType(), change.entityId(),
+                        change.customerId(), change.changeType(), payloads.get(i)));
+                outboxService.record(seq, change.entityType(), change.entityId(), change.customerId(),
+                        change.changeType(), payloads.get(i));
+            }
+        });
+    }
+
+    private record PendingChange(String entityType, Long entityId, Long customerId, ChangeType changeType,
+            Object row) {
+    }
+
+    // A transaction's changes, bound to it as a resource while it runs and numbered just before it
+    // commits. While a REQUIRES_NEW transaction runs, the suspended one's changes are set aside.
+    private final class PendingChanges implements TransactionSynchronization {
+        private final List<PendingChange> changes = new ArrayList<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ChangeFeedService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ChangeFeedService.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            append(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeFeedService.this);
+        }
+    }
+
+    private String toJson(Object row) {
+        try {
+            return objectMapper.writeValueAsString(row);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize change payload", e);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.ChurnScoreView;
+import com.examly.springapp.model.ArchivedInteractionCount;
+import com.examly.springapp.model.ChurnScore;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.ArchivedInteractionCountRepository;
+import com.examly.springapp.repository.ChurnScoreRepository;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.util.IdSlices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Nightly churn-risk scoring. Each worker streams the interaction history of
+ * its customer id slice in (customerId, interactionDate) order and folds it
+ * one customer at a time, so memory per worker stays constant: the current
+ * customer's counters plus one buffer of scores. The slice is read in
+ * sub-ranges, each in its own read-only transaction, and scores are written
+ * in separate short transactions. Archived interactions are folded in from
+ * archived_interaction_counts, read once per sub-range.
+ */
+@Service
+public class ChurnScoringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChurnScoringService.class);
+
+    // Score weights; they add up to 1
+    private static final double COMPLAINT_WEIGHT = 0.4;
+    private static final double RECENCY_WEIGHT = 0.4;
+    private static final double UNRESOLVED_WEIGHT = 0.2;
+
+    // This many unresolved items count as the full unresolved signal
+    private static final int UNRESOLVED_CAP = 5;
+
+    private static final Set<InteractionStatus> UNRESOLVED_STATUSES =
+            Set.of(InteractionStatus.OPEN, InteractionStatus.PENDING);
+
+    private static final Set<String> SORTABLE = Set.of(
+            "score", "complaintRatio", "daysSinceLastPurchase", "unresolvedItems");
+
+    @Autowired
+    private ChurnScoreRepository churnScoreRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private ArchivedInteractionCountRepository archivedCountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.churn.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.churn.threads:4}")
+    private int threads;
+
+    // Customer ids read per streaming transaction
+    @Value("${app.churn.scan-range:20000}")
+    private long scanRange;
+
+    @Value("${app.churn.write-batch-size:500}")
+    private int writeBatchSize;
+
+    // Days without a purchase at which the recency signal is at its maximum
+    @Value("${app.churn.recency-horizon-days:180}")
+    private int recencyHorizonDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${app.churn.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        if (enabled && rebuild() == null) {
+            logger.warn("Churn scoring is still running; skipping the scheduled run");
+        }
+    }
+
+    /** Rescores every customer with history; returns null when a run is already active. */
+    public Map<String, Object> rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return scoreAll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ChurnScoreView> findCustomers(double minScore, CustomerType customerType, String sortBy, int limit) {
+        if (!SORTABLE.contains(sortBy)) {
+            throw new IllegalArgumentException("sort must be one of " + SORTABLE);
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, sortBy).and(Sort.by(Sort.Direction.ASC, "customerId"));
+        return churnScoreRepository.findViews(minScore, customerType, PageRequest.of(0, limit, sort));
+    }
+
+    private Map<String, Object> scoreAll() {
+        long start = System.currentTimeMillis();
+        // Whole seconds so the stale-row cutoff survives column precision
+        LocalDateTime runStartedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Long maxId = customerRepository.findMaxId();
+        long scored = 0;
+        if (maxId != null) {
+            for (long count : IdSlices.run(maxId, threads, "Churn scoring",
+                    (from, to) -> scoreSlice(from, to, runStartedAt))) {
+                scored += count;
+            }
+        }
+        int removed = churnScoreRepository.deleteScoredBefore(runStartedAt);
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Churn scores computed for {} customers ({} stale removed) in {} ms", scored, removed, elapsed);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("customers", scored);
+        result.put("staleRemoved", removed);
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    private long scoreSlice(long fromExclusive, long toInclusive, LocalDateTime scoredAt) {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        LocalDate today = scoredAt.toLocalDate();
+        long scored = 0;
+        for (long from = fromExclusive; from < toInclusive; from += scanRange) {
+            long to = Math.min(from + scanRange, toInclusive);
+            long rangeFrom = from;
+            Long count = read.execute(status -> {
+                List<ChurnScore> buffer = new ArrayList<>(writeBatchSize);
+                // Archived interactions arrive as per-customer totals, merged in id order
+                Iterator<List<ArchivedInteractionCount>> archived = archivedByCustomer(rangeFrom, to).iterator();
+                List<ArchivedInteractionCount> nextArchived = archived.hasNext() ? archived.next() : null;
+                Features current = null;
+                long rangeScored = 0;
+                try (Stream<Object[]> rows = interactionRepository.streamHistoryInRange(rangeFrom, to)) {
+                    for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                        Long customerId = (Long) row[0];
+                        if (current == null || !current.customerId.equals(customerId)) {
+                            if (current != null) {
+                                rangeScored += add(buffer, current.toScore(today, scoredAt), write);
+                            }
+                            while (nextArchived != null && nextArchived.get(0).getCustomerId() < customerId) {
+                                rangeScored += add(buffer, new Features(nextArchived).toScore(today, scoredAt), write);
+                                nextArchived = archived.hasNext() ? archived.next() : null;
+                            }
+                            if (nextArchived != null && nextArchived.get(0).getCustomerId().equals(customerId)) {
+                                current = new Features(nextArchived);
+                                nextArchived = archived.hasNext() ? archived.next() : null;
+                            } else {
+                                current = new Features(customerId);
+                            }
+                        }
+                        current.add((InteractionType) row[1], (InteractionStatus) row[2], (LocalDateTime) row[3]);
+                    }
+                }
+                if (current != null) {
+                    rangeScored += add(buffer, current.toScore(today, scoredAt), write);
+                }
+                while (nextArchived != null) {
+                    rangeScored += add(buffer, new Features(nextArchived).toScore(today, scoredAt), write);
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                flush(write, buffer);
+                return rangeScored;
+            });
+            scored += count;
+        }
+        return scored;
+    }
+
+    private int add(List<ChurnScore> buffer, ChurnScore score, TransactionTemplate write) {
+        buffer.add(score);
+        if (buffer.size() >= writeBatchSize) {
+            flush(write, buffer);
+        }
+        return 1;
+    }
+
+    // The archived totals of the range's customers, grouped per customer in id order
+    private Collection<List<ArchivedInteractionCount>> archivedByCustomer(long afterId, long maxId) {
+        Map<Long, List<ArchivedInteractionCount>> byCustomer = new LinkedHashMap<>();
+        for (ArchivedInteractionCount count : archivedCountRepository.findInRange(afterId, maxId)) {
+            byCustomer.computeIfAbsent(count.getCustomerId(), id -> new ArrayList<>()).add(count);
+        }
+        return byCustomer.values();
+    }
+
+    private void flush(TransactionTemplate write, List<ChurnScore> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        write.executeWithoutResult(status -> {
+            churnScoreRepository.deleteByCustomerIds(buffer.stream().map(ChurnScore::getCustomerId).toList());
+            churnScoreRepository.saveAll(buffer);
+        });
+        buffer.clear();
+    }
+
+    private double score(long interactions, long complaints, long unresolved, Integer daysSinceLastPurchase) {
+        double complaintRatio = interactions == 0 ? 0 : (double) complaints / interactions;
+        double recency = daysSinceLastPurchase == null ? 1
+                : (double) Math.min(daysSinceLastPurchase, recencyHorizonDays) / recencyHorizonDays;
+        double backlog = (double) Math.min(unresolved, UNRESOLVED_CAP) / UNRESOLVED_CAP;
+        double score = 100 * (COMPLAINT_WEIGHT * complaintRatio + RECENCY_WEIGHT * recency + UNRESOLVED_WEIGHT * backlog);
+        return Math.round(score * 10) / 10.0;
+    }
+
+    // Running counters for the customer currently being read
+    private final class Features {
+        private final Long customerId;
+        private long interactions;
+        private long complaints;
+        private long unresolved;
+        private LocalDateTime lastPurchase;
+
+        Features(Long customerId) {
+            this.customerId = customerId;
+        }
+
+        // Starts from the customer's archived totals
+        Features(List<ArchivedInteractionCount> archived) {
+            this(archived.get(0).getCustomerId());
+            for (ArchivedInteractionCount count : archived) {
+                interactions += count.getCount();
+                if (count.getInteractionType() == InteractionType.COMPLAINT) {
+                    complaints += count.getCount();
+                }
+                if (UNRESOLVED_STATUSES.contains(count.getStatus())) {
+                    unresolved += count.getCount();
+                }
+                if (count.getInteractionType() == InteractionType.PURCHASE) {
+                    latestPurchase(count.getLastInteractionDate());
+                }
+            }
+        }
+
+        void add(InteractionType type, InteractionStatus status, LocalDateTime date) {
+            interactions++;
+            if (type == InteractionType.COMPLAINT) {
+                complaints++;
+            }
+            if (UNRESOLVED_STATUSES.contains(status)) {
+                unresolved++;
+            }
+            if (type == InteractionType.PURCHASE) {
+                latestPurchase(date);
+            }
+        }
+
+        // Live rows arrive in date order, but an archived purchase may be later than an open live one
+        private void latestPurchase(LocalDateTime date) {
+            if (date != null && (lastPurchase == null || date.isAfter(lastPurchase))) {
+                lastPurchase = date;
+            }
+        }
+
+        ChurnScore toScore(LocalDate today, LocalDateTime scoredAt) {
+            Integer days = lastPurchase == null ? null
+                    : (int) Math.max(0, ChronoUnit.DAYS.between(lastPurchase.toLocalDate(), today));
+            ChurnScore churnScore = new ChurnScore(customerId);
+            churnScore.setInteractions(interactions);
+            churnScore.setComplaintRatio(interactions == 0 ? 0 : (double) complaints / interactions);
+            churnScore.setDaysSinceLastPurchase(days);
+            churnScore.setUnresolvedItems(unresolved);
+            churnScore.setScore(score(interactions, complaints, unresolved, days));
+            churnScore.setScoredAt(scoredAt);
+            return churnScore;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Registration-month cohorts against the month offset of their activity.
+ *
+ * Customers are held as two parallel arrays (id, cohort) sorted by id, and
+ * activity as distinct (customerId, month) pairs; cells are counted by a
+ * parallel pass over the pairs with a binary search per pair. Months before
+ * the current one cannot change any more, so they are computed once per
+ * month and cached; only the current month's column and cohort size are
+ * recomputed, at most once per app.analytics.cohorts.current-month-ttl-seconds.
+ */
+@Service
+public class CohortAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CohortAnalysisService.class);
+
+    private static final int PAIRS_PER_TASK = 50_000;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Number of cohorts, the current month included
+    @Value("${app.analytics.cohorts.months:12}")
+    private int months;
+
+    @Value("${app.analytics.cohorts.current-month-ttl-seconds:60}")
+    private long currentMonthTtlSeconds;
+
+    @Value("${app.analytics.cohorts.batch-size:5000}")
+    private int batchSize;
+
+    private ClosedMonths closedMonths;
+
+    private CurrentMonth currentMonth;
+
+    public synchronized Map<String, Object> getCohorts() {
+        YearMonth now = YearMonth.now();
+        if (closedMonths == null || !closedMonths.month().equals(now)) {
+            closedMonths = buildClosedMonths(now);
+            currentMonth = null;
+        }
+        if (currentMonth == null
+                || currentMonth.refreshedAt().isBefore(LocalDateTime.now().minusSeconds(currentMonthTtlSeconds))) {
+            currentMonth = buildCurrentMonth(closedMonths);
+        }
+
+        List<Map<String, Object>> cohorts = new ArrayList<>();
+        for (int cohort = 0; cohort < months; cohort++) {
+            int offsets = months - cohort;
+            long[] active = Arrays.copyOf(closedMonths.active()[cohort], offsets);
+            active[offsets - 1] = currentMonth.active()[cohort];
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("cohort", closedMonths.first().plusMonths(cohort).toString());
+            row.put("customers", cohort == months - 1 ? currentMonth.customers() : closedMonths.cohortSizes()[cohort]);
+            row.put("active", active);
+            cohorts.add(row);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cohorts", cohorts);
+        result.put("closedMonthsComputedAt", closedMonths.computedAt());
+        result.put("currentMonthRefreshedAt", currentMonth.refreshedAt());
+        return result;
+    }
+
+    private ClosedMonths buildClosedMonths(YearMonth now) {
+        long start = System.currentTimeMillis();
+        YearMonth first = now.minusMonths(months - 1);
+        Registrations registrations = loadRegistrations(first, first);
+        long[] cohortSizes = new long[months];
+        for (int cohort : registrations.cohorts()) {
+            cohortSizes[cohort]++;
+        }
+        ActivityPairs pairs = loadActivity(first, first.atDay(1).atStartOfDay(), now.atDay(1).atStartOfDay());
+        long[][] active = aggregate(registrations, pairs);
+        logger.info("Cohorts for {} to {} computed from {} customers and {} activity pairs in {} ms",
+                first, now.minusMonths(1), registrations.ids().length, pairs.size, System.currentTimeMillis() - start);
+        return new ClosedMonths(now, first, registrations, cohortSizes, active, LocalDateTime.now());
+    }
+
+    // Only customers registered this month and this month's activity are read
+    private CurrentMonth buildCurrentMonth(ClosedMonths closed) {
+        YearMonth now = closed.month();
+        Registrations newCustomers = loadRegistrations(closed.first(), now);
+        ActivityPairs pairs = loadActivity(closed.first(), now.atDay(1).atStartOfDay(),
+                now.plusMonths(1).atDay(1).atStartOfDay());
+        long[] column = new long[months];
+        for (int i = 0; i < pairs.size; i++) {
+            int cohort = cohortOf(closed.registrations(), pairs.ids[i]);
+            if (cohort < 0 && Arrays.binarySearch(newCustomers.ids(), pairs.ids[i]) >= 0) {
+                cohort = months - 1;
+            }
+            if (cohort >= 0 && cohort < months) {
+                column[cohort]++;
+            }
+        }
+        return new CurrentMonth(newCustomers.ids().length, column, LocalDateTime.now());
+    }
+
+    // Registrations since the first day of from, as id-sorted arrays of (id, cohort)
+    private Registrations loadRegistrations(YearMonth first, YearMonth from) {
+        long[] ids = new long[1024];
+        int[] cohorts = new int[1024];
+        int size = 0;
+        long lastId = 0L;
+        List<Object[]> batch;
+        do {
+            batch = customerRepository.findRegistrationsSince(from.atDay(1), lastId, PageRequest.of(0, batchSize));
+            for (Object[] row : batch) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    cohorts = Arrays.copyOf(cohorts, size * 2);
+                }
+                lastId = (Long) row[0];
+                ids[size] = lastId;
+                cohorts[size] = monthsBetween(first, YearMonth.from((LocalDate) row[1]));
+                size++;
+            }
+        } while (batch.size() == batchSize);
+        return new Registrations(Arrays.copyOf(ids, size), Arrays.copyOf(cohorts, size));
+    }
+
+    private ActivityPairs loadActivity(YearMonth first, LocalDateTime from, LocalDateTime to) {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        ActivityPairs pairs = new ActivityPairs();
+        read.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = interactionRepository.streamActiveMonths(from, to)) {
+                rows.forEach(row -> pairs.add((Long) row[0],
+                        monthsBetween(first, YearMonth.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue()))));
+            }
+        });
+        return pairs;
+    }
+
+    // cells[cohort][offset]: customers of the cohort active offset months after registering
+    private long[][] aggregate(Registrations registrations, ActivityPairs pairs) {
+        int tasks = Math.max(1, pairs.size / PAIRS_PER_TASK + 1);
+        return IntStream.range(0, tasks).parallel()
+                .mapToObj(task -> {
+                    long[][] cells = new long[months][months];
+                    int end = Math.min(pairs.size, (task + 1) * PAIRS_PER_TASK);
+                    for (int i = task * PAIRS_PER_TASK; i < end; i++) {
+                        int cohort = cohortOf(registrations, pairs.ids[i]);
+                        int offset = pairs.months[i] - cohort;
+                        if (cohort >= 0 && offset >= 0 && cohort + offset < months) {
+                            cells[cohort][offset]++;
+                        }
+                    }
+                    return cells;
+                })
+                .reduce((left, right) -> {
+                    for (int cohort = 0; cohort < months; cohort++) {
+                        for (int offset = 0; offset < months; offset++) {
+                            left[cohort][offset] += right[cohort][offset];
+                        }
+                    }
+                    return left;
+                })
+                .orElseGet(() -> new long[months][months]);
+    }
+
+    private static int cohortOf(Registrations registrations, long customerId) {
+        int index = Arrays.binarySearch(registrations.ids(), customerId);
+        return index >= 0 ? registrations.cohorts()[index] : -1;
+    }
+
+    private static int monthsBetween(YearMonth first, YearMonth month) {
+        return (month.getYear() - first.getYear()) * 12 + month.getMonthValue() - first.getMonthValue();
+    }
+
+    private record Registrations(long[] ids, int[] cohorts) {
+    }
+
+    private record ClosedMonths(YearMonth month, YearMonth first, Registrations registrations, long[] cohortSizes,
+            long[][] active, LocalDateTime computedAt) {
+    }
+
+    private record CurrentMonth(long customers, long[] active, LocalDateTime refreshedAt) {
+    }
+
+    // Growable (customerId, month) columns
+    private static final class ActivityPairs {
+        private long[] ids = new long[1024];
+        private int[] months = new int[1024];
+        private int size;
+
+        void add(long customerId, int month) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                months = Arrays.copyOf(months, size * 2);
+            }
+            ids[size] = customerId;
+            months[size] = month;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Removes customers together with their interaction history using bounded
+ * set-based DELETE statements, each in its own short transaction, so deleting
+ * a customer with a large history never holds row locks for long. Only
+ * customers already marked deleted are purged: the mark hides the row and
+ * rejects new interactions, so the chunks run without locking the customer.
+ * The row is locked only in the final transaction, which removes whatever
+ * was inserted meanwhile together with the row.
+ */
+@Service
+public class CustomerPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerPurgeService.class);
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.customers.soft-delete:false}")
+    private boolean softDelete;
+
+    @Value("${app.customers.delete-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.customers.purge-batch-size:100}")
+    private int purgeBatchSize;
+
+    @Value("${app.customers.purge-chunk-pause-ms:10}")
+    private long purgeChunkPauseMs;
+
+    // Hard deletes purge right after the mark commits; a failure leaves the mark
+    // for the background purger
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (softDelete || event.getType() != ChangeType.DELETED) {
+            return;
+        }
+        Long customerId = event.getCustomerId();
+        try {
+            purgeCustomer(customerId);
+        } catch (RuntimeException e) {
+            logger.warn("Purge of customer {} failed, retrying in the background: {}", customerId, e.getMessage());
+        }
+    }
+
+    public long purgeCustomer(Long customerId) {
+        return purgeCustomer(customerId, 0L);
+    }
+
+    /**
+     * Deletes the interactions of a customer marked deleted chunk by chunk, then
+     * the customer row. Every step runs in a new transaction; returns -1 if the
+     * customer is not marked deleted.
+     */
+    public long purgeCustomer(Long customerId, long pauseBetweenChunksMs) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (transaction.execute(status -> customerRepository.findDeletedRowById(customerId)).isEmpty()) {
+            return -1;
+        }
+        long removed = 0;
+        int deleted;
+        while ((deleted = transaction.execute(chunk -> {
+            List<Long> ids = interactionRepository.findIdsByCustomerId(customerId, PageRequest.of(0, chunkSize));
+            return ids.isEmpty() ? 0 : interactionRepository.deleteByIds(ids);
+        })) > 0) {
+            removed += deleted;
+            pause(pauseBetweenChunksMs);
+        }
+        return removed + transaction.execute(status -> {
+            // Inserts that passed their customer check before the mark committed need
+            // this row, so they either finished already or fail once it is gone
+            if (customerRepository.lockDeletedRowById(customerId).isEmpty()) {
+                return 0;
+            }
+            int late = interactionRepository.deleteByCustomerId(customerId);
+            customerRepository.deleteRowById(customerId);
+            return late;
+        });
+    }
+
+    // Background purger for soft-deleted customers
+    @Scheduled(fixedDelayString = "${app.customers.purge-interval-ms:60000}")
+    public void purgeSoftDeleted() {
+        List<Long> ids = customerRepository.findSoftDeletedIds(purgeBatchSize);
+        for (Long id : ids) {
+            long removed = purgeCustomer(id, purgeChunkPauseMs);
+            if (removed < 0) {
+                continue;
+            }
+            logger.info("Purged soft-deleted customer {} with {} interactions", id, removed);
+        }
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
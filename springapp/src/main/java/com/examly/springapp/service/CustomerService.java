@@ -1,28 +1,131 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CustomerOverview;
+import com.examly.springapp.dto.CustomerView;
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.event.CustomerChangedEvent;
 import com.examly.springapp.exception.CustomerAlreadyExistsException;
 import com.examly.springapp.exception.CustomerNotFoundException;
+import com.examly.springapp.index.EmailIndex;
+import com.examly.springapp.index.PhoneNumberIndex;
 import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.CustomerType;
 import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class CustomerService {
 
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PhoneNumberIndex phoneNumberIndex;
+
+    @Autowired
+    private EmailIndex emailIndex;
+
+    // Transactional so that the outbox row commits with the customer
+    @Transactional
     public Customer createCustomer(Customer customer) {
-        if (customerRepository.existsByEmail(customer.getEmail())) {
+        // The email index answers the common "definitely new" case without a query
+        if (emailIndex.mightExist(customer.getEmail()) && customerRepository.existsByEmail(customer.getEmail())) {
             throw new CustomerAlreadyExistsException("Customer with email " + customer.getEmail() + " already exists");
         }
-        return customerRepository.save(customer);
+        Customer savedCustomer = saveCustomer(customer);
+        eventPublisher.publishEvent(CustomerChangedEvent.created(savedCustomer));
+        return savedCustomer;
     }
 
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    // Read paths return projections; the entity getters below are for writes
+    @Transactional(readOnly = true)
+    public List<CustomerView> getAllCustomers() {
+        return customerRepository.findAllViews();
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerView getCustomerViewById(Long id) {
+        return customerRepository.findViewById(id)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer with id " + id + " not found"));
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerView getCustomerByPhone(String phoneNumber) {
+        Long id = phoneNumberIndex.lookup(phoneNumber);
+        if (id == null) {
+            throw new CustomerNotFoundException("Customer with phone number " + phoneNumber + " not found");
+        }
+        return getCustomerViewById(id);
+    }
+
+    // Two indexed queries regardless of history size: the grouped live counts and the
+    // archived counts joined to the customer row, and the latest interactions. Archived
+    // history is older than the live rows, so it only adds to the counts
+    @Transactional(readOnly = true)
+    public CustomerOverview getCustomerOverview(Long id, int recentLimit) {
+        List<Object[]> rows = customerRepository.findInteractionStatsById(id);
+        if (rows.isEmpty()) {
+            throw new CustomerNotFoundException("Customer with id " + id + " not found");
+        }
+        Object[] first = rows.get(0);
+        CustomerView customer = new CustomerView((Long) first[0], (String) first[1], (String) first[2],
+                (String) first[3], (String) first[4], (CustomerType) first[5], (LocalDate) first[6]);
+
+        long total = 0;
+        LocalDateTime lastContact = null;
+        Map<String, Long> byType = new TreeMap<>();
+        Map<String, Long> byStatus = new TreeMap<>();
+        for (Object[] row : rows) {
+            long count = ((Number) row[9]).longValue();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            byType.merge(String.valueOf(row[7]), count, Long::sum);
+            byStatus.merge(String.valueOf(row[8]), count, Long::sum);
+            LocalDateTime latest = (LocalDateTime) row[10];
+            if (latest != null && (lastContact == null || latest.isAfter(lastContact))) {
+                lastContact = latest;
+            }
+        }
+
+        List<InteractionView> recent = total == 0 ? List.of()
+                : interactionRepository.findRecentViewsByCustomerId(id, PageRequest.of(0, recentLimit));
+        return new CustomerOverview(customer, total, byType, byStatus, lastContact, recent);
+    }
+
+    /**
+     * Fills in normalized_phone for up to batchSize rows after afterId that predate the
+     * column. Returns the last id it visited, or -1 when no such rows are left.
+     */
+    @Transactional
+    public long backfillNormalizedPhones(long afterId, int batchSize) {
+        List<Customer> batch = customerRepository.findWithoutNormalizedPhone(afterId, PageRequest.of(0, batchSize));
+        for (Customer customer : batch) {
+            // The setter derives the normalized form; numbers without digits get "" and are not selected again
+            customer.setPhoneNumber(customer.getPhoneNumber());
+        }
+        return batch.isEmpty() ? -1 : batch.get(batch.size() - 1).getId();
     }
 
     public Customer getCustomerById(Long id) {
@@ -34,11 +137,14 @@ public class CustomerService {
         return customerRepository.existsById(id);
     }
 
+    @Transactional
     public Customer updateCustomer(Long id, Customer customerDetails) {
         Customer existingCustomer = getCustomerById(id);
+        Customer previous = new Customer(existingCustomer);
 
         // Check if email is being changed and if new email already exists
         if (!existingCustomer.getEmail().equals(customerDetails.getEmail()) &&
+                emailIndex.mightExist(customerDetails.getEmail()) &&
                 customerRepository.existsByEmail(customerDetails.getEmail())) {
             throw new CustomerAlreadyExistsException(
                     "Customer with email " + customerDetails.getEmail() + " already exists");
@@ -51,15 +157,48 @@ public class CustomerService {
         existingCustomer.setPhoneNumber(customerDetails.getPhoneNumber());
         existingCustomer.setCustomerType(customerDetails.getCustomerType());
 
-        return customerRepository.save(existingCustomer);
+        Customer updatedCustomer = saveCustomer(existingCustomer);
+        eventPublisher.publishEvent(CustomerChangedEvent.updated(previous, updatedCustomer));
+        return updatedCustomer;
     }
 
+    // One transaction for both modes, so the outbox and change feed rows commit with the delete
+    @Transactional
     public void deleteCustomer(Long id) {
-        if (!customerRepository.existsById(id)) {
-            throw new CustomerNotFoundException("Customer with id " + id + " not found");
+        Customer existingCustomer = getCustomerById(id);
+        // Hidden from now on and commits with the change events; CustomerPurgeService
+        // removes the rows right after the commit, or in the background with soft deletes
+        customerRepository.markDeleted(id, LocalDateTime.now());
+        eventPublisher.publishEvent(CustomerChangedEvent.deleted(existingCustomer));
+    }
+
+    // The unique constraint on email is the final arbiter; concurrent inserts that
+    // both passed the pre-check end up here. Any other violation is not a conflict.
+    private Customer saveCustomer(Customer customer) {
+        try {
+            // Flushed here so that a duplicate email surfaces inside the try
+            return customerRepository.saveAndFlush(customer);
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesEmailConstraint(e)) {
+                throw e;
+            }
+            throw new CustomerAlreadyExistsException("Customer with email " + customer.getEmail() + " already exists");
+        }
+    }
+
+    // MySQL reports error 1062 (SQLState 23000), H2 and others SQLState 23505. The key name
+    // is not checked: databases created with ddl-auto=update before the constraint was named
+    // still carry the auto-named unique index, and MySQL may report the duplicate under it.
+    // Email is the only unique key of customers besides the generated id, so a duplicate key
+    // while flushing a customer is a duplicate email; not-null and foreign key violations
+    // share SQLState 23000 in MySQL but have their own error codes.
+    private static boolean violatesEmailConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql
+                    && (sql.getErrorCode() == MYSQL_DUPLICATE_KEY || "23505".equals(sql.getSQLState()))) {
+                return true;
+            }
         }
-        // The cascade delete for interactions is handled by the @OneToMany relationship
-        // with cascade = CascadeType.ALL in the Customer entity
-        customerRepository.deleteById(id);
+        return false;
     }
 }
\ No newline at end of file
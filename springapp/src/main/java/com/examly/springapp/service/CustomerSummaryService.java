@@ -0,0 +1,211 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.CustomerSummaryView;
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.model.CustomerSummary;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.CustomerSummaryRepository;
+import com.examly.springapp.util.IdSlices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the customer_summary read model. Interaction writes apply counter
+ * deltas in their own transaction; anything written around InteractionService
+ * (bulk updates, imports) is brought back in line with refresh or rebuild.
+ */
+@Service
+public class CustomerSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSummaryService.class);
+
+    // Complaints in these states count as open
+    static final Set<InteractionStatus> OPEN_STATUSES =
+            EnumSet.of(InteractionStatus.OPEN, InteractionStatus.IN_PROGRESS, InteractionStatus.PENDING);
+
+    private static final Set<String> SORTABLE = Set.of(
+            "lastInteractionDate", "totalInteractions", "purchases", "openComplaints");
+
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.summary.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${app.summary.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    // Runs inside InteractionService's transaction, so the summary commits with the change
+    @EventListener
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        Interaction before = event.getPrevious();
+        Interaction after = event.getCurrent();
+        if (before != null && after != null && !before.getCustomerId().equals(after.getCustomerId())) {
+            apply(before.getCustomerId(), before, null);
+            apply(after.getCustomerId(), null, after);
+            return;
+        }
+        Long customerId = after != null ? after.getCustomerId() : before.getCustomerId();
+        apply(customerId, before, after);
+    }
+
+    // In the publisher's transaction, like onInteractionChanged
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getType() == ChangeType.CREATED) {
+            if (!customerSummaryRepository.existsById(event.getCustomerId())) {
+                customerSummaryRepository.save(new CustomerSummary(event.getCustomerId()));
+            }
+        } else if (event.getType() == ChangeType.DELETED) {
+            customerSummaryRepository.findById(event.getCustomerId()).ifPresent(customerSummaryRepository::delete);
+        }
+    }
+
+    /** Recomputes the summaries of the given customers from their live and archived interactions. */
+    @Transactional
+    public void refresh(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        Map<Long, CustomerSummary> summaries = new LinkedHashMap<>();
+        for (Long customerId : customerIds) {
+            summaries.put(customerId, new CustomerSummary(customerId));
+        }
+        addAggregates(summaries, customerSummaryRepository.aggregateByCustomerIds(customerIds,
+                InteractionType.PURCHASE, InteractionType.COMPLAINT, OPEN_STATUSES));
+        addAggregates(summaries, customerSummaryRepository.aggregateArchivedByCustomerIds(customerIds,
+                InteractionType.PURCHASE, InteractionType.COMPLAINT, OPEN_STATUSES));
+        customerSummaryRepository.saveAll(summaries.values());
+    }
+
+    private static void addAggregates(Map<Long, CustomerSummary> summaries, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            CustomerSummary summary = summaries.get((Long) row[0]);
+            summary.setTotalInteractions(summary.getTotalInteractions() + ((Number) row[1]).longValue());
+            summary.setPurchases(summary.getPurchases() + ((Number) row[2]).longValue());
+            summary.setComplaints(summary.getComplaints() + ((Number) row[3]).longValue());
+            summary.setOpenComplaints(summary.getOpenComplaints() + ((Number) row[4]).longValue());
+            LocalDateTime latest = (LocalDateTime) row[5];
+            if (latest != null && (summary.getLastInteractionDate() == null
+                    || latest.isAfter(summary.getLastInteractionDate()))) {
+                summary.setLastInteractionDate(latest);
+            }
+        }
+    }
+
+    /**
+     * Recomputes every summary. The customer id range is split into one slice
+     * per thread and each slice is processed in keyset-paged batches.
+     */
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        int removed = customerSummaryRepository.deleteOrphans();
+        Long maxId = customerRepository.findMaxId();
+        long rebuilt = 0;
+        if (maxId != null) {
+            for (long count : IdSlices.run(maxId, rebuildThreads, "Summary rebuild", this::rebuildRange)) {
+                rebuilt += count;
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Customer summaries rebuilt for {} customers ({} orphans removed) in {} ms", rebuilt, removed, elapsed);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("customers", rebuilt);
+        result.put("orphansRemoved", removed);
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    // First start after the table was added, after it was emptied by hand, or after a
+    // restore. Runs first so that read models seeded from the summary see complete rows
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuildIfEmpty() {
+        if (customerSummaryRepository.count() == 0 && customerRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerSummaryView> findCustomers(long minOpenComplaints, CustomerType customerType,
+            String sortBy, int limit) {
+        if (!SORTABLE.contains(sortBy)) {
+            throw new IllegalArgumentException("sort must be one of " + SORTABLE);
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, sortBy).and(Sort.by(Sort.Direction.ASC, "customerId"));
+        return customerSummaryRepository.findViews(minOpenComplaints, customerType, PageRequest.of(0, limit, sort));
+    }
+
+    private long rebuildRange(long fromExclusive, long toInclusive) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long count = 0;
+        long lastId = fromExclusive;
+        List<Long> ids;
+        while (!(ids = customerRepository.findIdsInRange(lastId, toInclusive,
+                PageRequest.of(0, rebuildBatchSize))).isEmpty()) {
+            List<Long> batch = ids;
+            transaction.executeWithoutResult(status -> refresh(batch));
+            count += batch.size();
+            lastId = batch.get(batch.size() - 1);
+        }
+        return count;
+    }
+
+    private void apply(Long customerId, Interaction removed, Interaction added) {
+        long total = (added != null ? 1 : 0) - (removed != null ? 1 : 0);
+        long purchases = isPurchase(added) - isPurchase(removed);
+        long complaints = isComplaint(added) - isComplaint(removed);
+        long openComplaints = isOpenComplaint(added) - isOpenComplaint(removed);
+        if (customerSummaryRepository.applyDelta(customerId, total, purchases, complaints, openComplaints) == 0) {
+            // No row yet (customer created around the service); compute it from scratch once
+            refresh(List.of(customerId));
+        }
+    }
+
+    private static int isPurchase(Interaction interaction) {
+        return interaction != null && interaction.getInteractionType() == InteractionType.PURCHASE ? 1 : 0;
+    }
+
+    private static int isComplaint(Interaction interaction) {
+        return interaction != null && interaction.getInteractionType() == InteractionType.COMPLAINT ? 1 : 0;
+    }
+
+    private static int isOpenComplaint(Interaction interaction) {
+        return isComplaint(interaction) == 1 && OPEN_STATUSES.contains(interaction.getStatus()) ? 1 : 0;
+    }
+}
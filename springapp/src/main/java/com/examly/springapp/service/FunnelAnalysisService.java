@@ -0,0 +1,158 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.util.IdSlices;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Ordered funnel matching over interaction histories. The customer id space
+ * is split into one slice per worker; each worker streams (customerId, type,
+ * date) tuples of the funnel's types in index order and advances a small
+ * per-customer state machine, so nothing but counters is kept in memory.
+ */
+@Service
+public class FunnelAnalysisService {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.analytics.funnel.threads:4}")
+    private int threads;
+
+    // Customer ids read per streaming transaction
+    @Value("${app.analytics.funnel.scan-range:50000}")
+    private long scanRange;
+
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void init() {
+        pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "funnel-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Number of customers that reached each step. Step k counts when an
+     * interaction of that type follows a step k-1 match by at most maxGap;
+     * interactions before since are ignored when since is given.
+     */
+    public long[] countSteps(List<InteractionType> steps, Duration maxGap, LocalDateTime since) {
+        long[] reached = new long[steps.size()];
+        Long maxId = customerRepository.findMaxId();
+        if (maxId == null) {
+            return reached;
+        }
+        InteractionType[] stepArray = steps.toArray(new InteractionType[0]);
+        EnumSet<InteractionType> types = EnumSet.copyOf(steps);
+        for (long[] counts : IdSlices.run(pool, maxId, threads, "Funnel analysis",
+                (from, to) -> scanSlice(from, to, stepArray, types, maxGap, since))) {
+            for (int k = 0; k < reached.length; k++) {
+                reached[k] += counts[k];
+            }
+        }
+        return reached;
+    }
+
+    private long[] scanSlice(long fromExclusive, long toInclusive, InteractionType[] steps,
+            EnumSet<InteractionType> types, Duration maxGap, LocalDateTime since) {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        FunnelMatcher matcher = new FunnelMatcher(steps, maxGap);
+        for (long from = fromExclusive; from < toInclusive; from += scanRange) {
+            long rangeFrom = from;
+            long rangeTo = Math.min(from + scanRange, toInclusive);
+            read.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = interactionRepository.streamTypedHistoryInRange(rangeFrom, rangeTo,
+                        types, since)) {
+                    rows.forEach(row -> matcher.accept((Long) row[0], (InteractionType) row[1],
+                            (LocalDateTime) row[2]));
+                }
+            });
+        }
+        return matcher.finish();
+    }
+
+    /**
+     * Greedy matcher for rows sorted by (customerId, date). For every step it
+     * keeps the latest time the step was reached: a later match leaves the most
+     * room for the next step's gap, so this finds a match whenever one exists.
+     */
+    static final class FunnelMatcher {
+        private final InteractionType[] steps;
+        private final Duration maxGap;
+        private final LocalDateTime[] reachedAt;
+        private final long[] reached;
+        private Long customerId;
+        private int depth;
+
+        FunnelMatcher(InteractionType[] steps, Duration maxGap) {
+            this.steps = steps;
+            this.maxGap = maxGap;
+            this.reachedAt = new LocalDateTime[steps.length];
+            this.reached = new long[steps.length];
+        }
+
+        void accept(Long customerId, InteractionType type, LocalDateTime date) {
+            if (!customerId.equals(this.customerId)) {
+                endCustomer();
+                this.customerId = customerId;
+            }
+            // Highest step first so one interaction never satisfies two consecutive steps
+            for (int k = steps.length - 1; k >= 0; k--) {
+                if (steps[k] != type) {
+                    continue;
+                }
+                boolean matched = k == 0
+                        || (reachedAt[k - 1] != null && !date.isAfter(reachedAt[k - 1].plus(maxGap)));
+                if (matched) {
+                    reachedAt[k] = date;
+                    depth = Math.max(depth, k + 1);
+                }
+            }
+        }
+
+        long[] finish() {
+            endCustomer();
+            return reached;
+        }
+
+        private void endCustomer() {
+            for (int k = 0; k < depth; k++) {
+                reached[k]++;
+            }
+            Arrays.fill(reachedAt, null);
+            depth = 0;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.model.ArchivedInteractionCount;
+import com.examly.springapp.model.ArchivedInteractionDay;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.ArchivedInteractionCountRepository;
+import com.examly.springapp.repository.ArchivedInteractionDayRepository;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.storage.ColumnarFile;
+import com.examly.springapp.storage.InteractionArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Moves closed-out interactions older than app.archive.age-days from the
+ * interactions table into the columnar InteractionArchive on local disk. Each
+ * chunk is its own short transaction: lock the rows, write and fsync the
+ * archive file, delete the rows, add them to archived_interaction_counts and
+ * archived_interaction_days, commit. Archiving is not a business delete, so no change events are
+ * published.
+ *
+ * An archived interaction is still part of its customer's history: reads,
+ * counts and customer summaries all cover both tiers, the counts and summaries
+ * through archived_interaction_counts rather than the files.
+ * When a row exists in both (a chunk whose delete rolled back), the database
+ * copy wins. Deleting a customer drops its counts in the same transaction;
+ * its rows stay in the files until the nightly run compacts them away, and
+ * until then every archived read filters them out against the customers
+ * table, soft-deleted customers included.
+ *
+ * Churn scoring adds archived_interaction_counts to the interactions table;
+ * the dated analytics jobs (tiering, cohorts, leaderboards, segments) add the
+ * archived_interaction_days inside their windows, so app.archive.age-days may
+ * be shorter than any of them. The funnel needs each customer's interactions
+ * in order and reads the interactions table only, so it looks back no further
+ * than app.archive.age-days.
+ */
+@Service
+public class InteractionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractionArchiveService.class);
+
+    private static final int LIVE_CHECK_BATCH = 1000;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ArchivedInteractionCountRepository archivedCountRepository;
+
+    @Autowired
+    private ArchivedInteractionDayRepository archivedDayRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.archive.dir:data/archive}")
+    private String dir;
+
+    @Value("${app.archive.age-days:90}")
+    private int ageDays;
+
+    @Value("${app.archive.statuses:RESOLVED,CLOSED}")
+    private String statusList;
+
+    @Value("${app.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.archive.row-group-size:1000}")
+    private int rowGroupSize;
+
+    private InteractionArchive archive;
+    private Set<InteractionStatus> statuses;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunArchived;
+    private volatile LocalDateTime lastCompactedAt;
+    private volatile long lastCompactionDropped;
+
+    @PostConstruct
+    public void open() throws IOException {
+        statuses = EnumSet.noneOf(InteractionStatus.class);
+        for (String status : statusList.split(",")) {
+            if (!status.isBlank()) {
+                statuses.add(InteractionStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        archive = InteractionArchive.open(Path.of(dir), rowGroupSize);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        archive.close();
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 0 5 * * *}")
+    public void scheduledRun() {
+        try {
+            archiveOlderThan(ageDays);
+        } catch (IllegalStateException e) {
+            logger.warn("Skipping scheduled archive run: {}", e.getMessage());
+        }
+        compact();
+    }
+
+    /** Rewrites the archive files without the rows of deleted customers; returns how many were dropped. */
+    public long compact() {
+        long dropped;
+        try {
+            dropped = archive.compact(customerIds -> new HashSet<>(customerRepository.findExistingIds(customerIds)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Compacting the archive failed", e);
+        }
+        lastCompactedAt = LocalDateTime.now();
+        lastCompactionDropped = dropped;
+        if (dropped > 0) {
+            logger.info("Compacted {} archived interactions of deleted customers", dropped);
+        }
+        return dropped;
+    }
+
+    /** Archives interactions older than the given number of days; returns how many were moved. */
+    public long archiveOlderThan(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Only interactions at least a day old can be archived");
+        }
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Archiving is already running");
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            long archived = 0;
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<Long> ids = transaction.execute(status -> moveChunk(from, cutoff));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                archived += ids.size();
+                afterId = ids.get(ids.size() - 1);
+            }
+            lastRunAt = LocalDateTime.now();
+            lastRunArchived = archived;
+            if (archived > 0) {
+                logger.info("Archived {} interactions older than {} days", archived, days);
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<Long> moveChunk(long afterId, LocalDateTime cutoff) {
+        List<Interaction> chunk = interactionRepository.findArchivable(afterId, cutoff, statuses,
+                PageRequest.of(0, chunkSize));
+        List<InteractionView> rows = new ArrayList<>(chunk.size());
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (Interaction interaction : chunk) {
+            rows.add(new InteractionView(interaction.getId(), interaction.getCustomerId(),
+                    interaction.getInteractionType(), interaction.getDescription(), interaction.getStatus(),
+                    interaction.getInteractionDate(), interaction.getSlaBreachedAt()));
+            ids.add(interaction.getId());
+        }
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        try {
+            archive.append(rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing archive chunk failed", e);
+        }
+        interactionRepository.deleteByIds(ids);
+        recordMoved(chunk);
+        return ids;
+    }
+
+    private void recordMoved(List<Interaction> chunk) {
+        Map<Long, List<ArchivedInteractionCount>> byCustomer = new HashMap<>();
+        for (ArchivedInteractionCount count : archivedCountRepository.findByCustomerIdIn(
+                chunk.stream().map(Interaction::getCustomerId).distinct().toList())) {
+            byCustomer.computeIfAbsent(count.getCustomerId(), id -> new ArrayList<>()).add(count);
+        }
+        for (Interaction interaction : chunk) {
+            List<ArchivedInteractionCount> counts = byCustomer.computeIfAbsent(interaction.getCustomerId(),
+                    id -> new ArrayList<>());
+            ArchivedInteractionCount count = counts.stream()
+                    .filter(candidate -> candidate.getInteractionType() == interaction.getInteractionType()
+                            && candidate.getStatus() == interaction.getStatus())
+                    .findFirst()
+                    .orElseGet(() -> {
+                        ArchivedInteractionCount created = new ArchivedInteractionCount(interaction.getCustomerId(),
+                                interaction.getInteractionType(), interaction.getStatus());
+                        counts.add(created);
+                        return created;
+                    });
+            count.add(interaction.getInteractionDate());
+        }
+        byCustomer.values().forEach(archivedCountRepository::saveAll);
+        recordMovedDays(chunk);
+    }
+
+    private void recordMovedDays(List<Interaction> chunk) {
+        List<LocalDate> dates = chunk.stream().map(interaction -> interaction.getInteractionDate().toLocalDate())
+                .sorted().toList();
+        Map<DayKey, ArchivedInteractionDay> byKey = new HashMap<>();
+        for (ArchivedInteractionDay day : archivedDayRepository.findByCustomerIdInAndActivityDateBetween(
+                chunk.stream().map(Interaction::getCustomerId).distinct().toList(),
+                dates.get(0), dates.get(dates.size() - 1))) {
+            byKey.put(new DayKey(day.getCustomerId(), day.getInteractionType(), day.getActivityDate()), day);
+        }
+        for (Interaction interaction : chunk) {
+            DayKey key = new DayKey(interaction.getCustomerId(), interaction.getInteractionType(),
+                    interaction.getInteractionDate().toLocalDate());
+            byKey.computeIfAbsent(key, created -> new ArchivedInteractionDay(key.customerId(), key.type(), key.date()))
+                    .add(interaction.getInteractionDate());
+        }
+        archivedDayRepository.saveAll(byKey.values());
+    }
+
+    private record DayKey(Long customerId, InteractionType type, LocalDate date) {
+    }
+
+    // In the deleting transaction, like the customer summary
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            archivedCountRepository.deleteByCustomerId(event.getCustomerId());
+            archivedDayRepository.deleteByCustomerId(event.getCustomerId());
+        }
+    }
+
+    public int getAgeDays() {
+        return ageDays;
+    }
+
+    // The files keep the rows of deleted customers; every read below drops them
+    public Optional<InteractionView> findById(long id) {
+        return archive.findById(id).filter(row -> customerRepository.existsById(row.customerId()))
+                .map(InteractionView::asArchived);
+    }
+
+    public List<InteractionView> findByCustomerId(long customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            return List.of();
+        }
+        return archive.findByCustomerId(customerId).stream().map(InteractionView::asArchived).toList();
+    }
+
+    /** Archived interactions of existing customers. */
+    public long count() {
+        return archivedCountRepository.sumCounts();
+    }
+
+    /** Whether the interaction is in the archive, without reading it. */
+    public boolean isArchived(long id) {
+        return archive.contains(id);
+    }
+
+    /**
+     * Archived interactions of existing customers with from <= interactionDate < to;
+     * both bounds are optional. Customers are checked once per batch of rows.
+     */
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<InteractionView> consumer) {
+        List<InteractionView> batch = new ArrayList<>(LIVE_CHECK_BATCH);
+        archive.scan(ColumnarFile.toMicros(from), ColumnarFile.toMicros(to), row -> {
+            batch.add(row);
+            if (batch.size() == LIVE_CHECK_BATCH) {
+                acceptLive(batch, consumer);
+            }
+        });
+        acceptLive(batch, consumer);
+    }
+
+    private void acceptLive(List<InteractionView> rows, Consumer<InteractionView> consumer) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<Long> live = new HashSet<>(customerRepository.findExistingIds(
+                rows.stream().map(InteractionView::customerId).distinct().toList()));
+        for (InteractionView row : rows) {
+            if (live.contains(row.customerId())) {
+                consumer.accept(row);
+            }
+        }
+        rows.clear();
+    }
+
+    /** Deletes the whole archive; used when a restore replaces the interactions. */
+    public void clear() throws IOException {
+        archive.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(archive.getStats());
+        stats.put("ageDays", ageDays);
+        stats.put("statuses", statuses);
+        stats.put("running", running.get());
+        stats.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("lastCompactedAt", lastCompactedAt != null ? lastCompactedAt.toString() : null);
+        stats.put("lastCompactionDropped", lastCompactionDropped);
+        return stats;
+    }
+}
@@ -1,17 +1,33 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.exception.ArchivedInteractionException;
 import com.examly.springapp.exception.CustomerNotFoundException;
 import com.examly.springapp.model.Customer;
 import com.examly.springapp.model.Interaction;
 import com.examly.springapp.model.InteractionStatus;
 import com.examly.springapp.repository.CustomerRepository;
 import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.storage.ColumnarWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
 public class InteractionService {
@@ -22,6 +38,15 @@ public class InteractionService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private InteractionArchiveService archiveService;
+
+    @Value("${app.export.row-group-size:10000}")
+    private int exportRowGroupSize;
+
     // public Interaction createInteraction(Interaction interaction) {
     //     // Handle both cases: when customerId is set directly or when customer object is
     //     // provided
@@ -46,6 +71,8 @@ public class InteractionService {
     //     return interactionRepository.save(interaction);
     // }
 
+    // Writes are transactional so that the customer summary listener commits with them
+    @Transactional
     public Interaction createInteraction(Interaction interaction) {
         // Verify customer exists
         if (interaction.getCustomerId() == null) {
@@ -61,47 +88,122 @@ public class InteractionService {
         customer.setId(interaction.getCustomerId());
         interaction.setCustomer(customer);
 
-        return interactionRepository.save(interaction);
+        Interaction saved = interactionRepository.saveAndFlush(interaction);
+        eventPublisher.publishEvent(InteractionChangedEvent.created(saved));
+        return saved;
     }
 
+    // Interactions of soft-deleted customers are hidden like the customers themselves
     public Interaction getInteractionById(Long id) {
         return interactionRepository.findById(id)
+                .filter(interaction -> customerRepository.existsById(interaction.getCustomerId()))
+                .orElseThrow(() -> archiveService.findById(id).isPresent()
+                        ? archived(id)
+                        : new RuntimeException("Interaction not found"));
+    }
+
+    // Falls back to the archive for interactions moved out of the table
+    @Transactional(readOnly = true)
+    public InteractionView getInteractionViewById(Long id) {
+        return interactionRepository.findViewById(id)
+                .or(() -> archiveService.findById(id))
+                .filter(view -> customerRepository.existsById(view.customerId()))
                 .orElseThrow(() -> new RuntimeException("Interaction not found"));
     }
 
+    @Transactional
     public Interaction updateInteraction(Long id, Interaction interactionDetails) {
         Interaction interaction = getInteractionById(id);
+        Interaction previous = new Interaction(interaction);
         // Update fields as needed
         interaction.setInteractionType(interactionDetails.getInteractionType());
         interaction.setDescription(interactionDetails.getDescription());
         interaction.setInteractionDate(interactionDetails.getInteractionDate());
         interaction.setStatus(interactionDetails.getStatus());
-        return interactionRepository.save(interaction);
+        Interaction saved = interactionRepository.saveAndFlush(interaction);
+        eventPublisher.publishEvent(InteractionChangedEvent.updated(previous, saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteInteraction(Long id) {
-        interactionRepository.deleteById(id);
+        Optional<Interaction> existing = interactionRepository.findById(id);
+        if (existing.isEmpty()) {
+            if (archiveService.findById(id).isPresent()) {
+                throw archived(id);
+            }
+            return;
+        }
+        interactionRepository.delete(existing.get());
+        interactionRepository.flush();
+        eventPublisher.publishEvent(InteractionChangedEvent.deleted(existing.get()));
+    }
+
+    // The archive files keep rows as they were moved; there is no per-row update or delete
+    private static ArchivedInteractionException archived(Long id) {
+        return new ArchivedInteractionException("Interaction " + id + " is archived and read-only");
     }
 
     // public List<Interaction> getInteractionsByCustomerId(Long customerId) {
     //     return interactionRepository.findByCustomerId(customerId);
     // }
 
-    public List<Interaction> getInteractionsByCustomerId(Long customerId) {
-        return interactionRepository.findByCustomerId(customerId);
+    // Live and archived interactions merged in id order; the live row wins if both exist
+    @Transactional(readOnly = true)
+    public List<InteractionView> getInteractionsByCustomerId(Long customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            // Unknown or soft-deleted; the rows of the latter stay until the purge
+            return List.of();
+        }
+        List<InteractionView> live = interactionRepository.findViewsByCustomerId(customerId);
+        List<InteractionView> archived = archiveService.findByCustomerId(customerId);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<Long, InteractionView> merged = new TreeMap<>();
+        archived.forEach(view -> merged.put(view.id(), view));
+        live.forEach(view -> merged.put(view.id(), view));
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Writes interactions with from <= interactionDate < to to the stream in the
+     * columnar format (see ColumnarWriter), archived ones first, holding only one
+     * row group in memory. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long exportColumnar(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        ColumnarWriter writer = new ColumnarWriter(out, exportRowGroupSize);
+        archiveService.scan(from, to, row -> {
+            try {
+                writer.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try (Stream<InteractionView> rows = interactionRepository.streamViewsForExport(from, to)) {
+            Iterator<InteractionView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+        }
+        writer.finish();
+        return writer.getRowCount();
     }
 
     public Map<String, Long> getInteractionCounts() {
         Map<String, Long> counts = new HashMap<>();
 
-        // Get total count of all interactions
-        long totalCount = interactionRepository.count();
+        // Get total count of all interactions, archived ones included
+        long archivedCount = archiveService.count();
+        long totalCount = interactionRepository.count() + archivedCount;
 
         // Get count of pending interactions
         long pendingCount = interactionRepository.countByStatus(InteractionStatus.PENDING);
 
         counts.put("totalInteractions", totalCount);
         counts.put("pendingInteractions", pendingCount);
+        counts.put("archivedInteractions", archivedCount);
 
         return counts;
         }
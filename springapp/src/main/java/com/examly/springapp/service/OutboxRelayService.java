@@ -0,0 +1,342 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.model.OutboxTarget;
+import com.examly.springapp.repository.OutboxEventRepository;
+import com.examly.springapp.repository.OutboxTargetRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Delivers outbox events to webhook targets. Each tick reads a batch after the
+ * target's cursor, splits it into at most concurrency lanes by customer id and
+ * posts every lane as one JSON array, so events of one customer arrive in order.
+ * The cursor moves only when every lane succeeded; otherwise the batch is retried
+ * after an exponential backoff. Delivery is at least once and receivers should
+ * de-duplicate on eventId.
+ *
+ * The cursor is the event's seq, which ChangeFeedService hands out under a lock
+ * held until commit: an event becomes visible only after every event with a
+ * lower seq has committed, so nothing can appear behind the cursor later. With
+ * several application instances, a lease on the target row makes sure only one
+ * of them relays to a target at a time.
+ */
+@Service
+public class OutboxRelayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxTargetRepository outboxTargetRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // name=url pairs registered at startup, e.g. erp=http://erp.local/hooks/crm
+    @Value("${app.outbox.targets:}")
+    private String targetSpec;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.concurrency:4}")
+    private int defaultConcurrency;
+
+    @Value("${app.outbox.threads:8}")
+    private int threads;
+
+    @Value("${app.outbox.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${app.outbox.retry-initial-ms:1000}")
+    private long retryInitialMs;
+
+    @Value("${app.outbox.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    // Must outlast one batch, including the request timeout
+    @Value("${app.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, TargetState> states = new ConcurrentHashMap<>();
+
+    private HttpClient httpClient;
+
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(timeoutMs)).build();
+        pool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Configured targets keep their cursor across restarts; new ones start at the current end
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerConfiguredTargets() {
+        for (String entry : targetSpec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid outbox target '" + entry + "', expected name=url");
+            }
+            saveTarget(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim(), null, null);
+        }
+    }
+
+    public List<OutboxTarget> getTargets() {
+        return outboxTargetRepository.findAll();
+    }
+
+    /** Creates or updates a target; a new target receives events written from now on. */
+    public OutboxTarget saveTarget(String name, String url, Integer concurrency, Boolean enabled) {
+        if (name == null || !name.matches("[A-Za-z0-9_-]{1,50}")) {
+            throw new IllegalArgumentException("Target name must be 1-50 letters, digits, '-' or '_'");
+        }
+        if (url == null || !(url.startsWith("http://") || url.startsWith("https://"))) {
+            throw new IllegalArgumentException("Target url must be an http or https URL");
+        }
+        if (concurrency != null && (concurrency < 1 || concurrency > threads)) {
+            throw new IllegalArgumentException("concurrency must be between 1 and " + threads);
+        }
+        OutboxTarget target = outboxTargetRepository.findById(name).orElseGet(() -> {
+            Long maxSeq = outboxEventRepository.findMaxSeq();
+            return new OutboxTarget(name, url, defaultConcurrency, maxSeq != null ? maxSeq : 0L);
+        });
+        target.setUrl(url);
+        if (concurrency != null) {
+            target.setConcurrency(concurrency);
+        }
+        if (enabled != null) {
+            target.setEnabled(enabled);
+        }
+        target.setUpdatedAt(LocalDateTime.now());
+        OutboxTarget saved = outboxTargetRepository.save(target);
+        // A changed target gets a fresh start instead of waiting out an old backoff
+        states.remove(name);
+        return saved;
+    }
+
+    public boolean deleteTarget(String name) {
+        if (!outboxTargetRepository.existsById(name)) {
+            return false;
+        }
+        outboxTargetRepository.deleteById(name);
+        states.remove(name);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:1000}")
+    public void relay() {
+        long now = System.currentTimeMillis();
+        for (OutboxTarget target : outboxTargetRepository.findByEnabledTrueOrderByNameAsc()) {
+            TargetState state = states.computeIfAbsent(target.getName(), name -> new TargetState());
+            boolean due;
+            synchronized (state) {
+                due = state.nextAttemptAt <= now;
+            }
+            LocalDateTime leaseNow = LocalDateTime.now();
+            if (due && outboxTargetRepository.acquireLease(target.getName(), instanceId, leaseNow,
+                    leaseNow.plus(Duration.ofMillis(leaseMs))) > 0) {
+                deliverBatch(target, state);
+            }
+        }
+    }
+
+    // Delivered rows are kept for the retention period so that a target can be rewound
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        Long deliveredSeq = outboxTargetRepository.count() > 0
+                ? outboxTargetRepository.findMinDeliveredSeq() : outboxEventRepository.findMaxSeq();
+        if (deliveredSeq == null) {
+            return;
+        }
+        int removed = outboxEventRepository.deleteDelivered(deliveredSeq, LocalDateTime.now().minusHours(retentionHours));
+        if (removed > 0) {
+            logger.info("Removed {} delivered outbox events", removed);
+        }
+    }
+
+    /** Cursor, lag and throughput per target. */
+    public List<Map<String, Object>> getStats() {
+        Long maxSeq = outboxEventRepository.findMaxSeq();
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (OutboxTarget target : outboxTargetRepository.findAll()) {
+            TargetState state = states.getOrDefault(target.getName(), new TargetState());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", target.getName());
+            entry.put("url", target.getUrl());
+            entry.put("enabled", target.isEnabled());
+            entry.put("concurrency", target.getConcurrency());
+            entry.put("lastDeliveredSeq", target.getLastDeliveredSeq());
+            entry.put("delivered", target.getDeliveredCount());
+            entry.put("relayedHere", instanceId.equals(target.getLeaseOwner()));
+            entry.put("pendingEvents", maxSeq != null ? Math.max(0, maxSeq - target.getLastDeliveredSeq()) : 0);
+            entry.put("lagSeconds", outboxEventRepository.findFirstBySeqGreaterThanOrderBySeqAsc(target.getLastDeliveredSeq())
+                    .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).toSeconds())
+                    .orElse(0L));
+            // Counters of batches relayed by this instance
+            synchronized (state) {
+                entry.put("batches", state.batches);
+                entry.put("failedBatches", state.failedBatches);
+                entry.put("consecutiveFailures", state.consecutiveFailures);
+                entry.put("eventsPerSecond", state.deliveryMillis > 0 ? state.delivered * 1000 / state.deliveryMillis : 0);
+                entry.put("retryInMs", Math.max(0, state.nextAttemptAt - now));
+                entry.put("lastError", state.lastError);
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private void deliverBatch(OutboxTarget target, TargetState state) {
+        List<OutboxEvent> events = outboxEventRepository.findBySeqGreaterThanOrderBySeqAsc(target.getLastDeliveredSeq(),
+                PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return;
+        }
+
+        int laneCount = Math.max(1, target.getConcurrency());
+        List<List<OutboxEvent>> lanes = new ArrayList<>();
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (OutboxEvent event : events) {
+            Long key = event.getCustomerId() != null ? event.getCustomerId() : event.getAggregateId();
+            lanes.get(Math.floorMod(Long.hashCode(key), laneCount)).add(event);
+        }
+
+        long start = System.currentTimeMillis();
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<OutboxEvent> lane : lanes) {
+            if (!lane.isEmpty()) {
+                futures.add(pool.submit(() -> {
+                    post(target, lane);
+                    return null;
+                }));
+            }
+        }
+        String error = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted";
+            } catch (ExecutionException e) {
+                error = e.getCause().getMessage();
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        if (error == null) {
+            long lastSeq = events.get(events.size() - 1).getSeq();
+            outboxTargetRepository.advanceCursor(target.getName(), lastSeq, events.size(), LocalDateTime.now());
+            target.setLastDeliveredSeq(lastSeq);
+            synchronized (state) {
+                state.delivered += events.size();
+                state.batches++;
+                state.deliveryMillis += elapsed;
+                state.consecutiveFailures = 0;
+                state.nextAttemptAt = 0;
+                state.lastError = null;
+            }
+        } else {
+            int failures;
+            synchronized (state) {
+                state.failedBatches++;
+                failures = ++state.consecutiveFailures;
+                long backoff = retryInitialMs << Math.min(failures - 1, 20);
+                state.nextAttemptAt = System.currentTimeMillis() + Math.min(backoff, retryMaxMs);
+                state.lastError = error;
+            }
+            logger.warn("Outbox delivery to {} failed ({} in a row): {}", target.getName(), failures, error);
+        }
+    }
+
+    private void post(OutboxTarget target, List<OutboxEvent> events) throws IOException, InterruptedException {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (OutboxEvent event : events) {
+            ObjectNode node = body.addObject();
+            node.put("eventId", event.getId());
+            node.put("seq", event.getSeq());
+            node.put("aggregateType", event.getAggregateType());
+            node.put("aggregateId", event.getAggregateId());
+            node.put("customerId", event.getCustomerId());
+            node.put("changeType", event.getChangeType().name());
+            node.put("occurredAt", event.getCreatedAt().toString());
+            node.putRawValue("data", new RawValue(event.getPayload()));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target.getUrl()))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .header("X-Outbox-Target", target.getName())
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + target.getUrl());
+        }
+    }
+
+    // Delivery counters of one target; guarded by its own monitor
+    private static final class TargetState {
+        private long delivered;
+        private long batches;
+        private long failedBatches;
+        private int consecutiveFailures;
+        private long deliveryMillis;
+        private long nextAttemptAt;
+        private String lastError;
+    }
+}
@@ -0,0 +1,36 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ChangeType;
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes customer and interaction changes to the outbox table. ChangeFeedService
+ * calls it right after numbering a change, in the transaction that made the
+ * change, so the outbox row commits or rolls back with it and carries the
+ * change's commit-ordered seq; OutboxRelayService delivers the rows afterwards.
+ * After a snapshot restore the undelivered rows describe data that is gone, so
+ * they are replaced by one RESTORED notice telling the targets to reload.
+ */
+@Service
+public class OutboxService {
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    // Must run inside the committing transaction, while the change sequence is locked
+    void record(long seq, String aggregateType, Long aggregateId, Long customerId, ChangeType changeType,
+            String payload) {
+        outboxEventRepository.save(new OutboxEvent(seq, aggregateType, aggregateId, customerId, changeType, payload));
+    }
+
+    // Same locking as record; the notice has no aggregate of its own, so its id is 0
+    void replaceWithRestoreNotice(long seq, String payload) {
+        outboxEventRepository.deleteAllInBatch();
+        outboxEventRepository.save(new OutboxEvent(seq, SNAPSHOT, 0L, null, ChangeType.RESTORED, payload));
+    }
+}
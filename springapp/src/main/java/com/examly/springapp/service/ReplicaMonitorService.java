@@ -0,0 +1,71 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.ReadWriteRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Checks the read replicas. Each run stamps the heartbeat row on the primary
+ * and reads it back from every replica: the difference is the replica's lag,
+ * and a failed read takes the replica out of rotation until a later run
+ * succeeds. Replicas are unused until their first check.
+ */
+@Service
+public class ReplicaMonitorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaMonitorService.class);
+
+    private static final String SELECT_BEAT = "SELECT beat_millis FROM replica_heartbeat WHERE id = 1";
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.heartbeat-millis:1000}")
+    public void check() {
+        if (!routingDataSource.hasReplicas()) {
+            return;
+        }
+        routingDataSource.pruneSticky();
+
+        long beat = System.currentTimeMillis();
+        try {
+            JdbcTemplate primary = new JdbcTemplate(routingDataSource.getPrimary());
+            if (primary.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", beat) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", beat);
+            }
+        } catch (DataAccessException e) {
+            // Without a fresh stamp lag cannot be measured; replicas age out of rotation
+            logger.warn("Writing the replica heartbeat failed: {}", e.getMessage());
+            return;
+        }
+
+        for (ReadWriteRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            try {
+                Long seen = new JdbcTemplate(replica.getDataSource()).queryForObject(SELECT_BEAT, Long.class);
+                long lag = seen != null ? Math.max(0, System.currentTimeMillis() - seen) : Long.MAX_VALUE;
+                replica.markUp(lag);
+            } catch (DataAccessException e) {
+                logger.warn("Replica {} failed its check: {}", replica.getName(), e.getMessage());
+                replica.markDown(e);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return routingDataSource.getStats();
+    }
+}
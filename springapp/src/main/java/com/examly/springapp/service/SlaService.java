@@ -0,0 +1,254 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.event.InteractionChangedEvent;
+import com.examly.springapp.index.TimingWheel;
+import com.examly.springapp.model.Alert;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.repository.InteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * SLA deadlines for open interactions. Each interaction type can have a
+ * policy (app.sla.policies, e.g. COMPLAINT=24h,RETURN=2d); an interaction in
+ * an open state gets a timer at interactionDate + policy in a hierarchical
+ * timing wheel, which is cancelled once it is resolved or closed. When a timer
+ * fires the interaction is marked breached, an SLA_BREACH alert is raised and,
+ * if app.sla.escalation-status is set, its status is moved there.
+ *
+ * Timers are restored at startup from a single range over idx_interactions_sla.
+ */
+@Service
+public class SlaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaService.class);
+
+    public static final String SLA_BREACH = "SLA_BREACH";
+
+    private static final Set<InteractionStatus> OPEN_STATUSES =
+            EnumSet.of(InteractionStatus.OPEN, InteractionStatus.IN_PROGRESS, InteractionStatus.PENDING);
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.sla.policies:COMPLAINT=24h,RETURN=48h,SUPPORT=8h}")
+    private String policySpec;
+
+    // Empty means breaches only raise alerts
+    @Value("${app.sla.escalation-status:}")
+    private String escalationStatusName;
+
+    @Value("${app.sla.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.sla.wheel-levels:5}")
+    private int wheelLevels;
+
+    @Value("${app.sla.breach-batch-size:500}")
+    private int breachBatchSize;
+
+    private final Map<InteractionType, Duration> policies = new EnumMap<>(InteractionType.class);
+
+    private InteractionStatus escalationStatus;
+
+    private TimingWheel wheel;
+
+    @PostConstruct
+    public void init() {
+        for (String entry : policySpec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid SLA policy '" + entry + "', expected TYPE=duration");
+            }
+            policies.put(InteractionType.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), parseDuration(parts[1].trim()));
+        }
+        if (!escalationStatusName.isBlank()) {
+            escalationStatus = InteractionStatus.valueOf(escalationStatusName.trim().toUpperCase(Locale.ROOT));
+        }
+        wheel = new TimingWheel(tickMillis, wheelLevels, System.currentTimeMillis());
+    }
+
+    @EventListener({ApplicationReadyEvent.class, DataRestoredEvent.class})
+    @Transactional(readOnly = true)
+    public void loadTimers() {
+        synchronized (wheel) {
+            wheel.clear();
+        }
+        if (policies.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        try (Stream<Object[]> rows = interactionRepository.streamSlaCandidates(OPEN_STATUSES)) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                Long deadline = deadlineOf((InteractionType) row[1], (LocalDateTime) row[2]);
+                if (deadline != null) {
+                    synchronized (wheel) {
+                        wheel.schedule((Long) row[0], deadline);
+                    }
+                    loaded++;
+                }
+            }
+        }
+        logger.info("Restored {} SLA timers in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        Interaction current = event.getCurrent();
+        Long deadline = null;
+        if (current != null && current.getSlaBreachedAt() == null && OPEN_STATUSES.contains(current.getStatus())) {
+            deadline = deadlineOf(current.getInteractionType(), current.getInteractionDate());
+        }
+        synchronized (wheel) {
+            if (deadline != null) {
+                wheel.schedule(event.getInteractionId(), deadline);
+            } else {
+                wheel.cancel(event.getInteractionId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sla.tick-ms:1000}")
+    public void tick() {
+        List<Long> expired;
+        synchronized (wheel) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        for (int from = 0; from < expired.size(); from += breachBatchSize) {
+            handleBreaches(expired.subList(from, Math.min(from + breachBatchSize, expired.size())));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats() {
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        List<Map<String, Object>> breaches = new ArrayList<>();
+        for (Object[] row : interactionRepository.countSlaBreachesByType(OPEN_STATUSES, since)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("interactionType", row[0]);
+            entry.put("breached", ((Number) row[1]).longValue());
+            entry.put("stillOpen", ((Number) row[2]).longValue());
+            entry.put("last24h", ((Number) row[3]).longValue());
+            breaches.add(entry);
+        }
+        Map<String, String> policyHours = new LinkedHashMap<>();
+        policies.forEach((type, duration) -> policyHours.put(type.name(), duration.toString()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("policies", policyHours);
+        synchronized (wheel) {
+            stats.put("pendingTimers", wheel.size());
+        }
+        stats.put("breaches", breaches);
+        return stats;
+    }
+
+    // Re-checks the rows, since a status change may still be in flight when the timer
+    // fires. The set-based updates bypass InteractionService, so the per-row change
+    // events are published here, inside the same transaction
+    private void handleBreaches(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Interaction> breached = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Interaction> rows = new ArrayList<>();
+            for (Interaction interaction : interactionRepository.findAllForUpdate(ids)) {
+                if (interaction.getSlaBreachedAt() == null && OPEN_STATUSES.contains(interaction.getStatus())) {
+                    rows.add(new Interaction(interaction));
+                }
+            }
+            if (rows.isEmpty()) {
+                return rows;
+            }
+            List<Long> breachedIds = rows.stream().map(Interaction::getId).toList();
+            interactionRepository.markSlaBreached(breachedIds, now);
+            if (escalationStatus != null) {
+                interactionRepository.updateStatus(breachedIds, escalationStatus);
+            }
+            for (Interaction previous : rows) {
+                Interaction current = new Interaction(previous);
+                current.setSlaBreachedAt(now);
+                if (escalationStatus != null) {
+                    current.setStatus(escalationStatus);
+                }
+                eventPublisher.publishEvent(InteractionChangedEvent.updated(previous, current));
+            }
+            return rows;
+        });
+        for (Interaction interaction : breached) {
+            InteractionType type = interaction.getInteractionType();
+            alertService.raise(new Alert(SLA_BREACH, interaction.getCustomerId(), interaction.getId(),
+                    type + " #" + interaction.getId() + " is still open after its " + policies.get(type) + " SLA"));
+        }
+        if (!breached.isEmpty()) {
+            logger.info("{} interactions breached their SLA", breached.size());
+        }
+    }
+
+    private Long deadlineOf(InteractionType type, LocalDateTime openedAt) {
+        Duration policy = type != null ? policies.get(type) : null;
+        if (policy == null || openedAt == null) {
+            return null;
+        }
+        return openedAt.plus(policy).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // 90m, 24h, 2d
+    private static Duration parseDuration(String value) {
+        try {
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                case 'm':
+                    return Duration.ofMinutes(amount);
+                case 'h':
+                    return Duration.ofHours(amount);
+                case 'd':
+                    return Duration.ofDays(amount);
+                default:
+                    break;
+            }
+        } catch (RuntimeException e) {
+            // reported below
+        }
+        throw new IllegalStateException("Invalid SLA duration '" + value + "', use e.g. 90m, 24h or 2d");
+    }
+}
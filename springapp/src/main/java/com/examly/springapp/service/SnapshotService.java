@@ -0,0 +1,492 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.event.DataRestoredEvent;
+import com.examly.springapp.exception.SnapshotRestoreException;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.storage.SnapshotReader;
+import com.examly.springapp.storage.SnapshotTable;
+import com.examly.springapp.storage.SnapshotWriter;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Full-dataset snapshots of users, customers and interactions (archived ones
+ * included) in the SnapshotWriter format, for staging refreshes and disaster
+ * drills.
+ *
+ * A snapshot is read in one REPEATABLE READ transaction, so the tables are
+ * mutually consistent. A restore first checks every block of the file, then
+ * empties the tables (and the customer-derived ones: summaries, alerts, churn
+ * scores, tier proposals, the interaction archive and its counts), drops the
+ * secondary indexes, loads the blocks with app.snapshot.restore-threads
+ * parallel batch inserts, one transaction per block and one table after the
+ * other, and recreates the indexes. Rows keep their ids. Bulk loads publish no change
+ * events; a DataRestoredEvent makes the in-memory read models reload instead.
+ *
+ * Restores replace everything and are meant for maintenance windows. From
+ * emptying the tables until the change feed has been reset, customer,
+ * interaction and user writes on this instance fail with WritesSuspendedException;
+ * afterwards the feed starts over, so cursors from before the restore expire,
+ * and webhook targets get a RESTORED notice instead of the undelivered
+ * events. There is no staging copy: once the file has
+ * been verified the tables are emptied, so a restore whose load fails leaves
+ * the database empty (or partly loaded) until another restore succeeds. Such
+ * a failure, or an index or identity reset step that fails after the load,
+ * raises SnapshotRestoreException with the failed steps.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotService.class);
+
+    private static final Pattern NAME = Pattern.compile("snapshot-\\d{8}-\\d{9}\\.bin");
+    private static final DateTimeFormatter NAME_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+
+    // Emptied before a restore, children first; the first six are derived from customers
+    // and the archive, which a restore loads back into the interactions table
+    private static final List<String> WIPE_ORDER = List.of("alerts", "churn_scores", "tier_proposals",
+            "customer_summary", "archived_interaction_counts", "archived_interaction_days", "interactions",
+            "customers", "users");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private InteractionArchiveService archiveService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.snapshot.dir:data/snapshots}")
+    private String dir;
+
+    @Value("${app.snapshot.block-rows:5000}")
+    private int blockRows;
+
+    @Value("${app.snapshot.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.snapshot.restore-threads:4}")
+    private int restoreThreads;
+
+    @Value("${app.snapshot.delete-chunk-size:10000}")
+    private int deleteChunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** Writes a snapshot of the whole dataset; returns its name, size and row counts. */
+    public Map<String, Object> createSnapshot() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A snapshot or restore is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Path directory = Path.of(dir);
+            Files.createDirectories(directory);
+            String name = "snapshot-" + LocalDateTime.now().format(NAME_TIME) + ".bin";
+            Path target = directory.resolve(name);
+            Path temp = directory.resolve(name + ".tmp");
+
+            Map<SnapshotTable, Long> counts;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                SnapshotWriter writer = new SnapshotWriter(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), blockRows, start);
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setReadOnly(true);
+                transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+                transaction.executeWithoutResult(status -> {
+                    try {
+                        dump(writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                counts = writer.finish();
+                channel.force(true);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+            Map<String, Object> result = describe(target);
+            counts.forEach((table, rows) -> result.put(table.getTableName(), rows));
+            result.put("elapsedMs", System.currentTimeMillis() - start);
+            logger.info("Wrote snapshot {}: {}", name, result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing snapshot failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<Map<String, Object>> listSnapshots() throws IOException {
+        Path directory = Path.of(dir);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Map<String, Object>> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted().toList()) {
+                snapshots.add(describe(file));
+            }
+        }
+        return snapshots;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public boolean exists(String name) {
+        return NAME.matcher(name).matches() && Files.isRegularFile(Path.of(dir, name));
+    }
+
+    /** Replaces users, customers and interactions with the contents of the named snapshot. */
+    public Map<String, Object> restore(String name) {
+        if (!exists(name)) {
+            throw new IllegalArgumentException("Snapshot " + name + " not found");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A snapshot or restore is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Path file = Path.of(dir, name);
+            verify(file);
+
+            List<String[]> indexes = secondaryIndexes();
+            boolean h2 = isH2();
+            List<String> skippedSteps = new ArrayList<>();
+            List<String> failedSteps = new ArrayList<>();
+            Map<SnapshotTable, Long> counts = null;
+            Exception loadFailure = null;
+            // From here on the data is replaced, so the feed is reset whatever happens
+            changeFeedService.suspendWrites();
+            try {
+                wipe(h2);
+                try {
+                    for (String[] index : indexes) {
+                        // An index that cannot be dropped only makes the load slower
+                        String drop = "DROP INDEX " + index[0] + (h2 ? "" : " ON " + index[1]);
+                        if (!execute(drop)) {
+                            skippedSteps.add(drop);
+                        }
+                    }
+                    counts = load(file);
+                } catch (IOException | RuntimeException e) {
+                    loadFailure = e;
+                    failedSteps.add("load: " + e.getMessage());
+                }
+                // Whatever was loaded gets its indexes and ids back, even after a failed load
+                for (String[] index : indexes) {
+                    String create = "CREATE INDEX " + index[0] + " ON " + index[1] + " (" + index[2] + ")";
+                    if (!execute(create)) {
+                        failedSteps.add(create);
+                    }
+                }
+                for (SnapshotTable table : SnapshotTable.values()) {
+                    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table.getTableName(), Long.class);
+                    long nextId = maxId != null ? maxId + 1 : 1;
+                    String reset = h2
+                            ? "ALTER TABLE " + table.getTableName() + " ALTER COLUMN id RESTART WITH " + nextId
+                            : "ALTER TABLE " + table.getTableName() + " AUTO_INCREMENT = " + nextId;
+                    if (!execute(reset)) {
+                        failedSteps.add(reset);
+                    }
+                }
+                eventPublisher.publishEvent(new DataRestoredEvent(name));
+                if (!failedSteps.isEmpty()) {
+                    String message = loadFailure != null
+                            ? "Restoring snapshot " + name + " failed after the tables were emptied; the database is"
+                                    + " left without the previous data until a restore succeeds"
+                            : "Snapshot " + name + " was loaded, but restoring the schema failed";
+                    throw new SnapshotRestoreException(message, failedSteps, loadFailure);
+                }
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("name", name);
+                counts.forEach((table, rows) -> result.put(table.getTableName(), rows));
+                if (!skippedSteps.isEmpty()) {
+                    result.put("skippedSteps", skippedSteps);
+                }
+                result.put("elapsedMs", System.currentTimeMillis() - start);
+                logger.info("Restored snapshot {}: {}", name, result);
+                return result;
+            } finally {
+                changeFeedService.resetAfterRestore(name);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Restoring snapshot " + name + " failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void dump(SnapshotWriter writer) throws IOException {
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(fetchSize);
+        for (SnapshotTable table : SnapshotTable.values()) {
+            try {
+                cursor.query(table.selectSql(), (ResultSet rs) -> {
+                    try {
+                        writer.write(table, readRow(rs, table));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Archived interactions, minus any that are still in the table after a rolled-back chunk
+        List<InteractionView> pending = new ArrayList<>();
+        try {
+            archiveService.scan(null, null, row -> {
+                pending.add(row);
+                if (pending.size() == blockRows) {
+                    writeArchived(writer, pending);
+                }
+            });
+            writeArchived(writer, pending);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeArchived(SnapshotWriter writer, List<InteractionView> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<Long> live = new HashSet<>(interactionRepository.findExistingIds(
+                rows.stream().map(InteractionView::id).toList()));
+        try {
+            for (InteractionView row : rows) {
+                if (!live.contains(row.id())) {
+                    writer.write(SnapshotTable.INTERACTIONS, new Object[] { row.id(), row.customerId(),
+                            row.interactionType() != null ? row.interactionType().name() : null, row.description(),
+                            row.status() != null ? row.status().name() : null, row.interactionDate(),
+                            row.slaBreachedAt() });
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rows.clear();
+    }
+
+    private static Object[] readRow(ResultSet rs, SnapshotTable table) throws SQLException {
+        List<SnapshotTable.Column> columns = table.getColumns();
+        Object[] row = new Object[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = switch (columns.get(i).type()) {
+                case LONG -> rs.getObject(i + 1, Long.class);
+                case STRING -> rs.getString(i + 1);
+                case DATE -> rs.getObject(i + 1, LocalDate.class);
+                case TIMESTAMP -> rs.getObject(i + 1, LocalDateTime.class);
+            };
+        }
+        return row;
+    }
+
+    // Reads and decodes every block, so a damaged file is rejected before anything is deleted
+    private void verify(Path file) {
+        try (SnapshotReader reader = new SnapshotReader(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            SnapshotReader.Block block;
+            while ((block = reader.next()) != null) {
+                block.decode();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Snapshot " + file.getFileName() + " is unreadable: " + e.getMessage(), e);
+        }
+    }
+
+    private void wipe(boolean h2) throws IOException {
+        for (String table : WIPE_ORDER) {
+            String delete = "DELETE FROM " + table
+                    + (h2 ? " FETCH FIRST " + deleteChunkSize + " ROWS ONLY" : " LIMIT " + deleteChunkSize);
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(delete);
+            } while (deleted > 0);
+        }
+        archiveService.clear();
+    }
+
+    /**
+     * Blocks go to the pool as they are read; a bounded number are in flight so
+     * memory stays flat. All blocks of a table finish before the next table
+     * starts, since interactions reference customers.
+     */
+    private Map<SnapshotTable, Long> load(Path file) throws IOException {
+        Map<SnapshotTable, Long> counts = new EnumMap<>(SnapshotTable.class);
+        int threads = Math.max(1, restoreThreads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 2);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Future<?>> pending = new ArrayList<>();
+        try (SnapshotReader reader = new SnapshotReader(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            SnapshotTable current = null;
+            SnapshotReader.Block block;
+            while ((block = reader.next()) != null) {
+                if (block.table() != current) {
+                    awaitAll(pending);
+                    current = block.table();
+                }
+                SnapshotReader.Block next = block;
+                inFlight.acquire();
+                pending.add(pool.submit(() -> {
+                    try {
+                        List<Object[]> rows = next.decode();
+                        transaction.executeWithoutResult(status ->
+                                jdbcTemplate.batchUpdate(next.table().insertSql(), rows));
+                        return null;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                counts.merge(block.table(), (long) block.rowCount(), Long::sum);
+            }
+            awaitAll(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Restore interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return counts;
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Restore failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            futures.clear();
+        }
+    }
+
+    /**
+     * Name, table and columns of every declared secondary index of the restored
+     * tables. Indexes that lead with a join column stay: MySQL needs them for
+     * the foreign key.
+     */
+    private static List<String[]> secondaryIndexes() {
+        List<String[]> indexes = new ArrayList<>();
+        for (Class<?> entity : List.of(Customer.class, Interaction.class)) {
+            Table table = entity.getAnnotation(Table.class);
+            Set<String> joinColumns = new HashSet<>();
+            for (Field field : entity.getDeclaredFields()) {
+                JoinColumn join = field.getAnnotation(JoinColumn.class);
+                if (join != null) {
+                    joinColumns.add(join.name());
+                }
+            }
+            for (Index index : table.indexes()) {
+                String leading = index.columnList().split(",")[0].trim();
+                if (!joinColumns.contains(leading)) {
+                    indexes.add(new String[] { index.name(), table.name(), index.columnList() });
+                }
+            }
+        }
+        return indexes;
+    }
+
+    // The embedded profile runs on H2, whose chunked delete, index drop and identity reset
+    // are spelled differently from MySQL's
+    private boolean isH2() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "H2".equalsIgnoreCase(product);
+    }
+
+    // Whether the statement succeeded; restore decides which failures are fatal
+    private boolean execute(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (DataAccessException e) {
+            logger.warn("Restore step failed: {}: {}", sql, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Map<String, Object> describe(Path file) throws IOException {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", file.getFileName().toString());
+        info.put("bytes", Files.size(file));
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            info.put("createdAt", Instant.ofEpochMilli(new SnapshotReader(in).getCreatedAtMillis()).toString());
+        }
+        return info;
+    }
+}
@@ -0,0 +1,396 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.CustomerChangedEvent;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.model.JobCheckpoint;
+import com.examly.springapp.model.TierProposal;
+import com.examly.springapp.repository.ArchivedInteractionDayRepository;
+import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.repository.JobCheckpointRepository;
+import com.examly.springapp.repository.TierProposalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly RFM tiering. Every customer is scored on recency (days since the
+ * latest purchase) and frequency (purchases minus returns) over a lookback
+ * window, and the matching customer type is proposed or, in apply mode, set.
+ * Archived purchases and returns inside the window count through
+ * archived_interaction_days.
+ *
+ * The id space is cut into fixed-size partitions that a small pool works
+ * through. Each batch is one short transaction that also advances its
+ * partition's checkpoint, so a run interrupted by a restart resumes after the
+ * last committed batch instead of starting over.
+ */
+@Service
+public class TierScoringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TierScoringService.class);
+
+    static final String JOB_NAME = "tier-scoring";
+
+    private static final String APPLY = "apply=true";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private ArchivedInteractionDayRepository archivedDayRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TierProposalRepository tierProposalRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.tiering.enabled:true}")
+    private boolean enabled;
+
+    // Scheduled runs only propose unless this is switched on
+    @Value("${app.tiering.apply:false}")
+    private boolean applyByDefault;
+
+    // Hand-set tiers are never lowered unless this is switched on
+    @Value("${app.tiering.allow-demotion:false}")
+    private boolean allowDemotion;
+
+    @Value("${app.tiering.threads:4}")
+    private int threads;
+
+    @Value("${app.tiering.partition-size:100000}")
+    private long partitionSize;
+
+    @Value("${app.tiering.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.tiering.lookback-days:365}")
+    private int lookbackDays;
+
+    @Value("${app.tiering.premium.min-purchases:5}")
+    private long premiumMinPurchases;
+
+    @Value("${app.tiering.premium.max-recency-days:90}")
+    private int premiumMaxRecencyDays;
+
+    @Value("${app.tiering.vip.min-purchases:20}")
+    private long vipMinPurchases;
+
+    @Value("${app.tiering.vip.max-recency-days:30}")
+    private int vipMaxRecencyDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile LocalDateTime lastFinishedAt;
+
+    private volatile String lastError;
+
+    private ExecutorService coordinator;
+
+    @PostConstruct
+    public void init() {
+        // A run started over the API applies its changes as that user; scheduled and
+        // resumed runs have no user and are audited as the system
+        coordinator = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tier-scoring");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Batches in flight roll back; their checkpoints still point before them
+        coordinator.shutdownNow();
+    }
+
+    @Scheduled(cron = "${app.tiering.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (enabled && !start(null)) {
+            logger.warn("Tier scoring is still running; skipping the scheduled run");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        if (enabled && hasUnfinishedRun()) {
+            logger.info("Resuming interrupted tier scoring run");
+            start(null);
+        }
+    }
+
+    /**
+     * Starts a run in the background, or resumes the unfinished one with its
+     * original options. apply null means the configured default. Returns false
+     * when a run is already active.
+     */
+    public boolean start(Boolean apply) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        boolean applyChanges = apply != null ? apply : applyByDefault;
+        coordinator.execute(() -> {
+            try {
+                run(applyChanges);
+                lastError = null;
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                logger.error("Tier scoring failed; the next run resumes from the last checkpoint", e);
+            } finally {
+                lastFinishedAt = LocalDateTime.now();
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        List<JobCheckpoint> partitions = checkpointRepository.findByJobNameOrderByPartitionIndexAsc(JOB_NAME);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("runId", partitions.isEmpty() ? null : partitions.get(0).getRunId());
+        status.put("apply", !partitions.isEmpty() && APPLY.equals(partitions.get(0).getParameters()));
+        status.put("partitions", partitions.size());
+        status.put("completedPartitions", partitions.stream().filter(JobCheckpoint::isCompleted).count());
+        status.put("processed", partitions.stream().mapToLong(JobCheckpoint::getProcessed).sum());
+        status.put("changed", partitions.stream().mapToLong(JobCheckpoint::getChanged).sum());
+        status.put("lastFinishedAt", lastFinishedAt);
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TierProposal> getProposals(int limit) {
+        return tierProposalRepository.findAllByOrderByFrequencyDescCustomerIdAsc(PageRequest.of(0, limit));
+    }
+
+    private boolean hasUnfinishedRun() {
+        return checkpointRepository.findByJobNameOrderByPartitionIndexAsc(JOB_NAME).stream()
+                .anyMatch(partition -> !partition.isCompleted());
+    }
+
+    private void run(boolean apply) {
+        long start = System.currentTimeMillis();
+        List<JobCheckpoint> partitions = checkpointRepository.findByJobNameOrderByPartitionIndexAsc(JOB_NAME);
+        if (partitions.stream().allMatch(JobCheckpoint::isCompleted)) {
+            partitions = plan(apply);
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String runId = partitions.get(0).getRunId();
+        boolean applyChanges = APPLY.equals(partitions.get(0).getParameters());
+        LocalDateTime since = LocalDate.now().minusDays(lookbackDays).atStartOfDay();
+
+        ExecutorService pool = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(Math.max(1, threads)));
+        try {
+            List<Future<JobCheckpoint>> pending = new ArrayList<>();
+            for (JobCheckpoint partition : partitions) {
+                if (!partition.isCompleted()) {
+                    pending.add(pool.submit(() -> processPartition(partition, since, applyChanges)));
+                }
+            }
+            for (Future<JobCheckpoint> partition : pending) {
+                partition.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tier scoring interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tier scoring failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int stale = tierProposalRepository.deleteOtherRuns(runId);
+        long processed = 0;
+        long changed = 0;
+        for (JobCheckpoint partition : partitions) {
+            processed += partition.getProcessed();
+            changed += partition.getChanged();
+        }
+        logger.info("Tier scoring run {} finished: {} customers scored, {} tier changes {}, {} stale proposals removed in {} ms",
+                runId, processed, changed, applyChanges ? "applied" : "proposed", stale,
+                System.currentTimeMillis() - start);
+    }
+
+    // Splits (0, maxId] into partitions; customers created later are picked up next run
+    private List<JobCheckpoint> plan(boolean apply) {
+        checkpointRepository.deleteByJobName(JOB_NAME);
+        Long maxId = customerRepository.findMaxId();
+        if (maxId == null) {
+            return List.of();
+        }
+        String runId = UUID.randomUUID().toString();
+        List<JobCheckpoint> partitions = new ArrayList<>();
+        int index = 0;
+        for (long from = 0; from < maxId; from += partitionSize) {
+            partitions.add(new JobCheckpoint(JOB_NAME, runId, index++, from, Math.min(from + partitionSize, maxId),
+                    "apply=" + apply));
+        }
+        logger.info("Tier scoring run {} planned with {} partitions up to customer id {}", runId, partitions.size(), maxId);
+        return checkpointRepository.saveAll(partitions);
+    }
+
+    private JobCheckpoint processPartition(JobCheckpoint partition, LocalDateTime since, boolean apply) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        while (!partition.isCompleted()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Tier scoring interrupted in partition " + partition.getPartitionIndex());
+            }
+            transaction.executeWithoutResult(status -> scoreBatch(partition, since, apply));
+        }
+        return partition;
+    }
+
+    // Sums a live and an archived (customerId, purchases, returns, latest purchase) row
+    private static Object[] addPurchases(Object[] live, Object[] archived) {
+        LocalDateTime latest = (LocalDateTime) live[3];
+        LocalDateTime archivedLatest = (LocalDateTime) archived[3];
+        if (latest == null || (archivedLatest != null && archivedLatest.isAfter(latest))) {
+            latest = archivedLatest;
+        }
+        return new Object[] {live[0], ((Number) live[1]).longValue() + ((Number) archived[1]).longValue(),
+                ((Number) live[2]).longValue() + ((Number) archived[2]).longValue(), latest};
+    }
+
+    // One batch of the partition plus its checkpoint, committed together
+    private void scoreBatch(JobCheckpoint partition, LocalDateTime since, boolean apply) {
+        List<Object[]> customers = customerRepository.findTypesInRange(partition.getLastId(), partition.getToId(),
+                PageRequest.of(0, batchSize));
+        if (customers.isEmpty()) {
+            partition.setCompleted(true);
+        } else {
+            long lastId = (Long) customers.get(customers.size() - 1)[0];
+            Map<Long, Object[]> metrics = new HashMap<>();
+            for (Object[] row : interactionRepository.aggregatePurchasesInRange(partition.getLastId(), lastId, since,
+                    InteractionType.PURCHASE, InteractionType.RETURN)) {
+                metrics.put((Long) row[0], row);
+            }
+            for (Object[] row : archivedDayRepository.aggregatePurchasesInRange(partition.getLastId(), lastId, since,
+                    InteractionType.PURCHASE, InteractionType.RETURN)) {
+                metrics.merge((Long) row[0], row, TierScoringService::addPurchases);
+            }
+
+            LocalDate today = LocalDate.now();
+            List<Long> ids = new ArrayList<>(customers.size());
+            List<TierProposal> proposals = new ArrayList<>();
+            for (Object[] customer : customers) {
+                Long id = (Long) customer[0];
+                CustomerType current = (CustomerType) customer[1];
+                ids.add(id);
+                Object[] row = metrics.get(id);
+                long frequency = 0;
+                Integer recencyDays = null;
+                if (row != null) {
+                    frequency = Math.max(0, ((Number) row[1]).longValue() - ((Number) row[2]).longValue());
+                    if (row[3] != null) {
+                        recencyDays = (int) ChronoUnit.DAYS.between(((LocalDateTime) row[3]).toLocalDate(), today);
+                    }
+                }
+                CustomerType proposed = proposeTier(current, frequency, recencyDays);
+                if (proposed != current) {
+                    TierProposal proposal = new TierProposal(id, current, proposed, recencyDays, frequency);
+                    proposal.setRunId(partition.getRunId());
+                    proposals.add(proposal);
+                }
+            }
+
+            tierProposalRepository.deleteByCustomerIds(ids);
+            if (apply && !proposals.isEmpty()) {
+                applyProposals(proposals);
+            }
+            tierProposalRepository.saveAll(proposals);
+
+            partition.setLastId(lastId);
+            partition.setProcessed(partition.getProcessed() + customers.size());
+            partition.setChanged(partition.getChanged() + proposals.size());
+            partition.setCompleted(customers.size() < batchSize || lastId >= partition.getToId());
+        }
+        partition.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(partition);
+    }
+
+    CustomerType proposeTier(CustomerType current, long frequency, Integer recencyDays) {
+        CustomerType scored = CustomerType.REGULAR;
+        if (recencyDays != null && frequency >= vipMinPurchases && recencyDays <= vipMaxRecencyDays) {
+            scored = CustomerType.VIP;
+        } else if (recencyDays != null && frequency >= premiumMinPurchases && recencyDays <= premiumMaxRecencyDays) {
+            scored = CustomerType.PREMIUM;
+        }
+        if (scored.compareTo(current) < 0 && !allowDemotion) {
+            return current;
+        }
+        return scored;
+    }
+
+    // Locks the rows like BulkUpdateService, so a manual type change either commits first
+    // and is skipped here or waits for this batch; the locked before-images feed the usual
+    // change events so the indexes follow
+    private void applyProposals(List<TierProposal> proposals) {
+        Map<Long, TierProposal> byId = new HashMap<>();
+        for (TierProposal proposal : proposals) {
+            byId.put(proposal.getCustomerId(), proposal);
+        }
+        Map<CustomerType, List<Long>> byTarget = new EnumMap<>(CustomerType.class);
+        List<Customer> changing = new ArrayList<>();
+        for (Customer customer : customerRepository.findAllForUpdate(byId.keySet())) {
+            TierProposal proposal = byId.get(customer.getId());
+            if (customer.getCustomerType() == proposal.getCurrentType()) {
+                byTarget.computeIfAbsent(proposal.getProposedType(), type -> new ArrayList<>()).add(customer.getId());
+                changing.add(new Customer(customer));
+            }
+        }
+        byTarget.forEach((customerType, ids) -> customerRepository.updateCustomerType(ids, customerType));
+        for (Customer previous : changing) {
+            TierProposal proposal = byId.get(previous.getId());
+            Customer current = new Customer(previous);
+            current.setCustomerType(proposal.getProposedType());
+            eventPublisher.publishEvent(CustomerChangedEvent.updated(previous, current));
+            proposal.setApplied(true);
+        }
+    }
+}
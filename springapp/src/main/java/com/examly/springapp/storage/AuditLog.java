@@ -0,0 +1,409 @@
+package com.examly.springapp.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of {@link AuditRecord}s in fixed-size, memory-mapped segment
+ * files (audit-000000000001.seg, ...). A segment is preallocated and rolled
+ * when the next record does not fit.
+ *
+ * Record layout: int body length, int CRC32 of the body, then the body: long
+ * timestamp millis, long entity id, and byte-length-prefixed entity type, action
+ * and actor followed by int-length-prefixed before and after JSON (length -1 for
+ * null), all UTF-8. A zero length marks the end of a segment's data; a bad CRC,
+ * left by a write torn by a crash, is treated the same way and overwritten.
+ *
+ * Appends only write to the mapping. {@link #flush()} forces the dirty range to
+ * disk, so one fsync covers every record appended since the previous call.
+ * Every indexInterval bytes a segment remembers (timestamp, offset) in a sparse
+ * index, so a time-range scan starts close to its first match instead of at the
+ * start of the segment. Timestamps never go backwards within the log.
+ *
+ * Opening the same directory twice in one JVM returns the same instance; the
+ * directory is also locked against other processes.
+ */
+public final class AuditLog implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".seg";
+
+    private static final Map<Path, AuditLog> OPEN = new HashMap<>();
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int indexInterval;
+    private final List<Segment> segments = new ArrayList<>();
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private int references;
+    private long lastTimestamp;
+    private long appended;
+
+    private AuditLog(Path dir, int segmentBytes, int indexInterval) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+    }
+
+    public static AuditLog open(Path dir, int segmentBytes, int indexInterval) throws IOException {
+        Path key = dir.toAbsolutePath().normalize();
+        synchronized (OPEN) {
+            AuditLog log = OPEN.get(key);
+            if (log == null) {
+                log = new AuditLog(key, segmentBytes, indexInterval);
+                log.load();
+                OPEN.put(key, log);
+            }
+            log.references++;
+            return log;
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve("audit.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Audit log " + dir + " is in use by another process");
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment segment = Segment.recover(file, indexInterval);
+            segments.add(segment);
+            lastTimestamp = Math.max(lastTimestamp, segment.maxTimestamp);
+        }
+        if (segments.isEmpty()) {
+            roll();
+        }
+    }
+
+    /** Appends a record; it is durable once the next {@link #flush()} returns. */
+    public synchronized void append(String entityType, long entityId, String action, String actor,
+            String before, String after) throws IOException {
+        lastTimestamp = Math.max(lastTimestamp, System.currentTimeMillis());
+        byte[] body = encode(lastTimestamp, entityType, entityId, action, actor, before, after);
+        if (HEADER_BYTES + body.length + HEADER_BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Audit record of " + body.length + " bytes exceeds the segment size");
+        }
+        Segment active = segments.get(segments.size() - 1);
+        if (!active.fits(body.length)) {
+            active.force();
+            active = roll();
+        }
+        active.write(lastTimestamp, body);
+        appended++;
+    }
+
+    /** Forces everything appended so far to disk. */
+    public synchronized void flush() {
+        segments.get(segments.size() - 1).force();
+    }
+
+    /**
+     * Records with from <= timestamp < to that pass the filter; the newest limit
+     * of them, newest first.
+     */
+    public List<AuditRecord> scan(Instant from, Instant to, Predicate<AuditRecord> filter, int limit) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        List<Segment.View> views = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments) {
+                if (segment.end > 0 && segment.maxTimestamp >= fromMillis && segment.minTimestamp < toMillis) {
+                    views.add(segment.view());
+                }
+            }
+        }
+
+        Deque<AuditRecord> newest = new ArrayDeque<>(Math.min(limit, 1024));
+        for (Segment.View view : views) {
+            ByteBuffer buffer = view.buffer();
+            int position = view.startOffset(fromMillis);
+            while (position < view.end()) {
+                int length = buffer.getInt(position);
+                long timestamp = buffer.getLong(position + HEADER_BYTES);
+                if (timestamp >= toMillis) {
+                    break;
+                }
+                if (timestamp >= fromMillis) {
+                    AuditRecord record = decode(buffer, position + HEADER_BYTES);
+                    if (filter.test(record)) {
+                        if (newest.size() == limit) {
+                            newest.removeFirst();
+                        }
+                        newest.addLast(record);
+                    }
+                }
+                position += HEADER_BYTES + length;
+            }
+        }
+        List<AuditRecord> result = new ArrayList<>(newest);
+        Collections.reverse(result);
+        return result;
+    }
+
+    /** Deletes full segments whose newest record is older than before; returns how many. */
+    public synchronized int deleteSegmentsBefore(Instant before) throws IOException {
+        int removed = 0;
+        while (segments.size() > 1 && segments.get(0).maxTimestamp < before.toEpochMilli()) {
+            Files.deleteIfExists(segments.remove(0).file);
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.end;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", dir.toString());
+        stats.put("segments", segments.size());
+        stats.put("bytes", bytes);
+        stats.put("appendedSinceStart", appended);
+        return stats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (OPEN) {
+            if (--references > 0) {
+                return;
+            }
+            OPEN.remove(dir);
+        }
+        synchronized (this) {
+            flush();
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    private Segment roll() throws IOException {
+        long number = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).number + 1;
+        Path file = dir.resolve(String.format("audit-%012d%s", number, SUFFIX));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(segmentBytes);
+        }
+        Segment segment = Segment.recover(file, indexInterval);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static byte[] encode(long timestamp, String entityType, long entityId, String action, String actor,
+            String before, String after) {
+        byte[] type = shortString(entityType);
+        byte[] act = shortString(action);
+        byte[] who = shortString(actor);
+        byte[] beforeBytes = before != null ? before.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] afterBytes = after != null ? after.getBytes(StandardCharsets.UTF_8) : null;
+        ByteBuffer body = ByteBuffer.allocate(16 + 3 + type.length + act.length + who.length + 8
+                + (beforeBytes != null ? beforeBytes.length : 0) + (afterBytes != null ? afterBytes.length : 0));
+        body.putLong(timestamp).putLong(entityId);
+        body.put((byte) type.length).put(type);
+        body.put((byte) act.length).put(act);
+        body.put((byte) who.length).put(who);
+        putLongString(body, beforeBytes);
+        putLongString(body, afterBytes);
+        return body.array();
+    }
+
+    private static AuditRecord decode(ByteBuffer buffer, int offset) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset);
+        long timestamp = body.getLong();
+        long entityId = body.getLong();
+        String entityType = getShortString(body);
+        String action = getShortString(body);
+        String actor = getShortString(body);
+        String before = getLongString(body);
+        String after = getLongString(body);
+        return new AuditRecord(Instant.ofEpochMilli(timestamp), entityType, entityId, action, actor, before, after);
+    }
+
+    // Up to 255 bytes; longer values are cut
+    private static byte[] shortString(String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= 255 ? bytes : Arrays.copyOf(bytes, 255);
+    }
+
+    private static void putLongString(ByteBuffer body, byte[] bytes) {
+        if (bytes == null) {
+            body.putInt(-1);
+        } else {
+            body.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getShortString(ByteBuffer body) {
+        byte[] bytes = new byte[body.get() & 0xFF];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String getLongString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset).limit(offset + length);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    // One segment file; fields are guarded by the owning log
+    private static final class Segment {
+        private final Path file;
+        private final long number;
+        private final int indexInterval;
+        private final MappedByteBuffer buffer;
+        private int end;
+        private int forced;
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+        // Sparse index: timestamp and offset of the first record after every indexInterval bytes
+        private long[] indexTimestamps = new long[16];
+        private int[] indexOffsets = new int[16];
+        private int indexSize;
+        private int nextIndexAt;
+
+        private Segment(Path file, MappedByteBuffer buffer, int indexInterval) {
+            String name = file.getFileName().toString();
+            this.file = file;
+            this.number = Long.parseLong(name.substring("audit-".length(), name.length() - SUFFIX.length()));
+            this.buffer = buffer;
+            this.indexInterval = indexInterval;
+        }
+
+        // Maps the file and finds the end of its valid records
+        static Segment recover(Path file, int indexInterval) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            Segment segment = new Segment(file, buffer, indexInterval);
+            int position = 0;
+            while (position + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()
+                        || crc(buffer, position + HEADER_BYTES, length) != buffer.getInt(position + 4)) {
+                    break;
+                }
+                segment.indexRecord(buffer.getLong(position + HEADER_BYTES), position);
+                position += HEADER_BYTES + length;
+            }
+            segment.end = position;
+            segment.forced = position;
+            // Clear what a torn write left behind so that it cannot be read as a record later
+            if (position + HEADER_BYTES <= buffer.capacity() && buffer.getInt(position) != 0) {
+                for (int i = position; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+            }
+            return segment;
+        }
+
+        // Leaves room for the zero length that terminates the data
+        boolean fits(int bodyLength) {
+            return end + HEADER_BYTES + bodyLength + HEADER_BYTES <= buffer.capacity();
+        }
+
+        void write(long timestamp, byte[] body) {
+            buffer.put(end + HEADER_BYTES, body);
+            buffer.putInt(end + 4, crc(buffer, end + HEADER_BYTES, body.length));
+            // The length goes last: a record is only visible once it is complete
+            buffer.putInt(end, body.length);
+            indexRecord(timestamp, end);
+            end += HEADER_BYTES + body.length;
+        }
+
+        void force() {
+            if (end > forced) {
+                buffer.force(forced, end - forced);
+                forced = end;
+            }
+        }
+
+        private void indexRecord(long timestamp, int offset) {
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            if (offset < nextIndexAt) {
+                return;
+            }
+            if (indexSize == indexOffsets.length) {
+                indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+            }
+            indexTimestamps[indexSize] = timestamp;
+            indexOffsets[indexSize] = offset;
+            indexSize++;
+            nextIndexAt = offset + indexInterval;
+        }
+
+        View view() {
+            return new View(buffer.duplicate(), end, Arrays.copyOf(indexTimestamps, indexSize),
+                    Arrays.copyOf(indexOffsets, indexSize));
+        }
+
+        // A consistent snapshot for readers: records up to end are complete and never change
+        record View(ByteBuffer buffer, int end, long[] indexTimestamps, int[] indexOffsets) {
+
+            // Offset of the last indexed record older than from, or 0
+            int startOffset(long from) {
+                int i = Arrays.binarySearch(indexTimestamps, from);
+                if (i < 0) {
+                    i = -i - 2;
+                } else {
+                    // Equal timestamps may continue before the match
+                    while (i > 0 && indexTimestamps[i - 1] == from) {
+                        i--;
+                    }
+                    i--;
+                }
+                return i >= 0 ? indexOffsets[i] : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.examly.springapp.storage;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.Instant;
+
+/**
+ * One audit log entry: who changed which entity, when, and the JSON of the
+ * entity before and after the change (null for creates and deletes respectively).
+ */
+public record AuditRecord(
+        Instant timestamp,
+        String entityType,
+        long entityId,
+        String action,
+        String actor,
+        @JsonRawValue String before,
+        @JsonRawValue String after) {
+}
@@ -0,0 +1,260 @@
+package com.examly.springapp.storage;
+
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped view of a file written by {@link ColumnarWriter}.
+ * The footer is parsed once; row groups are decoded on demand, and a scan that
+ * only needs ids inflates just the id column of each group.
+ *
+ * Decoding uses absolute reads on slices of the mapping, so one instance can
+ * be read by many threads at once.
+ */
+public final class ColumnarFile {
+
+    /** Location and min/max statistics of one row group; dates are epoch microseconds. */
+    public record RowGroup(long offset, int length, int rowCount, long minId, long maxId,
+            long minCustomerId, long maxCustomerId, long minDate, long maxDate) {
+
+        public boolean mayContainCustomer(long customerId) {
+            return customerId >= minCustomerId && customerId <= maxCustomerId;
+        }
+
+        public boolean mayContainId(long id) {
+            return id >= minId && id <= maxId;
+        }
+
+        /** Whether any date in the group can fall in [from, to); false for groups without dates. */
+        public boolean mayContainDates(long from, long to) {
+            return minDate <= maxDate && maxDate >= from && minDate < to;
+        }
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final List<RowGroup> rowGroups;
+    private final long rowCount;
+
+    private ColumnarFile(Path file, MappedByteBuffer buffer, List<RowGroup> rowGroups) {
+        this.file = file;
+        this.buffer = buffer;
+        this.rowGroups = rowGroups;
+        this.rowCount = rowGroups.stream().mapToLong(RowGroup::rowCount).sum();
+    }
+
+    public static ColumnarFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Columnar file " + file + " is larger than 2 GB");
+            }
+            if (size < 13) {
+                throw new IOException("Columnar file " + file + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size;
+            if (buffer.getInt(0) != ColumnarWriter.MAGIC || buffer.getInt(end - 4) != ColumnarWriter.MAGIC) {
+                throw new IOException("Columnar file " + file + " has no valid header or footer");
+            }
+            if (buffer.get(4) != ColumnarWriter.VERSION) {
+                throw new IOException("Columnar file " + file + " has unsupported version " + buffer.get(4));
+            }
+            int footerStart = end - 8 - buffer.getInt(end - 8);
+            int groupCount = buffer.getInt(footerStart);
+            List<RowGroup> groups = new ArrayList<>(groupCount);
+            int position = footerStart + 4;
+            for (int i = 0; i < groupCount; i++) {
+                groups.add(new RowGroup(buffer.getLong(position), buffer.getInt(position + 8),
+                        buffer.getInt(position + 12), buffer.getLong(position + 16), buffer.getLong(position + 24),
+                        buffer.getLong(position + 32), buffer.getLong(position + 40),
+                        buffer.getLong(position + 48), buffer.getLong(position + 56)));
+                position += 64;
+            }
+            return new ColumnarFile(file, buffer, Collections.unmodifiableList(groups));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public List<RowGroup> getRowGroups() {
+        return rowGroups;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getSizeBytes() {
+        return buffer.capacity();
+    }
+
+    /** The ids of one row group in stored order, decoding only the id column. */
+    public long[] readIds(int group) {
+        return readLongColumn(group, 0);
+    }
+
+    /** The customer ids of one row group in stored order, decoding only that column. */
+    public long[] readCustomerIds(int group) {
+        return readLongColumn(group, 1);
+    }
+
+    private long[] readLongColumn(int group, int column) {
+        RowGroup rowGroup = rowGroups.get(group);
+        ByteBuffer values = inflate(columns(rowGroup)[column]);
+        long[] result = new long[rowGroup.rowCount()];
+        long previous = 0;
+        for (int i = 0; i < result.length; i++) {
+            previous += readSigned(values);
+            result[i] = previous;
+        }
+        return result;
+    }
+
+    public List<InteractionView> read(int group) {
+        RowGroup rowGroup = rowGroups.get(group);
+        int count = rowGroup.rowCount();
+        Block[] blocks = columns(rowGroup);
+        ByteBuffer ids = inflate(blocks[0]);
+        ByteBuffer customerIds = inflate(blocks[1]);
+        ByteBuffer typeColumn = inflate(blocks[2]);
+        ByteBuffer statusColumn = inflate(blocks[3]);
+        ByteBuffer dates = inflate(blocks[4]);
+        ByteBuffer breaches = inflate(blocks[5]);
+        ByteBuffer descriptions = inflate(blocks[6]);
+        String[] types = readDictionary(typeColumn);
+        String[] statuses = readDictionary(statusColumn);
+
+        List<InteractionView> result = new ArrayList<>(count);
+        long id = 0, customerId = 0;
+        long[] previousTimes = new long[2];
+        for (int i = 0; i < count; i++) {
+            id += readSigned(ids);
+            customerId += readSigned(customerIds);
+            String type = types[typeColumn.get() & 0xFF];
+            String status = statuses[statusColumn.get() & 0xFF];
+            LocalDateTime date = readTime(dates, previousTimes, 0);
+            LocalDateTime breachedAt = readTime(breaches, previousTimes, 1);
+            result.add(new InteractionView(id, customerId, type != null ? InteractionType.valueOf(type) : null,
+                    readString(descriptions), status != null ? InteractionStatus.valueOf(status) : null,
+                    date, breachedAt));
+        }
+        return result;
+    }
+
+    public static Long toMicros(LocalDateTime value) {
+        if (value == null) {
+            return null;
+        }
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // The seven column blocks of a group as slices of the mapping
+    private Block[] columns(RowGroup group) {
+        Block[] blocks = new Block[ColumnarWriter.COLUMNS];
+        int position = (int) group.offset();
+        for (int i = 0; i < blocks.length; i++) {
+            int rawLength = buffer.getInt(position);
+            int compressedLength = buffer.getInt(position + 4);
+            blocks[i] = new Block(buffer.slice(position + 8, compressedLength), rawLength);
+            position += 8 + compressedLength;
+        }
+        return blocks;
+    }
+
+    private ByteBuffer inflate(Block block) {
+        byte[] raw = new byte[block.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block.compressed());
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, raw.length - length);
+                if (read == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Column block in " + file + " is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Column block in " + file + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private record Block(ByteBuffer compressed, int rawLength) {
+    }
+
+    private static String[] readDictionary(ByteBuffer column) {
+        int size = (int) readUnsigned(column);
+        String[] values = new String[size + 1];
+        for (int i = 1; i <= size; i++) {
+            values[i] = readString(column);
+        }
+        return values;
+    }
+
+    private static LocalDateTime readTime(ByteBuffer column, long[] previous, int slot) {
+        long encoded = readUnsigned(column);
+        if (encoded == 0) {
+            return null;
+        }
+        long zigzag = encoded - 1;
+        previous[slot] += (zigzag >>> 1) ^ -(zigzag & 1);
+        return fromMicros(previous[slot]);
+    }
+
+    private static String readString(ByteBuffer column) {
+        long length = readUnsigned(column);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) length - 1];
+        column.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readSigned(ByteBuffer column) {
+        long zigzag = readUnsigned(column);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static long readUnsigned(ByteBuffer column) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = column.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,236 @@
+package com.examly.springapp.storage;
+
+import com.examly.springapp.dto.InteractionView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes interactions in the columnar format read by {@link ColumnarFile}.
+ * Rows are buffered into row groups of rowGroupSize; each group is written as
+ * seven deflated column blocks, so only one group is ever held in memory and
+ * the output can be a file or a response stream.
+ *
+ * File layout: int magic, byte version, the row groups, then the footer: int
+ * group count and per group its offset, length, row count and min/max of id,
+ * customer id and interaction date; finally int footer length and int magic.
+ *
+ * Column block: int raw length, int deflated length, deflated bytes. Ids and
+ * customer ids are zigzag varint deltas from the previous row; type and status
+ * are a per-group dictionary followed by one byte code per row (0 for null);
+ * timestamps are epoch microseconds as varint (0 for null, else zigzag delta
+ * from the previous non-null value + 1); descriptions are varint length + 1
+ * (0 for null) and UTF-8 bytes.
+ */
+public final class ColumnarWriter implements Closeable {
+
+    static final int MAGIC = 0x434F4C31; // "COL1"
+    static final byte VERSION = 1;
+    static final int COLUMNS = 7;
+
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+    private final List<InteractionView> rows = new ArrayList<>();
+    private final List<ColumnarFile.RowGroup> groups = new ArrayList<>();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private long position;
+    private long rowCount;
+    private boolean finished;
+
+    public ColumnarWriter(OutputStream out, int rowGroupSize) throws IOException {
+        if (rowGroupSize < 1) {
+            throw new IllegalArgumentException("Row group size must be positive");
+        }
+        this.out = new DataOutputStream(out);
+        this.rowGroupSize = rowGroupSize;
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        position = 5;
+    }
+
+    public void write(InteractionView row) throws IOException {
+        rows.add(row);
+        if (rows.size() == rowGroupSize) {
+            writeGroup();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount + rows.size();
+    }
+
+    /** Writes the last row group and the footer and flushes, leaving the stream open. */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        writeGroup();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(bytes);
+        footer.writeInt(groups.size());
+        for (ColumnarFile.RowGroup group : groups) {
+            footer.writeLong(group.offset());
+            footer.writeInt(group.length());
+            footer.writeInt(group.rowCount());
+            footer.writeLong(group.minId());
+            footer.writeLong(group.maxId());
+            footer.writeLong(group.minCustomerId());
+            footer.writeLong(group.maxCustomerId());
+            footer.writeLong(group.minDate());
+            footer.writeLong(group.maxDate());
+        }
+        out.write(bytes.toByteArray());
+        out.writeInt(bytes.size());
+        out.writeInt(MAGIC);
+        out.flush();
+        deflater.end();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeGroup() throws IOException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        ColumnBuffer ids = new ColumnBuffer();
+        ColumnBuffer customerIds = new ColumnBuffer();
+        ColumnBuffer dates = new ColumnBuffer();
+        ColumnBuffer breaches = new ColumnBuffer();
+        ColumnBuffer descriptions = new ColumnBuffer();
+        Map<String, Integer> types = new LinkedHashMap<>();
+        Map<String, Integer> statuses = new LinkedHashMap<>();
+        byte[] typeCodes = new byte[rows.size()];
+        byte[] statusCodes = new byte[rows.size()];
+
+        long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+        long minCustomer = Long.MAX_VALUE, maxCustomer = Long.MIN_VALUE;
+        long minDate = Long.MAX_VALUE, maxDate = Long.MIN_VALUE;
+        long previousId = 0, previousCustomer = 0;
+        long[] previousTimes = new long[2];
+        for (int i = 0; i < rows.size(); i++) {
+            InteractionView row = rows.get(i);
+            long id = row.id();
+            long customerId = row.customerId();
+            ids.writeSigned(id - previousId);
+            customerIds.writeSigned(customerId - previousCustomer);
+            previousId = id;
+            previousCustomer = customerId;
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+            minCustomer = Math.min(minCustomer, customerId);
+            maxCustomer = Math.max(maxCustomer, customerId);
+
+            typeCodes[i] = code(types, row.interactionType() != null ? row.interactionType().name() : null);
+            statusCodes[i] = code(statuses, row.status() != null ? row.status().name() : null);
+
+            Long date = ColumnarFile.toMicros(row.interactionDate());
+            if (date != null) {
+                minDate = Math.min(minDate, date);
+                maxDate = Math.max(maxDate, date);
+            }
+            writeTime(dates, date, previousTimes, 0);
+            writeTime(breaches, ColumnarFile.toMicros(row.slaBreachedAt()), previousTimes, 1);
+            descriptions.writeString(row.description());
+        }
+
+        ByteArrayOutputStream group = new ByteArrayOutputStream();
+        DataOutputStream block = new DataOutputStream(group);
+        writeColumn(block, ids.toByteArray());
+        writeColumn(block, customerIds.toByteArray());
+        writeColumn(block, dictionary(types, typeCodes));
+        writeColumn(block, dictionary(statuses, statusCodes));
+        writeColumn(block, dates.toByteArray());
+        writeColumn(block, breaches.toByteArray());
+        writeColumn(block, descriptions.toByteArray());
+
+        out.write(group.toByteArray());
+        groups.add(new ColumnarFile.RowGroup(position, group.size(), rows.size(), minId, maxId,
+                minCustomer, maxCustomer, minDate, maxDate));
+        position += group.size();
+        rowCount += rows.size();
+        rows.clear();
+    }
+
+    private static byte code(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return 0;
+        }
+        return (byte) (int) dictionary.computeIfAbsent(value, key -> dictionary.size() + 1);
+    }
+
+    private static void writeTime(ColumnBuffer column, Long micros, long[] previous, int slot) {
+        if (micros == null) {
+            column.writeUnsigned(0);
+            return;
+        }
+        long delta = micros - previous[slot];
+        column.writeUnsigned(((delta << 1) ^ (delta >> 63)) + 1);
+        previous[slot] = micros;
+    }
+
+    private static byte[] dictionary(Map<String, Integer> dictionary, byte[] codes) {
+        ColumnBuffer column = new ColumnBuffer();
+        column.writeUnsigned(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            column.writeString(value);
+        }
+        column.write(codes, 0, codes.length);
+        return column.toByteArray();
+    }
+
+    private void writeColumn(DataOutputStream block, byte[] raw) throws IOException {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        block.writeInt(raw.length);
+        block.writeInt(compressed.size());
+        compressed.writeTo(block);
+    }
+
+    private static final class ColumnBuffer extends ByteArrayOutputStream {
+
+        void writeUnsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeUnsigned(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeUnsigned(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.examly.springapp.storage;
+
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.index.OffHeapLongLongMap;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for interactions: a directory of immutable {@link ColumnarFile}s
+ * (interactions-000000000001.col, ...), one per archived chunk. Rows inside a
+ * file are sorted by customer id, so a customer's history is read from the few
+ * row groups whose customer range covers it.
+ *
+ * An off-heap map from interaction id to (file number, row group) is built at
+ * open from the id columns alone, so a point lookup decodes one row group. If
+ * an id was archived twice (a chunk whose delete did not commit and was moved
+ * again later), the newest file wins. A second off-heap map lists the row
+ * groups holding each customer, built from the customer id columns, so a
+ * customer's history decodes only those groups.
+ *
+ * Files are immutable except for {@link #compact}, which rewrites a file
+ * without the rows of customers that no longer exist and without copies
+ * superseded by a newer file.
+ *
+ * A file is written to a temporary name, forced and renamed into place, so a
+ * crash never leaves a partial file behind. Opening the same directory twice in
+ * one JVM returns the same instance; the directory is also locked against other
+ * processes.
+ */
+public final class InteractionArchive implements Closeable {
+
+    private static final String PREFIX = "interactions-";
+    private static final String SUFFIX = ".col";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final Map<Path, InteractionArchive> OPEN = new HashMap<>();
+
+    // customerIndex keys: (customerId << SLOT_BITS) | slot. Slot 0 holds the number of
+    // locations, slots 1..n the (file number, row group) locations of the customer
+    private static final int SLOT_BITS = 20;
+    private static final long MAX_LOCATIONS = (1L << SLOT_BITS) - 1;
+
+    private final Path dir;
+    private final int rowGroupSize;
+    private final TreeMap<Integer, ColumnarFile> files = new TreeMap<>();
+    private final OffHeapLongLongMap idIndex = new OffHeapLongLongMap(1 << 16);
+    private final OffHeapLongLongMap customerIndex = new OffHeapLongLongMap(1 << 16);
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private final Object compactionLock = new Object();
+    private int references;
+    private long archivedSinceStart;
+
+    private InteractionArchive(Path dir, int rowGroupSize) {
+        this.dir = dir;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public static InteractionArchive open(Path dir, int rowGroupSize) throws IOException {
+        Path key = dir.toAbsolutePath().normalize();
+        synchronized (OPEN) {
+            InteractionArchive archive = OPEN.get(key);
+            if (archive == null) {
+                archive = new InteractionArchive(key, rowGroupSize);
+                archive.load();
+                OPEN.put(key, archive);
+            }
+            archive.references++;
+            return archive;
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve("archive.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Interaction archive " + dir + " is in use by another process");
+        }
+        List<Path> paths;
+        try (Stream<Path> list = Files.list(dir)) {
+            paths = list.filter(path -> path.getFileName().toString().startsWith(PREFIX)).sorted().toList();
+        }
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                // left by a crash before the rename; its rows are still in the database
+                Files.delete(path);
+            } else if (name.endsWith(SUFFIX)) {
+                int number = Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                add(number, ColumnarFile.open(path));
+            }
+        }
+    }
+
+    /** Writes the rows as a new archive file and makes them readable; returns once the file is on disk. */
+    public synchronized void append(List<InteractionView> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<InteractionView> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(InteractionView::customerId).thenComparing(InteractionView::id));
+
+        int number = files.isEmpty() ? 1 : files.lastKey() + 1;
+        Path target = dir.resolve(String.format("%s%012d%s", PREFIX, number, SUFFIX));
+        Path temp = write(target, sorted);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        add(number, ColumnarFile.open(target));
+        archivedSinceStart += rows.size();
+    }
+
+    // Writes rows sorted by customer id next to target and forces them to disk; the caller renames
+    private Path write(Path target, List<InteractionView> sorted) throws IOException {
+        Path temp = dir.resolve(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            ColumnarWriter writer = new ColumnarWriter(new BufferedOutputStream(out, 1 << 16), rowGroupSize);
+            for (InteractionView row : sorted) {
+                writer.write(row);
+            }
+            writer.finish();
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    public Optional<InteractionView> findById(long id) {
+        if (id == 0) {
+            return Optional.empty();
+        }
+        long location;
+        ColumnarFile file;
+        // Together, so that a compaction cannot swap the file between the two
+        synchronized (this) {
+            location = idIndex.get(id);
+            if (location == OffHeapLongLongMap.NO_VALUE) {
+                return Optional.empty();
+            }
+            file = files.get((int) (location >>> 32));
+        }
+        return file.read((int) location).stream().filter(row -> row.id() == id).findFirst();
+    }
+
+    public boolean contains(long id) {
+        return id != 0 && idIndex.get(id) != OffHeapLongLongMap.NO_VALUE;
+    }
+
+    /** The customer's archived interactions, ordered by id. */
+    public List<InteractionView> findByCustomerId(long customerId) {
+        long[] locations;
+        List<ColumnarFile> groupFiles = new ArrayList<>();
+        synchronized (this) {
+            locations = locations(customerId);
+            // A compacted file is indexed again after newer ones, so restore file order
+            Arrays.sort(locations);
+            for (long location : locations) {
+                groupFiles.add(files.get((int) (location >>> 32)));
+            }
+        }
+        Map<Long, InteractionView> rows = new TreeMap<>();
+        for (int i = 0; i < locations.length; i++) {
+            for (InteractionView row : groupFiles.get(i).read((int) locations[i])) {
+                if (row.customerId() == customerId) {
+                    // Later locations are in newer files, whose copy of an id wins
+                    rows.put(row.id(), row);
+                }
+            }
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Feeds every archived interaction with from <= interactionDate < to (epoch
+     * microseconds, null for unbounded) to the consumer, one decoded row group
+     * at a time. Groups whose date range misses the window are skipped unread.
+     */
+    public void scan(Long fromMicros, Long toMicros, Consumer<InteractionView> consumer) {
+        List<ColumnarFile> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(files.values());
+        }
+        boolean bounded = fromMicros != null || toMicros != null;
+        long from = fromMicros != null ? fromMicros : Long.MIN_VALUE;
+        long to = toMicros != null ? toMicros : Long.MAX_VALUE;
+        for (ColumnarFile file : snapshot) {
+            List<ColumnarFile.RowGroup> groups = file.getRowGroups();
+            for (int i = 0; i < groups.size(); i++) {
+                if (bounded && !groups.get(i).mayContainDates(from, to)) {
+                    continue;
+                }
+                for (InteractionView row : file.read(i)) {
+                    Long date = ColumnarFile.toMicros(row.interactionDate());
+                    if (!bounded || (date != null && date >= from && date < to)) {
+                        consumer.accept(row);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites each file that holds rows of customers liveCustomers no longer
+     * reports, or ids archived again in a newer file, without those rows; a
+     * file left empty is deleted. liveCustomers gets the distinct customer ids
+     * of one row group and returns those that still exist. Only one file is
+     * locked against readers at a time. Returns the number of rows dropped.
+     */
+    public long compact(Function<List<Long>, Set<Long>> liveCustomers) throws IOException {
+        synchronized (compactionLock) {
+            List<Map.Entry<Integer, ColumnarFile>> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(files.entrySet());
+            }
+            long dropped = 0;
+            for (Map.Entry<Integer, ColumnarFile> entry : snapshot) {
+                dropped += compact(entry.getKey(), entry.getValue(), liveCustomers);
+            }
+            return dropped;
+        }
+    }
+
+    private long compact(int number, ColumnarFile file, Function<List<Long>, Set<Long>> liveCustomers)
+            throws IOException {
+        List<InteractionView> kept = new ArrayList<>();
+        long rows = 0;
+        for (int group = 0; group < file.getRowGroups().size(); group++) {
+            List<InteractionView> groupRows = file.read(group);
+            rows += groupRows.size();
+            Set<Long> live = liveCustomers.apply(groupRows.stream().map(InteractionView::customerId).distinct().toList());
+            long location = location(number, group);
+            for (InteractionView row : groupRows) {
+                if (live.contains(row.customerId()) && idIndex.get(row.id()) == location) {
+                    kept.add(row);
+                }
+            }
+        }
+        if (kept.size() == rows) {
+            return 0;
+        }
+        // Written before taking the lock; appends only add newer files, so this one stays as read
+        Path temp = kept.isEmpty() ? null : write(file.getFile(), kept);
+        synchronized (this) {
+            for (int group = 0; group < file.getRowGroups().size(); group++) {
+                for (long id : file.readIds(group)) {
+                    idIndex.remove(id, location(number, group));
+                }
+                long previous = 0;
+                for (long customerId : file.readCustomerIds(group)) {
+                    if (customerId != previous) {
+                        removeLocations(customerId, number);
+                        previous = customerId;
+                    }
+                }
+            }
+            if (temp == null) {
+                files.remove(number);
+                Files.delete(file.getFile());
+            } else {
+                // Readers holding the old file keep their mapping of it. An id archived
+                // again since the rows were read keeps pointing at the newer file
+                Files.move(temp, file.getFile(), StandardCopyOption.ATOMIC_MOVE);
+                add(number, ColumnarFile.open(file.getFile()), true);
+            }
+        }
+        return rows - kept.size();
+    }
+
+    /** Deletes every archive file, e.g. before a restore replaces the interactions. */
+    public synchronized void clear() throws IOException {
+        for (ColumnarFile file : files.values()) {
+            Files.deleteIfExists(file.getFile());
+        }
+        files.clear();
+        idIndex.clear();
+        customerIndex.clear();
+    }
+
+    /** Distinct archived interactions. */
+    public long count() {
+        return idIndex.size();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long bytes = 0;
+        int rowGroups = 0;
+        for (ColumnarFile file : files.values()) {
+            bytes += file.getSizeBytes();
+            rowGroups += file.getRowGroups().size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", dir.toString());
+        stats.put("files", files.size());
+        stats.put("rowGroups", rowGroups);
+        stats.put("interactions", count());
+        stats.put("bytes", bytes);
+        stats.put("archivedSinceStart", archivedSinceStart);
+        return stats;
+    }
+
+    private void add(int number, ColumnarFile file) {
+        add(number, file, false);
+    }
+
+    private void add(int number, ColumnarFile file, boolean keepIndexedIds) {
+        files.put(number, file);
+        for (int group = 0; group < file.getRowGroups().size(); group++) {
+            long location = location(number, group);
+            for (long id : file.readIds(group)) {
+                if (!keepIndexedIds || idIndex.get(id) == OffHeapLongLongMap.NO_VALUE) {
+                    idIndex.put(id, location);
+                }
+            }
+            long previous = 0;
+            for (long customerId : file.readCustomerIds(group)) {
+                // Rows are sorted by customer, so each customer of the group comes as one run
+                if (customerId != previous) {
+                    addLocation(customerId, location);
+                    previous = customerId;
+                }
+            }
+        }
+    }
+
+    private static long location(int number, int group) {
+        return ((long) number << 32) | group;
+    }
+
+    private static long slot(long customerId, long slot) {
+        return (customerId << SLOT_BITS) | slot;
+    }
+
+    private long[] locations(long customerId) {
+        long count = customerIndex.get(slot(customerId, 0));
+        if (count == OffHeapLongLongMap.NO_VALUE) {
+            return new long[0];
+        }
+        long[] locations = new long[(int) count];
+        for (int i = 0; i < count; i++) {
+            locations[i] = customerIndex.get(slot(customerId, i + 1));
+        }
+        return locations;
+    }
+
+    private void addLocation(long customerId, long location) {
+        long count = customerIndex.get(slot(customerId, 0));
+        count = count == OffHeapLongLongMap.NO_VALUE ? 1 : count + 1;
+        if (count > MAX_LOCATIONS) {
+            throw new IllegalStateException("Customer " + customerId + " spans more than " + MAX_LOCATIONS
+                    + " archived row groups; compact the archive");
+        }
+        customerIndex.put(slot(customerId, count), location);
+        customerIndex.put(slot(customerId, 0), count);
+    }
+
+    // Drops the customer's locations in the given file, keeping the others in order
+    private void removeLocations(long customerId, int number) {
+        long[] locations = locations(customerId);
+        int kept = 0;
+        for (long location : locations) {
+            if ((int) (location >>> 32) != number) {
+                customerIndex.put(slot(customerId, ++kept), location);
+            }
+        }
+        for (int slot = kept + 1; slot <= locations.length; slot++) {
+            customerIndex.remove(slot(customerId, slot));
+        }
+        if (kept == 0) {
+            customerIndex.remove(slot(customerId, 0));
+        } else {
+            customerIndex.put(slot(customerId, 0), kept);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (OPEN) {
+            if (--references > 0) {
+                return;
+            }
+            OPEN.remove(dir);
+        }
+        synchronized (this) {
+            files.clear();
+            if (lock != null) {
+                lock.release();
+                lockChannel.close();
+            }
+        }
+    }
+}
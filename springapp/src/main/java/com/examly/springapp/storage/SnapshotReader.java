@@ -0,0 +1,141 @@
+package com.examly.springapp.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a snapshot written by {@link SnapshotWriter} one block at a time.
+ * {@link #next()} only reads the compressed bytes; {@link Block#decode()}
+ * inflates, checks and decodes them, and can run on another thread.
+ */
+public final class SnapshotReader implements Closeable {
+
+    /** One block of rows of a single table, still compressed. */
+    public record Block(SnapshotTable table, int rowCount, int rawLength, int crc, byte[] compressed) {
+
+        /** Rows as column values in SnapshotTable order: Long, String, LocalDate, LocalDateTime. */
+        public List<Object[]> decode() throws IOException {
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int length = 0;
+                while (length < raw.length && !inflater.finished()) {
+                    int read = inflater.inflate(raw, length, raw.length - length);
+                    if (read == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    length += read;
+                }
+                if (length != raw.length) {
+                    throw new IOException("Snapshot block of " + table + " is truncated");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Snapshot block of " + table + " is corrupt", e);
+            } finally {
+                inflater.end();
+            }
+            CRC32 check = new CRC32();
+            check.update(raw);
+            if ((int) check.getValue() != crc) {
+                throw new IOException("Snapshot block of " + table + " fails its checksum");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            List<SnapshotTable.Column> columns = table.getColumns();
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                Object[] row = new Object[columns.size()];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = readValue(in, columns.get(c).type());
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        private static Object readValue(DataInputStream in, SnapshotTable.ColumnType type) throws IOException {
+            if (type == SnapshotTable.ColumnType.STRING) {
+                int length = in.readInt();
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (!in.readBoolean()) {
+                return null;
+            }
+            long value = in.readLong();
+            return switch (type) {
+                case LONG -> value;
+                case DATE -> LocalDate.ofEpochDay(value);
+                case TIMESTAMP -> ColumnarFile.fromMicros(value);
+                default -> throw new IllegalStateException("Unhandled column type " + type);
+            };
+        }
+    }
+
+    private final DataInputStream in;
+    private final long createdAtMillis;
+
+    public SnapshotReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        try {
+            if (this.in.readInt() != SnapshotWriter.MAGIC) {
+                throw new IOException("Not a snapshot file");
+            }
+            byte version = this.in.readByte();
+            if (version != SnapshotWriter.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            this.createdAtMillis = this.in.readLong();
+        } catch (EOFException e) {
+            throw new IOException("Snapshot file is truncated", e);
+        }
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /** The next block, or null after the end marker. */
+    public Block next() throws IOException {
+        try {
+            int tag = in.readUnsignedByte();
+            if (tag == 0) {
+                return null;
+            }
+            SnapshotTable table = SnapshotTable.ofTag(tag);
+            if (table == null) {
+                throw new IOException("Unknown snapshot table tag " + tag);
+            }
+            int rowCount = in.readInt();
+            int rawLength = in.readInt();
+            int compressedLength = in.readInt();
+            int crc = in.readInt();
+            byte[] compressed = new byte[compressedLength];
+            in.readFully(compressed);
+            return new Block(table, rowCount, rawLength, crc, compressed);
+        } catch (EOFException e) {
+            throw new IOException("Snapshot file is truncated", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.examly.springapp.storage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tables captured by a dataset snapshot, in restore order (parents before the
+ * rows that reference them), with the columns stored for each.
+ */
+public enum SnapshotTable {
+
+    USERS(1, "users",
+            column("id", ColumnType.LONG), column("username", ColumnType.STRING),
+            column("password", ColumnType.STRING), column("role", ColumnType.STRING)),
+    CUSTOMERS(2, "customers",
+            column("id", ColumnType.LONG), column("first_name", ColumnType.STRING),
+            column("last_name", ColumnType.STRING), column("email", ColumnType.STRING),
+            column("phone_number", ColumnType.STRING), column("normalized_phone", ColumnType.STRING),
+            column("customer_type", ColumnType.STRING), column("registration_date", ColumnType.DATE),
+            column("deleted_at", ColumnType.TIMESTAMP)),
+    INTERACTIONS(3, "interactions",
+            column("id", ColumnType.LONG), column("customer_id", ColumnType.LONG),
+            column("interaction_type", ColumnType.STRING), column("description", ColumnType.STRING),
+            column("status", ColumnType.STRING), column("interaction_date", ColumnType.TIMESTAMP),
+            column("sla_breached_at", ColumnType.TIMESTAMP));
+
+    public enum ColumnType {
+        LONG, STRING, DATE, TIMESTAMP
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    private final int tag;
+    private final String tableName;
+    private final List<Column> columns;
+
+    SnapshotTable(int tag, String tableName, Column... columns) {
+        this.tag = tag;
+        this.tableName = tableName;
+        this.columns = List.of(columns);
+    }
+
+    private static Column column(String name, ColumnType type) {
+        return new Column(name, type);
+    }
+
+    public int getTag() {
+        return tag;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public String selectSql() {
+        return "SELECT " + columnList() + " FROM " + tableName + " ORDER BY id";
+    }
+
+    public String insertSql() {
+        return "INSERT INTO " + tableName + " (" + columnList() + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+    }
+
+    static SnapshotTable ofTag(int tag) {
+        for (SnapshotTable table : values()) {
+            if (table.tag == tag) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    private String columnList() {
+        return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,133 @@
+package com.examly.springapp.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a dataset snapshot: int magic, byte version, long creation time in
+ * epoch millis, then blocks of up to blockRows rows of one table, then a zero
+ * byte. Block: byte table tag, int row count, int raw length, int deflated
+ * length, int CRC32 of the raw bytes, deflated bytes. Blocks decode on their
+ * own, so a restore can insert them in parallel.
+ *
+ * Rows are encoded column by column in {@link SnapshotTable} order: LONG,
+ * DATE (epoch day) and TIMESTAMP (epoch microseconds) as a presence byte and a
+ * long, STRING as int length (-1 for null) and UTF-8 bytes.
+ */
+public final class SnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x43524D53; // "CRMS"
+    static final byte VERSION = 1;
+
+    private final DataOutputStream out;
+    private final int blockRows;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream blockData = new DataOutputStream(block);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Map<SnapshotTable, Long> rowCounts = new EnumMap<>(SnapshotTable.class);
+    private SnapshotTable table;
+    private int rowsInBlock;
+    private boolean finished;
+
+    public SnapshotWriter(OutputStream out, int blockRows, long createdAtMillis) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.blockRows = blockRows;
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(createdAtMillis);
+    }
+
+    public void write(SnapshotTable rowTable, Object[] row) throws IOException {
+        if (rowTable != table) {
+            writeBlock();
+            table = rowTable;
+        }
+        int i = 0;
+        for (SnapshotTable.Column column : rowTable.getColumns()) {
+            writeValue(column.type(), row[i++]);
+        }
+        rowCounts.merge(rowTable, 1L, Long::sum);
+        if (++rowsInBlock == blockRows) {
+            writeBlock();
+        }
+    }
+
+    /** Writes the last block and the end marker and flushes; returns the rows written per table. */
+    public Map<SnapshotTable, Long> finish() throws IOException {
+        if (!finished) {
+            writeBlock();
+            out.writeByte(0);
+            out.flush();
+            deflater.end();
+            finished = true;
+        }
+        return rowCounts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeValue(SnapshotTable.ColumnType type, Object value) throws IOException {
+        if (type == SnapshotTable.ColumnType.STRING) {
+            if (value == null) {
+                blockData.writeInt(-1);
+            } else {
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                blockData.writeInt(bytes.length);
+                blockData.write(bytes);
+            }
+            return;
+        }
+        blockData.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        switch (type) {
+            case LONG -> blockData.writeLong(((Number) value).longValue());
+            case DATE -> blockData.writeLong(((LocalDate) value).toEpochDay());
+            case TIMESTAMP -> blockData.writeLong(ColumnarFile.toMicros((LocalDateTime) value));
+            default -> throw new IllegalStateException("Unhandled column type " + type);
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (rowsInBlock == 0) {
+            return;
+        }
+        byte[] raw = block.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        out.writeByte(table.getTag());
+        out.writeInt(rowsInBlock);
+        out.writeInt(raw.length);
+        out.writeInt(compressed.size());
+        out.writeInt((int) crc.getValue());
+        compressed.writeTo(out);
+        block.reset();
+        rowsInBlock = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.examly.springapp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the customer id space (0, maxId] into one contiguous slice per worker
+ * and runs a task on every slice in parallel. Shared by the jobs that walk
+ * per-customer history in id order: summary rebuilds, churn scoring and
+ * funnel analysis.
+ */
+public final class IdSlices {
+
+    /** Work on the customer ids in (fromExclusive, toInclusive]. */
+    @FunctionalInterface
+    public interface SliceTask<T> {
+        T run(long fromExclusive, long toInclusive);
+    }
+
+    private IdSlices() {
+    }
+
+    /** Runs the slices on a pool of their own, shut down before returning. */
+    public static <T> List<T> run(long maxId, int workers, String job, SliceTask<T> task) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, workers));
+        try {
+            return run(pool, maxId, workers, job, task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the slices on the given pool and returns their results in id order.
+     * When one slice fails the others are cancelled and the failure is rethrown
+     * as an IllegalStateException naming the job.
+     */
+    public static <T> List<T> run(ExecutorService pool, long maxId, int workers, String job, SliceTask<T> task) {
+        int slices = Math.max(1, workers);
+        long sliceSize = maxId / slices + 1;
+        List<Future<T>> futures = new ArrayList<>(slices);
+        for (int t = 0; t < slices; t++) {
+            long from = t * sliceSize;
+            long to = Math.min(from + sliceSize, maxId);
+            futures.add(pool.submit(() -> task.run(from, to)));
+        }
+        List<T> results = new ArrayList<>(slices);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(job + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(job + " failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+}
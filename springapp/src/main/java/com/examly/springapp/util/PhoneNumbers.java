@@ -0,0 +1,37 @@
+package com.examly.springapp.util;
+
+public final class PhoneNumbers {
+
+    // 18 digits plus the leading sentinel still fits in a signed long
+    private static final int MAX_DIGITS = 18;
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * Reduces a phone number to its digits so "+1 (555) 010-4477" and
+     * "15550104477" compare equal. A leading "00" international prefix is
+     * treated like "+". Returns null when nothing usable is left.
+     */
+    public static String normalize(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String digits = phoneNumber.replaceAll("\\D", "");
+        if (digits.startsWith("00")) {
+            digits = digits.substring(2);
+        }
+        if (digits.isEmpty() || digits.length() > MAX_DIGITS) {
+            return null;
+        }
+        return digits;
+    }
+
+    /**
+     * Packs a normalized number into a non-zero long key. The leading 1 keeps
+     * leading zeros significant ("0123" and "123" get different keys).
+     */
+    public static long toKey(String normalized) {
+        return Long.parseLong("1" + normalized);
+    }
+}
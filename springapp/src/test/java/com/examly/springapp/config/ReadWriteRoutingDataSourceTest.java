@@ -0,0 +1,155 @@
+package com.examly.springapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Routing decisions against two separate in-memory databases, without the replica monitor's schedule
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String PRIMARY = "routing-primary";
+    private static final String REPLICA = "routing-replica";
+
+    private ReadWriteRoutingDataSource routing;
+    private ReadWriteRoutingDataSource.Replica replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new ReadWriteRoutingDataSource.Replica("replica-1", pool("jdbc:h2:mem:" + REPLICA));
+        routing = new ReadWriteRoutingDataSource(pool("jdbc:h2:mem:" + PRIMARY), List.of(replica), 5000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        RequestContextHolder.resetRequestAttributes();
+        routing.close();
+    }
+
+    @Test
+    @DisplayName("testReadOnlyTransactionsUseAHealthyReplica")
+    void testReadOnlyTransactionsUseAHealthyReplica() throws SQLException {
+        // Unchecked replicas stay out of rotation
+        assertThat(readFrom()).isEqualTo(PRIMARY);
+
+        replica.markUp(0);
+        assertThat(readFrom()).isEqualTo(REPLICA);
+        beginTransaction(false);
+        assertThat(connectedTo()).isEqualTo(PRIMARY);
+
+        Map<String, Object> stats = routing.getStats();
+        assertThat(stats.get("replicaReads")).isEqualTo(1L);
+        assertThat(stats.get("fallbackReads")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("testReadsFallBackToPrimaryWhenReplicaIsDownOrLagging")
+    void testReadsFallBackToPrimaryWhenReplicaIsDownOrLagging() throws SQLException {
+        replica.markDown(new SQLException("Connection refused"));
+        assertThat(readFrom()).isEqualTo(PRIMARY);
+
+        replica.markUp(60_000);
+        assertThat(readFrom()).isEqualTo(PRIMARY);
+
+        replica.markUp(10);
+        assertThat(readFrom()).isEqualTo(REPLICA);
+        assertThat(routing.getStats().get("fallbackReads")).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("testRefusedReplicaConnectionIsTakenOutOfRotation")
+    void testRefusedReplicaConnectionIsTakenOutOfRotation() throws SQLException {
+        HikariDataSource unreachable = pool("jdbc:h2:tcp://localhost:1/routing-missing");
+        unreachable.setConnectionTimeout(250);
+        unreachable.setInitializationFailTimeout(-1);
+        ReadWriteRoutingDataSource.Replica broken = new ReadWriteRoutingDataSource.Replica("replica-2", unreachable);
+        routing.close();
+        routing = new ReadWriteRoutingDataSource(pool("jdbc:h2:mem:" + PRIMARY), List.of(broken), 5000, 5000);
+
+        broken.markUp(0);
+        assertThat(readFrom()).isEqualTo(PRIMARY);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = ((List<Map<String, Object>>) routing.getStats().get("replicas")).get(0);
+        assertThat(stats.get("healthy")).isEqualTo(false);
+        assertThat(stats.get("failures")).isEqualTo(1L);
+        assertThat(routing.getStats().get("fallbackReads")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("testWriteKeepsTheRequestAndClientOnPrimary")
+    void testWriteKeepsTheRequestAndClientOnPrimary() throws SQLException {
+        replica.markUp(0);
+
+        inRequest("10.0.0.1");
+        beginTransaction(false);
+        assertThat(connectedTo()).isEqualTo(PRIMARY);
+        // Later reads in the same request see the write
+        assertThat(readFrom()).isEqualTo(PRIMARY);
+
+        // So do the same client's next requests, for stickyMillis
+        inRequest("10.0.0.1");
+        assertThat(readFrom()).isEqualTo(PRIMARY);
+
+        inRequest("10.0.0.2");
+        assertThat(readFrom()).isEqualTo(REPLICA);
+
+        Map<String, Object> stats = routing.getStats();
+        assertThat(stats.get("stickyReads")).isEqualTo(2L);
+        assertThat(stats.get("stickyClients")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("testOtherCredentialsAreNotSupported")
+    void testOtherCredentialsAreNotSupported() {
+        assertThatThrownBy(() -> routing.getConnection("other", "secret"))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void inRequest(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private String readFrom() throws SQLException {
+        beginTransaction(true);
+        return connectedTo();
+    }
+
+    // The name of the database the connection was opened on
+    private String connectedTo() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getCatalog().toLowerCase();
+        }
+    }
+}
@@ -1,9 +1,24 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.event.ChangeType;
 import com.examly.springapp.model.Customer;
 import com.examly.springapp.model.CustomerType;
+import com.examly.springapp.model.Interaction;
+import com.examly.springapp.model.InteractionStatus;
+import com.examly.springapp.model.InteractionType;
+import com.examly.springapp.model.User;
 import com.examly.springapp.repository.CustomerRepository;
+import com.examly.springapp.repository.CustomerSummaryRepository;
+import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.repository.OutboxEventRepository;
+import com.examly.springapp.repository.UserRepository;
+import com.examly.springapp.service.ChangeFeedService;
+import com.examly.springapp.service.CustomerPurgeService;
+import com.examly.springapp.service.CustomerService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,13 +27,31 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.examly.springapp.config.TestConfig;
 
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,9 +67,36 @@ class CustomerControllerTest {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private InteractionRepository interactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CustomerPurgeService customerPurgeService;
+
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @BeforeEach
     void setUp() {
         customerRepository.deleteAll();
@@ -107,6 +167,22 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.message", containsString("already exists")));
     }
 
+    @Test
+    @DisplayName("testOtherIntegrityViolationIsNotReportedAsDuplicate")
+    void testOtherIntegrityViolationIsNotReportedAsDuplicate() {
+        Customer customer = new Customer();
+        customer.setFirstName("John");
+        customer.setLastName("x".repeat(300)); // longer than the column
+        customer.setEmail("long.name@example.com");
+        customer.setCustomerType(CustomerType.REGULAR);
+
+        assertThatThrownBy(() -> mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer))))
+                .hasRootCauseInstanceOf(SQLException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
     @Test
     @DisplayName("testCreateCustomerWithInvalidCustomerType")
     void testCreateCustomerWithInvalidCustomerType() throws Exception {
@@ -167,4 +243,691 @@ class CustomerControllerTest {
         result.andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message", containsString("not found")));
     }
+
+    @Test
+    @DisplayName("testSearchCustomersByPrefixAndTypo")
+    void testSearchCustomersByPrefixAndTypo() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Bartholomew");
+        customer.setLastName("Quigley");
+        customer.setEmail("bart.quigley@example.com");
+        customer.setPhoneNumber("+1 (555) 010-4477");
+        customer.setCustomerType(CustomerType.VIP);
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/customers/search").param("q", "barth qui"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value("bart.quigley@example.com"));
+
+        mockMvc.perform(get("/api/customers/search").param("q", "quiglye"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Quigley"));
+
+        mockMvc.perform(get("/api/customers/search").param("q", "1555010"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("Bartholomew"));
+    }
+
+    @Test
+    @DisplayName("testGetCustomerByPhone")
+    void testGetCustomerByPhone() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Caller");
+        customer.setLastName("Id");
+        customer.setEmail("caller.id@example.com");
+        customer.setPhoneNumber("+44 20 7946 0958");
+        customer.setCustomerType(CustomerType.REGULAR);
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/customers/by-phone/00442079460958"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("caller.id@example.com"))
+                .andExpect(jsonPath("$.phoneNumber").value("+44 20 7946 0958"));
+
+        mockMvc.perform(get("/api/customers/by-phone/5550000000"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", containsString("not found")));
+    }
+
+    @Test
+    @DisplayName("testNormalizedPhoneBackfill")
+    void testNormalizedPhoneBackfill() {
+        Customer customer = new Customer("Old", "Row", "old.row@example.com", CustomerType.REGULAR);
+        customer.setPhoneNumber("+1 (555) 010-9911");
+        long id = customerRepository.save(customer).getId();
+        // As written before the column existed
+        jdbcTemplate.update("UPDATE customers SET normalized_phone = NULL WHERE id = ?", id);
+
+        assertThat(customerService.backfillNormalizedPhones(0L, 10)).isEqualTo(id);
+        assertThat(customerRepository.findFirstByNormalizedPhoneOrderByIdDesc("15550109911"))
+                .hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(id));
+        assertThat(customerService.backfillNormalizedPhones(0L, 10)).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("testDeleteCustomerWithInteractions")
+    void testDeleteCustomerWithInteractions() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Gone");
+        customer.setLastName("Soon");
+        customer.setEmail("gone.soon@example.com");
+        customer.setCustomerType(CustomerType.REGULAR);
+        customer.setRegistrationDate(LocalDate.now());
+        Customer saved = customerRepository.save(customer);
+        for (int i = 0; i < 5; i++) {
+            Interaction interaction = new Interaction();
+            interaction.setCustomerId(saved.getId());
+            interaction.setInteractionType(InteractionType.INQUIRY);
+            interaction.setStatus(InteractionStatus.OPEN);
+            interaction.setDescription("Question " + i);
+            interactionRepository.save(interaction);
+        }
+
+        mockMvc.perform(delete("/api/customers/" + saved.getId()))
+                .andExpect(status().isNoContent());
+
+        assertThat(interactionRepository.countByCustomerId(saved.getId())).isZero();
+        mockMvc.perform(get("/api/customers/" + saved.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("testDeleteCommitsSummaryAndChangeFeedWithTheRow")
+    void testDeleteCommitsSummaryAndChangeFeedWithTheRow() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Summed");
+        customer.setLastName("Up");
+        customer.setEmail("summed.up@example.com");
+        customer.setCustomerType(CustomerType.REGULAR);
+        long id = objectMapper.readTree(mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        assertThat(customerSummaryRepository.existsById(id)).isTrue();
+        long head = objectMapper.readTree(mockMvc.perform(get("/api/changes").param("since", "0").param("limit", "1"))
+                .andReturn().getResponse().getContentAsString()).get("head").asLong();
+
+        mockMvc.perform(delete("/api/customers/" + id))
+                .andExpect(status().isNoContent());
+
+        assertThat(customerSummaryRepository.existsById(id)).isFalse();
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(head)))
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].entityId").value(id))
+                .andExpect(jsonPath("$.changes[0].changeType").value("DELETED"));
+    }
+
+    @Test
+    @DisplayName("testSoftDeletedCustomerHidesInteractionsAndReleasesEmail")
+    void testSoftDeletedCustomerHidesInteractionsAndReleasesEmail() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Soft");
+        customer.setLastName("Gone");
+        customer.setEmail("soft.gone@example.com");
+        customer.setCustomerType(CustomerType.REGULAR);
+        customer.setRegistrationDate(LocalDate.now());
+        Customer saved = customerRepository.save(customer);
+        Interaction interaction = new Interaction();
+        interaction.setCustomerId(saved.getId());
+        interaction.setInteractionType(InteractionType.INQUIRY);
+        interaction.setStatus(InteractionStatus.OPEN);
+        interaction.setDescription("Still there");
+        interaction.setInteractionDate(LocalDateTime.now());
+        Long interactionId = interactionRepository.save(interaction).getId();
+
+        // What deleteCustomer does before the purge, which app.customers.soft-delete=true defers
+        customerRepository.markDeleted(saved.getId(), LocalDateTime.now());
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        assertThat(interactionRepository.findLatestByCustomerAndTypeSince(since))
+                .noneMatch(row -> saved.getId().equals(row[0]));
+        assertThat(interactionRepository.countMonthlyByCustomerSince(since, InteractionType.PURCHASE))
+                .noneMatch(row -> saved.getId().equals(row[0]));
+        List<Long> exported = new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<InteractionView> rows = interactionRepository.streamViewsForExport(since, null)) {
+                return rows.map(InteractionView::id).toList();
+            }
+        });
+        assertThat(exported).doesNotContain(interactionId);
+
+        mockMvc.perform(get("/api/customers/" + saved.getId() + "/interactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/interactions/" + interactionId)))
+                .hasRootCauseMessage("Interaction not found");
+        mockMvc.perform(post("/api/interactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerId\": " + saved.getId()
+                        + ", \"interactionType\": \"INQUIRY\", \"description\": \"Late\", \"status\": \"OPEN\"}"))
+                .andExpect(status().isNotFound());
+
+        Customer again = new Customer();
+        again.setFirstName("Soft");
+        again.setLastName("Back");
+        again.setEmail("soft.gone@example.com");
+        again.setCustomerType(CustomerType.REGULAR);
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(again)))
+                .andExpect(status().isCreated());
+
+        customerPurgeService.purgeSoftDeleted();
+        assertThat(customerRepository.findSoftDeletedIds(10)).isEmpty();
+        assertThat(interactionRepository.existsById(interactionId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("testGetCustomerOverview")
+    void testGetCustomerOverview() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Over");
+        customer.setLastName("View");
+        customer.setEmail("over.view@example.com");
+        customer.setCustomerType(CustomerType.PREMIUM);
+        customer.setRegistrationDate(LocalDate.now());
+        Customer saved = customerRepository.save(customer);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < 4; i++) {
+            Interaction interaction = new Interaction();
+            interaction.setCustomerId(saved.getId());
+            interaction.setInteractionType(i == 0 ? InteractionType.COMPLAINT : InteractionType.PURCHASE);
+            interaction.setStatus(i < 3 ? InteractionStatus.CLOSED : InteractionStatus.OPEN);
+            interaction.setInteractionDate(base.plusDays(i));
+            interactionRepository.save(interaction);
+        }
+
+        mockMvc.perform(get("/api/customers/" + saved.getId() + "/overview").param("recent", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.email").value("over.view@example.com"))
+                .andExpect(jsonPath("$.totalInteractions").value(4))
+                .andExpect(jsonPath("$.interactionsByType.PURCHASE").value(3))
+                .andExpect(jsonPath("$.interactionsByStatus.OPEN").value(1))
+                .andExpect(jsonPath("$.lastContact").value("2024-01-04T09:00:00"))
+                .andExpect(jsonPath("$.recentInteractions", hasSize(2)))
+                .andExpect(jsonPath("$.recentInteractions[0].interactionDate").value("2024-01-04T09:00:00"));
+
+        mockMvc.perform(get("/api/customers/404404/overview"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("testSegmentCountAndMembers")
+    void testSegmentCountAndMembers() throws Exception {
+        String[][] rows = { { "Vera", "VIP" }, { "Victor", "VIP" }, { "Rita", "REGULAR" } };
+        Long complainerId = null;
+        for (String[] row : rows) {
+            Customer customer = new Customer();
+            customer.setFirstName(row[0]);
+            customer.setLastName("Segment");
+            customer.setEmail(row[0].toLowerCase() + "@segtest.example");
+            customer.setCustomerType(CustomerType.valueOf(row[1]));
+            String body = mockMvc.perform(post("/api/customers")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(customer)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            if (complainerId == null) {
+                complainerId = objectMapper.readTree(body).get("id").asLong();
+            }
+        }
+        Interaction complaint = new Interaction();
+        complaint.setCustomerId(complainerId);
+        complaint.setInteractionType(InteractionType.COMPLAINT);
+        complaint.setStatus(InteractionStatus.OPEN);
+        mockMvc.perform(post("/api/interactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(complaint)))
+                .andExpect(status().isCreated());
+
+        String thisMonth = YearMonth.now().toString();
+        mockMvc.perform(get("/api/analytics/segments/count")
+                .param("q", "type:VIP AND domain:segtest.example AND registered:" + thisMonth + " AND recent:COMPLAINT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+        mockMvc.perform(get("/api/analytics/segments/count")
+                .param("q", "domain:segtest.example AND NOT (type:VIP AND recent:COMPLAINT)"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2));
+
+        mockMvc.perform(get("/api/analytics/segments/members")
+                .param("q", "domain:segtest.example type:VIP").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers", hasSize(1)))
+                .andExpect(jsonPath("$.customers[0].firstName").value("Vera"))
+                .andExpect(jsonPath("$.nextAfter").value(complainerId));
+
+        mockMvc.perform(get("/api/analytics/segments/count").param("q", "type:VIP AND"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("testTierScoringProposesPromotion")
+    void testTierScoringProposesPromotion() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Tia");
+        customer.setLastName("Buyer");
+        customer.setEmail("tia.buyer@tiertest.example");
+        customer.setCustomerType(CustomerType.REGULAR);
+        String body = mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long customerId = objectMapper.readTree(body).get("id").asLong();
+
+        for (int i = 0; i < 5; i++) {
+            Interaction purchase = new Interaction();
+            purchase.setCustomerId(customerId);
+            purchase.setInteractionType(InteractionType.PURCHASE);
+            purchase.setStatus(InteractionStatus.RESOLVED);
+            mockMvc.perform(post("/api/interactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(purchase)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(post("/api/customers/tiering/run").param("apply", "false"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.running").value(true));
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String status = mockMvc.perform(get("/api/customers/tiering"))
+                    .andReturn().getResponse().getContentAsString();
+            if (!objectMapper.readTree(status).get("running").asBoolean()) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+
+        mockMvc.perform(get("/api/customers/tiering"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(false))
+                .andExpect(jsonPath("$.lastError").doesNotExist());
+        mockMvc.perform(get("/api/customers/tiering/proposals"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.customerId == " + customerId + ")].proposedType").value(contains("PREMIUM")))
+                .andExpect(jsonPath("$[?(@.customerId == " + customerId + ")].frequency").value(contains(5)));
+        assertThat(customerRepository.findById(customerId).orElseThrow().getCustomerType())
+                .isEqualTo(CustomerType.REGULAR);
+    }
+
+    @Test
+    @DisplayName("testChurnRiskScoring")
+    void testChurnRiskScoring() throws Exception {
+        Customer customer = new Customer();
+        customer.setFirstName("Carl");
+        customer.setLastName("Churn");
+        customer.setEmail("carl.churn@churntest.example");
+        customer.setCustomerType(CustomerType.PREMIUM);
+        String body = mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long customerId = objectMapper.readTree(body).get("id").asLong();
+
+        InteractionType[] types = { InteractionType.PURCHASE, InteractionType.COMPLAINT };
+        InteractionStatus[] statuses = { InteractionStatus.CLOSED, InteractionStatus.OPEN };
+        for (int i = 0; i < types.length; i++) {
+            Interaction interaction = new Interaction();
+            interaction.setCustomerId(customerId);
+            interaction.setInteractionType(types[i]);
+            interaction.setStatus(statuses[i]);
+            mockMvc.perform(post("/api/interactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(interaction)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(post("/api/customers/churn-risk/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers").value(1));
+
+        // 40 * 0.5 complaint ratio + 40 * 0 recency + 20 * 1/5 unresolved
+        mockMvc.perform(get("/api/customers/churn-risk").param("minScore", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(customerId))
+                .andExpect(jsonPath("$[0].score").value(24.0))
+                .andExpect(jsonPath("$[0].complaintRatio").value(0.5))
+                .andExpect(jsonPath("$[0].daysSinceLastPurchase").value(0))
+                .andExpect(jsonPath("$[0].unresolvedItems").value(1));
+        mockMvc.perform(get("/api/customers/churn-risk").param("minScore", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/customers/churn-risk").param("sort", "email"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("testCohortRetentionMatrix")
+    void testCohortRetentionMatrix() throws Exception {
+        YearMonth thisMonth = YearMonth.now();
+        YearMonth lastMonth = thisMonth.minusMonths(1);
+        Customer returning = new Customer("Cora", "Cohort", "cora@cohorttest.example", CustomerType.REGULAR);
+        returning.setRegistrationDate(lastMonth.atDay(1));
+        returning = customerRepository.save(returning);
+        Customer newcomer = customerRepository.save(
+                new Customer("Neil", "Cohort", "neil@cohorttest.example", CustomerType.REGULAR));
+
+        Object[][] activity = {
+                { returning.getId(), lastMonth.atDay(2).atStartOfDay() },
+                { returning.getId(), LocalDateTime.now() },
+                { newcomer.getId(), LocalDateTime.now() } };
+        for (Object[] row : activity) {
+            Interaction interaction = new Interaction();
+            interaction.setCustomerId((Long) row[0]);
+            interaction.setInteractionType(InteractionType.INQUIRY);
+            interaction.setStatus(InteractionStatus.CLOSED);
+            interaction.setInteractionDate((LocalDateTime) row[1]);
+            interactionRepository.save(interaction);
+        }
+
+        mockMvc.perform(get("/api/analytics/cohorts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age")))
+                .andExpect(jsonPath("$.cohorts", hasSize(12)))
+                .andExpect(jsonPath("$.cohorts[10].cohort").value(lastMonth.toString()))
+                .andExpect(jsonPath("$.cohorts[10].customers").value(1))
+                .andExpect(jsonPath("$.cohorts[10].active[0]").value(1))
+                .andExpect(jsonPath("$.cohorts[10].active[1]").value(1))
+                .andExpect(jsonPath("$.cohorts[11].cohort").value(thisMonth.toString()))
+                .andExpect(jsonPath("$.cohorts[11].customers").value(1))
+                .andExpect(jsonPath("$.cohorts[11].active[0]").value(1));
+    }
+
+    @Test
+    @DisplayName("testOutboxDeliversChangesToWebhook")
+    void testOutboxDeliversChangesToWebhook() throws Exception {
+        // Local stub receiver standing in for the ERP webhook
+        ConcurrentLinkedQueue<String> received = new ConcurrentLinkedQueue<>();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/hooks", exchange -> {
+            received.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        stub.start();
+        try {
+            String url = "http://localhost:" + stub.getAddress().getPort() + "/hooks";
+            mockMvc.perform(put("/api/outbox/targets/stub")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Map.of("url", url, "concurrency", 2))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.enabled").value(true));
+            mockMvc.perform(put("/api/outbox/targets/stub")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Map.of("url", "ftp://example.com"))))
+                    .andExpect(status().isBadRequest());
+
+            Customer customer = new Customer("Outbox", "Test", "outbox@example.com", CustomerType.REGULAR);
+            String body = mockMvc.perform(post("/api/customers")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(customer)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            long customerId = objectMapper.readTree(body).get("id").asLong();
+            customer.setCustomerType(CustomerType.VIP);
+            mockMvc.perform(put("/api/customers/" + customerId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(customer)))
+                    .andExpect(status().isOk());
+
+            // Wait for the relay to move the cursor past both events
+            JsonNode target = null;
+            for (int attempt = 0; attempt < 50; attempt++) {
+                target = objectMapper.readTree(mockMvc.perform(get("/api/outbox/targets"))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString()).get(0);
+                if (target.get("delivered").asLong() >= 2) {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+            assertThat(target.get("name").asText()).isEqualTo("stub");
+            assertThat(target.get("delivered").asLong()).isEqualTo(2);
+            assertThat(target.get("pendingEvents").asLong()).isZero();
+
+            List<JsonNode> events = new ArrayList<>();
+            for (String batch : received) {
+                objectMapper.readTree(batch).forEach(events::add);
+            }
+            assertThat(events).hasSize(2);
+            assertThat(events.get(0).get("changeType").asText()).isEqualTo("CREATED");
+            assertThat(events.get(1).get("changeType").asText()).isEqualTo("UPDATED");
+            assertThat(events.get(1).get("customerId").asLong()).isEqualTo(customerId);
+            assertThat(events.get(1).get("data").get("customerType").asText()).isEqualTo("VIP");
+            assertThat(events.get(1).get("eventId").asLong()).isGreaterThan(events.get(0).get("eventId").asLong());
+            // Delivered in commit order: the seqs are the change feed's
+            assertThat(events.get(1).get("seq").asLong()).isGreaterThan(events.get(0).get("seq").asLong());
+        } finally {
+            stub.stop(0);
+            mockMvc.perform(delete("/api/outbox/targets/stub"))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    @Test
+    @DisplayName("testAuditTrailRecordsCustomerChanges")
+    void testAuditTrailRecordsCustomerChanges() throws Exception {
+        // Earlier runs leave records in the same log directory
+        String since = LocalDateTime.now().minusSeconds(1).withNano(0).toString();
+        Customer customer = new Customer("Audit", "Trail", "audit@example.com", CustomerType.REGULAR);
+        String body = mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long customerId = objectMapper.readTree(body).get("id").asLong();
+        customer.setCustomerType(CustomerType.VIP);
+        mockMvc.perform(put("/api/customers/" + customerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/audit")
+                .param("entityType", "customer")
+                .param("entityId", String.valueOf(customerId))
+                .param("from", since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].action").value("UPDATED"))
+                .andExpect(jsonPath("$[0].actor").value("system"))
+                .andExpect(jsonPath("$[0].before.customerType").value("REGULAR"))
+                .andExpect(jsonPath("$[0].after.customerType").value("VIP"))
+                .andExpect(jsonPath("$[1].action").value("CREATED"))
+                .andExpect(jsonPath("$[1].before").doesNotExist())
+                .andExpect(jsonPath("$[1].after.email").value("audit@example.com"));
+        mockMvc.perform(get("/api/audit/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failedWrites").value(0));
+    }
+
+    @Test
+    @DisplayName("testBulkUpdateIsAuditedAsSubmittingUser")
+    void testBulkUpdateIsAuditedAsSubmittingUser() throws Exception {
+        String since = LocalDateTime.now().minusSeconds(1).withNano(0).toString();
+        long customerId = customerRepository.save(
+                new Customer("Bulk", "Audited", "bulk.audited@example.com", CustomerType.REGULAR)).getId();
+
+        // Security filters are off in tests; the controller runs on this thread and sees this context
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+        String jobId;
+        try {
+            jobId = objectMapper.readTree(mockMvc.perform(post("/api/customers/bulk-update")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Map.of("ids", List.of(customerId),
+                            "customerType", "VIP"))))
+                    .andExpect(status().isAccepted())
+                    .andReturn().getResponse().getContentAsString()).get("id").asText();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        JsonNode job = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            job = objectMapper.readTree(mockMvc.perform(get("/api/customers/bulk-update/" + jobId))
+                    .andReturn().getResponse().getContentAsString());
+            if (job.get("finished").asBoolean()) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(job.get("state").asText()).isEqualTo("COMPLETED");
+
+        mockMvc.perform(get("/api/audit")
+                .param("entityType", "customer")
+                .param("entityId", String.valueOf(customerId))
+                .param("from", since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].action").value("UPDATED"))
+                .andExpect(jsonPath("$[0].actor").value("admin"))
+                .andExpect(jsonPath("$[0].after.customerType").value("VIP"));
+    }
+
+    @Test
+    @DisplayName("testSnapshotRestoreReplacesDataset")
+    void testSnapshotRestoreReplacesDataset() throws Exception {
+        Customer kept = new Customer();
+        kept.setFirstName("Kept");
+        kept.setLastName("Customer");
+        kept.setEmail("snap.kept@example.com");
+        kept.setPhoneNumber("555-0101");
+        kept.setCustomerType(CustomerType.VIP);
+        kept.setRegistrationDate(LocalDate.of(2023, 6, 1));
+        kept = customerRepository.save(kept);
+        Interaction interaction = new Interaction();
+        interaction.setCustomerId(kept.getId());
+        interaction.setInteractionType(InteractionType.PURCHASE);
+        interaction.setStatus(InteractionStatus.RESOLVED);
+        interaction.setDescription("Bought the deluxe plan");
+        interaction = interactionRepository.save(interaction);
+        long users = userRepository.count();
+
+        String name = objectMapper.readTree(mockMvc.perform(post("/api/snapshots"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.customers").value(1))
+                .andExpect(jsonPath("$.interactions").value(1))
+                .andReturn().getResponse().getContentAsString()).get("name").asText();
+
+        // Changes made after the snapshot are undone by the restore
+        customerRepository.deleteAll();
+        Customer later = new Customer();
+        later.setFirstName("Later");
+        later.setLastName("Customer");
+        later.setEmail("snap.later@example.com");
+        later.setCustomerType(CustomerType.REGULAR);
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(later)))
+                .andExpect(status().isCreated());
+
+        // Writes are turned away while a restore runs
+        changeFeedService.suspendWrites();
+        Customer rejected = new Customer("During", "Restore", "snap.during@example.com", CustomerType.REGULAR);
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rejected)))
+                .andExpect(status().isServiceUnavailable());
+        User sales = userRepository.findByUsername("sales").orElseThrow();
+        mockMvc.perform(delete("/api/users/" + sales.getId()))
+                .andExpect(status().isServiceUnavailable());
+        assertThat(userRepository.existsById(sales.getId())).isTrue();
+        long head = changeFeedService.getHead();
+
+        mockMvc.perform(post("/api/snapshots/" + name + "/restore"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers").value(1))
+                .andExpect(jsonPath("$.interactions").value(1))
+                .andExpect(jsonPath("$.skippedSteps").doesNotExist());
+        // The feed starts over, and webhook targets get a notice instead of the stale events
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(head)))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.head").value(head + 1));
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(head + 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(0)));
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .satisfies(event -> assertThat(event.getSeq()).isEqualTo(head + 1))
+                .satisfies(event -> assertThat(event.getChangeType()).isEqualTo(ChangeType.RESTORED));
+        mockMvc.perform(get("/api/customers/" + kept.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("snap.kept@example.com"))
+                .andExpect(jsonPath("$.registrationDate").value("2023-06-01"));
+        mockMvc.perform(get("/api/customers/" + kept.getId() + "/interactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(interaction.getId()))
+                .andExpect(jsonPath("$[0].description").value("Bought the deluxe plan"));
+        assertThat(customerRepository.count()).isEqualTo(1);
+        assertThat(userRepository.count()).isEqualTo(users);
+
+        // The email index was rebuilt from the restored rows, and ids continue after the restored ones
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(later)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(kept.getId() + 1));
+        kept.setId(null);
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(kept)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/snapshots"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem(name)));
+        mockMvc.perform(post("/api/snapshots/snapshot-20000101-000000000.bin/restore"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("testReadsRouteToReplicaUntilClientWrites")
+    void testReadsRouteToReplicaUntilClientWrites() throws Exception {
+        mockMvc.perform(get("/api/datasources"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replicas", hasSize(1)))
+                .andExpect(jsonPath("$.replicas[0].healthy").value(true))
+                .andExpect(jsonPath("$.replicas[0].usable").value(true));
+
+        Customer customer = new Customer();
+        customer.setFirstName("Routed");
+        customer.setLastName("Reader");
+        customer.setEmail("routed.reader@example.com");
+        customer.setCustomerType(CustomerType.REGULAR);
+        long id = objectMapper.readTree(mockMvc.perform(post("/api/customers")
+                .with(request -> { request.setRemoteAddr("10.0.0.1"); return request; })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        // The writer reads its own change from the primary
+        JsonNode before = objectMapper.readTree(mockMvc.perform(get("/api/datasources"))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(get("/api/customers/" + id)
+                .with(request -> { request.setRemoteAddr("10.0.0.1"); return request; }))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("routed.reader@example.com"));
+        JsonNode afterWriter = objectMapper.readTree(mockMvc.perform(get("/api/datasources"))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(afterWriter.get("stickyReads").asLong()).isGreaterThan(before.get("stickyReads").asLong());
+
+        // Another client is served by the replica
+        mockMvc.perform(get("/api/customers/" + id)
+                .with(request -> { request.setRemoteAddr("10.0.0.2"); return request; }))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("routed.reader@example.com"));
+        JsonNode afterOther = objectMapper.readTree(mockMvc.perform(get("/api/datasources"))
+                .andReturn().getResponse().getContentAsString());
+        assertThat(afterOther.get("stickyReads").asLong()).isEqualTo(afterWriter.get("stickyReads").asLong());
+        assertThat(afterOther.get("replicas").get(0).get("reads").asLong())
+                .isGreaterThan(afterWriter.get("replicas").get(0).get("reads").asLong());
+    }
 }
@@ -1,5 +1,9 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.InteractionView;
+import com.examly.springapp.index.CustomerLeaderboards;
+import com.examly.springapp.index.CustomerSegmentIndex;
+import com.examly.springapp.index.Leaderboard;
 import com.examly.springapp.model.Customer;
 import com.examly.springapp.model.CustomerType;
 import com.examly.springapp.model.Interaction;
@@ -7,10 +11,13 @@ import com.examly.springapp.model.InteractionStatus;
 import com.examly.springapp.model.InteractionType;
 import com.examly.springapp.repository.CustomerRepository;
 import com.examly.springapp.repository.InteractionRepository;
+import com.examly.springapp.service.InteractionArchiveService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -18,12 +25,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import com.examly.springapp.config.TestConfig;
+import com.examly.springapp.storage.ColumnarFile;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +57,12 @@ class InteractionControllerTest {
     private InteractionRepository interactionRepository;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private InteractionArchiveService archiveService;
+    @Autowired
+    private CustomerLeaderboards leaderboards;
+    @Autowired
+    private CustomerSegmentIndex segmentIndex;
 
     private Long existingCustomerId;
 
@@ -146,4 +168,517 @@ class InteractionControllerTest {
         result.andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
+
+    @Test
+    @DisplayName("testBulkUpdateInteractionStatus")
+    void testBulkUpdateInteractionStatus() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Interaction interaction = new Interaction();
+            interaction.setCustomerId(existingCustomerId);
+            interaction.setInteractionType(InteractionType.SUPPORT);
+            interaction.setStatus(InteractionStatus.PENDING);
+            interaction.setInteractionDate(LocalDateTime.now().minusDays(30));
+            interactionRepository.save(interaction);
+        }
+        Interaction recent = new Interaction();
+        recent.setCustomerId(existingCustomerId);
+        recent.setInteractionType(InteractionType.SUPPORT);
+        recent.setStatus(InteractionStatus.PENDING);
+        recent = interactionRepository.save(recent);
+        long head = objectMapper.readTree(mockMvc.perform(get("/api/changes").param("since", "0").param("limit", "1"))
+                .andReturn().getResponse().getContentAsString()).get("head").asLong();
+
+        String body = objectMapper.writeValueAsString(Map.of(
+                "currentStatus", "PENDING",
+                "olderThan", LocalDateTime.now().minusDays(7).withNano(0).toString(),
+                "status", "CLOSED"));
+        String response = mockMvc.perform(post("/api/interactions/bulk-update")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").exists())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(response).get("id").asText();
+
+        JsonNode job = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            job = objectMapper.readTree(mockMvc.perform(get("/api/interactions/bulk-update/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (job.get("finished").asBoolean()) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(job.get("state").asText()).isEqualTo("COMPLETED");
+        assertThat(job.get("updated").asLong()).isEqualTo(3);
+        assertThat(interactionRepository.countByStatus(InteractionStatus.CLOSED)).isEqualTo(3);
+        assertThat(interactionRepository.findById(recent.getId()).get().getStatus())
+                .isEqualTo(InteractionStatus.PENDING);
+        // Each changed row is published like a single update, numbered in the chunk's block of seqs
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(head)))
+                .andExpect(jsonPath("$.changes", hasSize(3)))
+                .andExpect(jsonPath("$.nextSince").value(head + 3))
+                .andExpect(jsonPath("$.changes[*].changeType", everyItem(is("UPDATED"))))
+                .andExpect(jsonPath("$.changes[*].data.status", everyItem(is("CLOSED"))));
+
+        mockMvc.perform(post("/api/interactions/bulk-update")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("status", "CLOSED"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Specify ids")));
+    }
+
+    @Test
+    @DisplayName("testCustomerSummaryFollowsInteractionWrites")
+    void testCustomerSummaryFollowsInteractionWrites() throws Exception {
+        Interaction complaint = new Interaction();
+        complaint.setCustomerId(existingCustomerId);
+        complaint.setInteractionType(InteractionType.COMPLAINT);
+        complaint.setDescription("Parcel arrived damaged");
+        complaint.setStatus(InteractionStatus.OPEN);
+        String created = mockMvc.perform(post("/api/interactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(complaint)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long complaintId = objectMapper.readTree(created).get("id").asLong();
+
+        Interaction purchase = new Interaction();
+        purchase.setCustomerId(existingCustomerId);
+        purchase.setInteractionType(InteractionType.PURCHASE);
+        purchase.setStatus(InteractionStatus.CLOSED);
+        mockMvc.perform(post("/api/interactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchase)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/customers/summaries").param("minOpenComplaints", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(existingCustomerId))
+                .andExpect(jsonPath("$[0].totalInteractions").value(2))
+                .andExpect(jsonPath("$[0].purchases").value(1))
+                .andExpect(jsonPath("$[0].openComplaints").value(1));
+
+        complaint.setStatus(InteractionStatus.RESOLVED);
+        mockMvc.perform(put("/api/interactions/" + complaintId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(complaint)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/customers/summaries").param("minOpenComplaints", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(post("/api/customers/summaries/rebuild"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/summaries").param("sort", "totalInteractions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(existingCustomerId))
+                .andExpect(jsonPath("$[0].totalInteractions").value(2))
+                .andExpect(jsonPath("$[0].openComplaints").value(0));
+    }
+
+    @Test
+    @DisplayName("testPurchaseLeaderboardThisMonth")
+    void testPurchaseLeaderboardThisMonth() throws Exception {
+        Customer other = new Customer();
+        other.setFirstName("Second");
+        other.setLastName("Place");
+        other.setEmail("second.place@t.com");
+        other.setCustomerType(CustomerType.REGULAR);
+        other.setRegistrationDate(LocalDate.now());
+        Long otherId = customerRepository.save(other).getId();
+
+        for (Long customerId : new Long[] { existingCustomerId, existingCustomerId, otherId }) {
+            Interaction purchase = new Interaction();
+            purchase.setCustomerId(customerId);
+            purchase.setInteractionType(InteractionType.PURCHASE);
+            purchase.setStatus(InteractionStatus.CLOSED);
+            mockMvc.perform(post("/api/interactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(purchase)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/analytics/leaderboard").param("metric", "purchases").param("window", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].customerId").value(existingCustomerId))
+                .andExpect(jsonPath("$[0].score").value(2))
+                .andExpect(jsonPath("$[1].customerId").value(otherId))
+                .andExpect(jsonPath("$[1].rank").value(2));
+
+        mockMvc.perform(get("/api/analytics/leaderboard").param("metric", "refunds"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("testInquiryToPurchaseFunnel")
+    void testInquiryToPurchaseFunnel() throws Exception {
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        // Jane converts within the gap, the second customer too late, the third never asks
+        Long[] customerIds = { existingCustomerId, saveCustomer("funnel.late@t.com"), saveCustomer("funnel.buyer@t.com") };
+        saveInteraction(customerIds[0], InteractionType.INQUIRY, start);
+        saveInteraction(customerIds[0], InteractionType.PURCHASE, start.plusDays(3));
+        saveInteraction(customerIds[1], InteractionType.INQUIRY, start);
+        saveInteraction(customerIds[1], InteractionType.PURCHASE, start.plusDays(10));
+        saveInteraction(customerIds[2], InteractionType.PURCHASE, start.plusDays(1));
+
+        mockMvc.perform(get("/api/analytics/funnel")
+                .param("steps", "INQUIRY,PURCHASE")
+                .param("maxGapDays", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.steps", hasSize(2)))
+                .andExpect(jsonPath("$.steps[0].customers").value(2))
+                .andExpect(jsonPath("$.steps[1].step").value("PURCHASE"))
+                .andExpect(jsonPath("$.steps[1].customers").value(1))
+                .andExpect(jsonPath("$.steps[1].conversionFromPrevious").value(0.5));
+
+        mockMvc.perform(get("/api/analytics/funnel")
+                .param("steps", "INQUIRY,PURCHASE")
+                .param("maxGapDays", "14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.steps[1].customers").value(2));
+
+        mockMvc.perform(get("/api/analytics/funnel").param("steps", "INQUIRY,REFUND"))
+                .andExpect(status().isBadRequest());
+        // Archived interactions are out of the funnel's reach
+        mockMvc.perform(get("/api/analytics/funnel")
+                .param("steps", "INQUIRY,PURCHASE")
+                .param("since", LocalDate.now().minusYears(2).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long saveCustomer(String email) {
+        Customer customer = new Customer();
+        customer.setFirstName("Funnel");
+        customer.setLastName("Cust");
+        customer.setEmail(email);
+        customer.setCustomerType(CustomerType.REGULAR);
+        return customerRepository.save(customer).getId();
+    }
+
+    private void saveInteraction(Long customerId, InteractionType type, LocalDateTime date) {
+        Interaction interaction = new Interaction();
+        interaction.setCustomerId(customerId);
+        interaction.setInteractionType(type);
+        interaction.setStatus(InteractionStatus.CLOSED);
+        interaction.setInteractionDate(date);
+        interactionRepository.save(interaction);
+    }
+
+    @Test
+    @DisplayName("testComplaintBurstRaisesAlert")
+    void testComplaintBurstRaisesAlert() throws Exception {
+        Long lastComplaintId = null;
+        for (int i = 0; i < 3; i++) {
+            Interaction complaint = new Interaction();
+            complaint.setCustomerId(existingCustomerId);
+            complaint.setInteractionType(InteractionType.COMPLAINT);
+            complaint.setStatus(InteractionStatus.OPEN);
+            String body = mockMvc.perform(post("/api/interactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(complaint)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            lastComplaintId = objectMapper.readTree(body).get("id").asLong();
+
+            mockMvc.perform(get("/api/alerts").param("customerId", existingCustomerId.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(i < 2 ? 0 : 1)));
+        }
+
+        String alerts = mockMvc.perform(get("/api/alerts")
+                .param("customerId", existingCustomerId.toString())
+                .param("rule", "COMPLAINT_BURST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].interactionId").value(lastComplaintId))
+                .andExpect(jsonPath("$[0].acknowledged").value(false))
+                .andReturn().getResponse().getContentAsString();
+        long alertId = objectMapper.readTree(alerts).get(0).get("id").asLong();
+
+        mockMvc.perform(post("/api/alerts/" + alertId + "/acknowledge"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.acknowledged").value(true));
+        mockMvc.perform(get("/api/alerts")
+                .param("customerId", existingCustomerId.toString())
+                .param("acknowledged", "false"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/alerts/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.evaluations").isNumber());
+    }
+
+    @Test
+    @DisplayName("testOverdueComplaintBreachesSla")
+    void testOverdueComplaintBreachesSla() throws Exception {
+        Interaction complaint = new Interaction();
+        complaint.setCustomerId(existingCustomerId);
+        complaint.setInteractionType(InteractionType.COMPLAINT);
+        complaint.setStatus(InteractionStatus.OPEN);
+        complaint.setInteractionDate(LocalDateTime.now().minusDays(2));
+        long head = objectMapper.readTree(mockMvc.perform(get("/api/changes").param("since", "0").param("limit", "1"))
+                .andReturn().getResponse().getContentAsString()).get("head").asLong();
+        String body = mockMvc.perform(post("/api/interactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(complaint)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long complaintId = objectMapper.readTree(body).get("id").asLong();
+
+        // The deadline has already passed, so the next wheel tick fires it
+        JsonNode stats = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            stats = objectMapper.readTree(mockMvc.perform(get("/api/analytics/sla"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (stats.get("breaches").size() > 0) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(stats.get("breaches")).hasSize(1);
+        assertThat(stats.get("breaches").get(0).get("interactionType").asText()).isEqualTo("COMPLAINT");
+        assertThat(stats.get("breaches").get(0).get("stillOpen").asLong()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/alerts")
+                .param("customerId", existingCustomerId.toString())
+                .param("rule", "SLA_BREACH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].interactionId").value(complaintId));
+        // The breach is published as an ordinary update of the row
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(head)))
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[1].entityId").value(complaintId))
+                .andExpect(jsonPath("$.changes[1].changeType").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[1].data.slaBreachedAt").exists());
+        mockMvc.perform(get("/api/interactions/" + complaintId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slaBreachedAt").exists());
+    }
+
+    @Test
+    @DisplayName("testChangeFeedResumesFromSequence")
+    void testChangeFeedResumesFromSequence() throws Exception {
+        long head = objectMapper.readTree(mockMvc.perform(get("/api/changes").param("since", "0").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("head").asLong();
+
+        Interaction inquiry = new Interaction();
+        inquiry.setCustomerId(existingCustomerId);
+        inquiry.setInteractionType(InteractionType.INQUIRY);
+        inquiry.setStatus(InteractionStatus.OPEN);
+        String body = mockMvc.perform(post("/api/interactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(inquiry)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long inquiryId = objectMapper.readTree(body).get("id").asLong();
+        inquiry.setStatus(InteractionStatus.RESOLVED);
+        mockMvc.perform(put("/api/interactions/" + inquiryId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(inquiry)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/interactions/" + inquiryId))
+                .andExpect(status().isNoContent());
+
+        // Two pages of the three changes, resumed from nextSince
+        JsonNode first = objectMapper.readTree(mockMvc.perform(get("/api/changes")
+                .param("since", String.valueOf(head)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].seq").value(head + 1))
+                .andExpect(jsonPath("$.changes[0].entityType").value("INTERACTION"))
+                .andExpect(jsonPath("$.changes[0].entityId").value(inquiryId))
+                .andExpect(jsonPath("$.changes[0].changeType").value("CREATED"))
+                .andExpect(jsonPath("$.changes[1].changeType").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[1].data.status").value("RESOLVED"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(get("/api/changes").param("since", first.get("nextSince").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].seq").value(head + 3))
+                .andExpect(jsonPath("$.changes[0].changeType").value("DELETED"))
+                .andExpect(jsonPath("$.head").value(head + 3))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @DisplayName("testArchivedHistoryStaysInAnalytics")
+    void testArchivedHistoryStaysInAnalytics() throws Exception {
+        LocalDateTime purchasedAt = LocalDate.now().minusDays(10).atTime(12, 0);
+        saveInteraction(existingCustomerId, InteractionType.PURCHASE, purchasedAt);
+        saveInteraction(existingCustomerId, InteractionType.PURCHASE, purchasedAt.minusHours(1));
+        saveInteraction(existingCustomerId, InteractionType.COMPLAINT, LocalDateTime.now().minusDays(8));
+
+        // Well inside the leaderboard and segment windows
+        mockMvc.perform(post("/api/interactions/archive").param("olderThanDays", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archived").value(3));
+
+        leaderboards.rebuild();
+        segmentIndex.rebuild();
+        assertThat(leaderboards.top(CustomerLeaderboards.Metric.PURCHASES, YearMonth.from(purchasedAt), 5))
+                .containsExactly(new Leaderboard.Entry(existingCustomerId, 2));
+        assertThat(segmentIndex.count("recent:COMPLAINT")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("testArchivedInteractionsStayReadable")
+    void testArchivedInteractionsStayReadable() throws Exception {
+        Interaction old = new Interaction();
+        old.setCustomerId(existingCustomerId);
+        old.setInteractionType(InteractionType.RETURN);
+        old.setDescription("Returned a damaged kettle");
+        old.setStatus(InteractionStatus.CLOSED);
+        old.setInteractionDate(LocalDateTime.now().minusDays(400));
+        old = interactionRepository.save(old);
+        Long otherCustomerId = saveCustomer("archive.other@t.com");
+        Interaction otherOld = new Interaction();
+        otherOld.setCustomerId(otherCustomerId);
+        otherOld.setInteractionType(InteractionType.INQUIRY);
+        otherOld.setStatus(InteractionStatus.RESOLVED);
+        otherOld.setInteractionDate(LocalDateTime.now().minusDays(450));
+        otherOld = interactionRepository.save(otherOld);
+        Interaction recent = new Interaction();
+        recent.setCustomerId(existingCustomerId);
+        recent.setInteractionType(InteractionType.PURCHASE);
+        recent.setStatus(InteractionStatus.RESOLVED);
+        recent = interactionRepository.save(recent);
+
+        mockMvc.perform(post("/api/interactions/archive").param("olderThanDays", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/interactions/archive").param("olderThanDays", "380"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archived").value(2));
+        assertThat(interactionRepository.existsById(old.getId())).isFalse();
+        assertThat(interactionRepository.existsById(recent.getId())).isTrue();
+
+        mockMvc.perform(get("/api/interactions/" + old.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(existingCustomerId))
+                .andExpect(jsonPath("$.interactionType").value("RETURN"))
+                .andExpect(jsonPath("$.status").value("CLOSED"))
+                .andExpect(jsonPath("$.description").value("Returned a damaged kettle"))
+                .andExpect(jsonPath("$.archived").value(true));
+        mockMvc.perform(get("/api/customers/" + existingCustomerId + "/interactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(old.getId()))
+                .andExpect(jsonPath("$[0].archived").value(true))
+                .andExpect(jsonPath("$[1].id").value(recent.getId()))
+                .andExpect(jsonPath("$[1].archived").doesNotExist());
+
+        // Archived rows are read-only
+        Interaction edit = new Interaction();
+        edit.setCustomerId(existingCustomerId);
+        edit.setInteractionType(InteractionType.RETURN);
+        edit.setStatus(InteractionStatus.RESOLVED);
+        mockMvc.perform(put("/api/interactions/" + old.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(edit)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Interaction " + old.getId() + " is archived and read-only"));
+        mockMvc.perform(delete("/api/interactions/" + old.getId()))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/interactions/" + old.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CLOSED"));
+        mockMvc.perform(get("/api/interactions/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interactions", greaterThanOrEqualTo(1)));
+        mockMvc.perform(get("/api/interactions/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalInteractions").value(3))
+                .andExpect(jsonPath("$.archivedInteractions").value(2));
+        mockMvc.perform(post("/api/customers/summaries/rebuild"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/summaries").param("sort", "totalInteractions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(existingCustomerId))
+                .andExpect(jsonPath("$[0].totalInteractions").value(2))
+                .andExpect(jsonPath("$[0].purchases").value(1));
+        mockMvc.perform(get("/api/customers/" + existingCustomerId + "/overview"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalInteractions").value(2))
+                .andExpect(jsonPath("$.interactionsByType.RETURN").value(1))
+                .andExpect(jsonPath("$.interactionsByStatus.CLOSED").value(1))
+                .andExpect(jsonPath("$.recentInteractions", hasSize(1)));
+        mockMvc.perform(post("/api/customers/churn-risk/rebuild"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/churn-risk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + existingCustomerId + ")].interactions").value(2));
+
+        // The archive files keep the row, but it goes with its customer
+        long archivedId = old.getId();
+        mockMvc.perform(delete("/api/customers/" + existingCustomerId))
+                .andExpect(status().isNoContent());
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/interactions/" + archivedId)))
+                .hasRootCauseMessage("Interaction not found");
+        mockMvc.perform(get("/api/interactions/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalInteractions").value(1))
+                .andExpect(jsonPath("$.archivedInteractions").value(1));
+
+        // Compaction rewrites the file without it; the other customer's row stays readable
+        assertThat(archiveService.isArchived(archivedId)).isTrue();
+        assertThat(archiveService.compact()).isGreaterThanOrEqualTo(1);
+        assertThat(archiveService.isArchived(archivedId)).isFalse();
+        long otherId = otherOld.getId();
+        mockMvc.perform(get("/api/customers/" + otherCustomerId + "/interactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(otherId))
+                .andExpect(jsonPath("$[0].status").value("RESOLVED"));
+        mockMvc.perform(get("/api/interactions/" + otherId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(otherCustomerId));
+    }
+
+    @Test
+    @DisplayName("testColumnarExportOfDateRange")
+    void testColumnarExportOfDateRange(@TempDir Path dir) throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        for (int day = 0; day < 5; day++) {
+            Interaction interaction = new Interaction();
+            interaction.setCustomerId(existingCustomerId);
+            interaction.setInteractionType(day % 2 == 0 ? InteractionType.INQUIRY : InteractionType.PURCHASE);
+            interaction.setStatus(InteractionStatus.RESOLVED);
+            interaction.setDescription("day " + day);
+            interaction.setInteractionDate(base.plusDays(day));
+            interactionRepository.save(interaction);
+        }
+
+        MvcResult started = mockMvc.perform(get("/api/interactions/export")
+                .param("from", "2024-03-02T00:00:00")
+                .param("to", "2024-03-05T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("interactions.col")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Path file = dir.resolve("export.col");
+        Files.write(file, body);
+        ColumnarFile export = ColumnarFile.open(file);
+        assertThat(export.getRowCount()).isEqualTo(3);
+        ColumnarFile.RowGroup group = export.getRowGroups().get(0);
+        assertThat(ColumnarFile.fromMicros(group.minDate())).isEqualTo(base.plusDays(1));
+        assertThat(ColumnarFile.fromMicros(group.maxDate())).isEqualTo(base.plusDays(3));
+        List<InteractionView> rows = export.read(0);
+        assertThat(rows).extracting(InteractionView::description).containsExactly("day 1", "day 2", "day 3");
+        assertThat(rows).extracting(InteractionView::interactionType)
+                .containsExactly(InteractionType.PURCHASE, InteractionType.INQUIRY, InteractionType.PURCHASE);
+
+        mockMvc.perform(get("/api/interactions/export")
+                .param("from", "2024-03-05T00:00:00")
+                .param("to", "2024-03-02T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
 }